@@ -0,0 +1,122 @@
+package com.github.jeterlee.zscan.benchmark;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.Result;
+import com.google.zxing.common.HybridBinarizer;
+import com.zbar.lib.DecodeFormatManager;
+import com.zbar.lib.DecodeResult;
+import com.zbar.lib.DecoderEngine;
+import com.zbar.lib.RotateStrategy;
+import com.zbar.lib.RotatedFrame;
+import com.zbar.lib.SyntheticFrames;
+import com.zxing.decode.PlanarYUVLuminanceSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * Title: DecodeBenchmark
+ * Description: zxing 解码一组合成的预览帧（二维码与一维码），每次调用解码其中的一帧。
+ * previewPipeline 与解码线程相同：旋转裁剪后交给 {@link DecoderEngine}；
+ * multiFormatReader 只测量 {@link MultiFormatReader}（输入为已经旋转好的帧）。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class DecodeBenchmark {
+
+    @Param({"640x480", "1280x720"})
+    public String previewSize;
+
+    private List<SyntheticFrames.Frame> corpus;
+    private RotatedFrame[] rotatedFrames;
+    private int next;
+
+    private RotateStrategy rotateStrategy;
+    private RotatedFrame rotatedFrame;
+    private DecoderEngine engine;
+    private DecodeResult decodeResult;
+    private MultiFormatReader reader;
+
+    @Setup
+    public void setUp() {
+        int[] size = SyntheticFrames.parseSize(previewSize);
+        corpus = SyntheticFrames.corpus(size[0], size[1]);
+
+        // 与 DecodeWorkerPool 默认的解码格式相同
+        Set<BarcodeFormat> formats = EnumSet.noneOf(BarcodeFormat.class);
+        formats.addAll(DecodeFormatManager.ONE_D_FORMATS);
+        formats.addAll(DecodeFormatManager.QR_CODE_FORMATS);
+        formats.addAll(DecodeFormatManager.DATA_MATRIX_FORMATS);
+        Map<DecodeHintType, Object> hints = new EnumMap<>(DecodeHintType.class);
+        hints.put(DecodeHintType.POSSIBLE_FORMATS, formats);
+
+        rotateStrategy = RotateStrategy.Factory.CROP.create();
+        rotatedFrame = new RotatedFrame();
+        engine = DecoderEngine.Factory.ZXING.create(hints);
+        decodeResult = new DecodeResult();
+        reader = new MultiFormatReader();
+        reader.setHints(hints);
+
+        rotatedFrames = new RotatedFrame[corpus.size()];
+        for (int i = 0; i < rotatedFrames.length; i++) {
+            SyntheticFrames.Frame frame = corpus.get(i);
+            rotatedFrames[i] = new RotatedFrame();
+            RotateStrategy.Factory.CROP.create().rotate(frame.data, frame.width, frame.height,
+                    frame.cropLeft, frame.cropTop, frame.cropSize, frame.cropSize, rotatedFrames[i]);
+            if (!engine.decode(rotatedFrames[i], decodeResult)
+                    || !frame.text.equals(decodeResult.getText())) {
+                throw new IllegalStateException("Synthetic " + frame.format + " frame is not decodable");
+            }
+        }
+    }
+
+    private int nextIndex() {
+        int index = next;
+        next = index + 1 == rotatedFrames.length ? 0 : index + 1;
+        return index;
+    }
+
+    @Benchmark
+    public boolean previewPipeline() {
+        SyntheticFrames.Frame frame = corpus.get(nextIndex());
+        rotateStrategy.rotate(frame.data, frame.width, frame.height,
+                frame.cropLeft, frame.cropTop, frame.cropSize, frame.cropSize, rotatedFrame);
+        return engine.decode(rotatedFrame, decodeResult);
+    }
+
+    @Benchmark
+    public Result multiFormatReader() throws NotFoundException {
+        RotatedFrame frame = rotatedFrames[nextIndex()];
+        PlanarYUVLuminanceSource source = new PlanarYUVLuminanceSource(frame.getData(),
+                frame.getWidth(), frame.getHeight(), 0, 0, frame.getWidth(), frame.getHeight());
+        try {
+            return reader.decodeWithState(new BinaryBitmap(new HybridBinarizer(source)));
+        } finally {
+            reader.reset();
+        }
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.github.jeterlee.zscan.benchmark;
+
+import com.google.zxing.BarcodeFormat;
+import com.zbar.lib.RotateStrategy;
+import com.zbar.lib.RotatedFrame;
+import com.zbar.lib.SyntheticFrames;
+import com.zxing.decode.BitmapLuminanceSource;
+import com.zxing.decode.PlanarYUVLuminanceSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * Title: LuminanceSourceBenchmark
+ * Description: {@link PlanarYUVLuminanceSource} 的 getMatrix / getRow（旋转后的整帧按扫描框裁剪），
+ * 以及 {@link BitmapLuminanceSource} 的创建（相册图片解码的第一步）。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class LuminanceSourceBenchmark {
+
+    @Param({"640x480", "1280x720", "1920x1080"})
+    public String previewSize;
+
+    private SyntheticFrames.Frame frame;
+    private RotatedFrame rotatedFrame;
+    private PlanarYUVLuminanceSource planarSource;
+    private byte[] row;
+    private int[] argbPixels;
+    private int argbSize;
+
+    @Setup
+    public void setUp() {
+        int[] size = SyntheticFrames.parseSize(previewSize);
+        frame = SyntheticFrames.render(BarcodeFormat.QR_CODE, "zscan", size[0], size[1], 1);
+        rotatedFrame = new RotatedFrame();
+        RotateStrategy.Factory.FULL_FRAME.create().rotate(frame.data, frame.width, frame.height,
+                frame.cropLeft, frame.cropTop, frame.cropSize, frame.cropSize, rotatedFrame);
+        planarSource = newPlanarSource();
+        row = new byte[frame.cropSize];
+        // 相册图片按较短边缩放到 400 左右（参考 QRCodeUtils.analyzeBitmap），这里取帧的短边
+        argbSize = Math.min(size[0], size[1]);
+        argbPixels = SyntheticFrames.renderArgb(BarcodeFormat.QR_CODE, "zscan", argbSize);
+    }
+
+    private PlanarYUVLuminanceSource newPlanarSource() {
+        return new PlanarYUVLuminanceSource(rotatedFrame.getData(), rotatedFrame.getWidth(),
+                rotatedFrame.getHeight(), rotatedFrame.getCropLeft(), rotatedFrame.getCropTop(),
+                rotatedFrame.getCropWidth(), rotatedFrame.getCropHeight());
+    }
+
+    @Benchmark
+    public byte[] planarGetMatrix() {
+        return newPlanarSource().getMatrix();
+    }
+
+    /**
+     * 与 GlobalHistogramBinarizer 相同，逐行读取并复用行缓冲区
+     */
+    @Benchmark
+    public void planarGetRows(Blackhole blackhole) {
+        PlanarYUVLuminanceSource source = planarSource;
+        int height = source.getHeight();
+        byte[] buffer = row;
+        for (int y = 0; y < height; y++) {
+            buffer = source.getRow(y, buffer);
+        }
+        blackhole.consume(buffer);
+    }
+
+    @Benchmark
+    public BitmapLuminanceSource bitmapLuminanceSource() {
+        return new BitmapLuminanceSource(argbSize, argbSize, argbPixels);
+    }
+
+}
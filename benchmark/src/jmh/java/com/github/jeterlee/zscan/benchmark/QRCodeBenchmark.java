@@ -0,0 +1,102 @@
+package com.github.jeterlee.zscan.benchmark;
+
+import com.github.jeterlee.zscan.QRCodeEncoder;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.Hashtable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * Title: QRCodeBenchmark
+ * Description: QRCodeUtils.createQRCode 生成二维码的部分：原有的整张图片像素，与现在的渲染路径
+ * （按模块编码，QRCodeRenderer 按 {@link QRCodeEncoder#forEachRun} 给出的矩形逐行绘制）。
+ * JVM 上没有 Canvas 的本地实现，矩形填充到像素数组中，代替 Canvas.drawRect。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class QRCodeBenchmark {
+
+    @Param({"250", "500", "1000"})
+    public int size;
+
+    @Param({"https://github.com/jeterlee/zscan",
+            "zscan 是将 zxing & zbar 两者的优点结合在一起而诞生，实现的快速且稳定的摄像头扫码器，"
+                    + "支持扫描二维码和一维码，生成二维码，自定义扫码界面。"})
+    public String text;
+
+    private int[] pixels;
+
+    @Setup
+    public void setUp() {
+        pixels = new int[size * size];
+    }
+
+    /**
+     * 原有的 createQRCode：QRCodeWriter 生成 size * size 的 BitMatrix，再逐个像素转换为 ARGB
+     */
+    @Benchmark
+    public int[] createQRCode() throws WriterException {
+        Hashtable<EncodeHintType, String> hints = new Hashtable<>();
+        hints.put(EncodeHintType.CHARACTER_SET, "utf-8");
+        BitMatrix bitMatrix = new QRCodeWriter().encode(text,
+                BarcodeFormat.QR_CODE, size, size, hints);
+        int[] pixels = new int[size * size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                if (bitMatrix.get(x, y)) {
+                    pixels[y * size + x] = 0xff000000;
+                } else {
+                    pixels[y * size + x] = 0xffffffff;
+                }
+            }
+        }
+        return pixels;
+    }
+
+    @Benchmark
+    public BitMatrix encodeModules() throws WriterException {
+        return QRCodeEncoder.encodeModules(text, ErrorCorrectionLevel.L);
+    }
+
+    /**
+     * QRCodeRenderer.render 的路径：按模块编码，清空背景后逐行填充合并的矩形
+     */
+    @Benchmark
+    public int[] render() throws WriterException {
+        BitMatrix modules = QRCodeEncoder.encodeModules(text, ErrorCorrectionLevel.L);
+        final int[] target = pixels;
+        final int stride = size;
+        Arrays.fill(target, 0xffffffff);
+        QRCodeEncoder.forEachRun(modules, 0, 0, size, new QRCodeEncoder.RunCallback() {
+            @Override
+            public void onRun(int left, int top, int right, int bottom, boolean finder) {
+                for (int y = top; y < bottom; y++) {
+                    Arrays.fill(target, y * stride + left, y * stride + right, 0xff000000);
+                }
+            }
+        });
+        return target;
+    }
+
+}
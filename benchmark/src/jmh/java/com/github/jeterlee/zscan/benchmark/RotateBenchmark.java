@@ -0,0 +1,94 @@
+package com.github.jeterlee.zscan.benchmark;
+
+import com.google.zxing.BarcodeFormat;
+import com.zbar.lib.RotateStrategy;
+import com.zbar.lib.RotatedFrame;
+import com.zbar.lib.SyntheticFrames;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * Title: RotateBenchmark
+ * Description: DecodeHandler.decode 中预览帧的旋转（裁剪），对比各个 {@link RotateStrategy}
+ * 与原有的每帧分配整帧数组的实现。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class RotateBenchmark {
+
+    @Param({"640x480", "1280x720", "1920x1080"})
+    public String previewSize;
+
+    private SyntheticFrames.Frame frame;
+
+    /**
+     * 旋转策略只用于 {@link #rotate(StrategyState)}，legacyRotate 不受该参数影响
+     */
+    @State(Scope.Thread)
+    public static class StrategyState {
+
+        @Param({"CROP", "CROP_DIRECT", "FULL_FRAME"})
+        public String strategy;
+
+        RotateStrategy rotateStrategy;
+        RotatedFrame rotatedFrame;
+
+        @Setup
+        public void setUp() {
+            if ("CROP".equals(strategy)) {
+                rotateStrategy = RotateStrategy.Factory.CROP.create();
+            } else if ("CROP_DIRECT".equals(strategy)) {
+                rotateStrategy = RotateStrategy.Factory.CROP_DIRECT.create();
+            } else {
+                rotateStrategy = RotateStrategy.Factory.FULL_FRAME.create();
+            }
+            rotatedFrame = new RotatedFrame();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        int[] size = SyntheticFrames.parseSize(previewSize);
+        frame = SyntheticFrames.render(BarcodeFormat.QR_CODE, "zscan", size[0], size[1], 1);
+    }
+
+    @Benchmark
+    public RotatedFrame rotate(StrategyState state) {
+        state.rotateStrategy.rotate(frame.data, frame.width, frame.height,
+                frame.cropLeft, frame.cropTop, frame.cropSize, frame.cropSize, state.rotatedFrame);
+        return state.rotatedFrame;
+    }
+
+    /**
+     * 原有实现：每一帧分配 data.length 大小的数组并旋转整帧
+     */
+    @Benchmark
+    public byte[] legacyRotate() {
+        byte[] data = frame.data;
+        int width = frame.width;
+        int height = frame.height;
+        byte[] rotatedData = new byte[data.length];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                rotatedData[x * height + height - y - 1] = data[x + y * width];
+            }
+        }
+        return rotatedData;
+    }
+
+}
@@ -0,0 +1,38 @@
+/*
+ * zbar 的 config.h，代替 autoconf 生成的文件，供 CMakeLists.txt 编译 libzbar 使用。
+ * 各个解码器是否打开（ENABLE_EAN 等）由 CMakeLists.txt 根据源码中存在的解码器定义。
+ */
+
+#ifndef ZSCAN_ZBAR_CONFIG_H
+#define ZSCAN_ZBAR_CONFIG_H
+
+#define ZBAR_VERSION_MAJOR 0
+#define ZBAR_VERSION_MINOR 10
+
+/* 只处理内存中的图像，不需要视频设备与窗口 */
+#define X_DISPLAY_MISSING 1
+#define NO_STATS 1
+
+#define HAVE_ERRNO_H 1
+#define HAVE_FCNTL_H 1
+#define HAVE_ICONV 1
+#define HAVE_INTTYPES_H 1
+#define HAVE_LIMITS_H 1
+#define HAVE_MEMORY_H 1
+#define HAVE_STDINT_H 1
+#define HAVE_STDLIB_H 1
+#define HAVE_STRING_H 1
+#define HAVE_STRINGS_H 1
+#define HAVE_SYS_STAT_H 1
+#define HAVE_SYS_TIME_H 1
+#define HAVE_SYS_TYPES_H 1
+#define HAVE_UNISTD_H 1
+#define STDC_HEADERS 1
+
+#define ICONV_CONST
+
+#ifndef NDEBUG
+#define NDEBUG 1
+#endif
+
+#endif /* ZSCAN_ZBAR_CONFIG_H */
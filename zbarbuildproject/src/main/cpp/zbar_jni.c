@@ -0,0 +1,249 @@
+/*
+ * JNI 接口，对应 com.zbar.lib.ZbarManager
+ *
+ * 本地函数命名规则: Java_包名_类名_本地方法名 (Java_com_zbar_lib_ZbarManager_decode)。
+ * direct buffer 的版本使用不同的方法名（decodeDirect、decodeSymbolsDirect），不使用重载：
+ * 旧版本的 libzbar.so 只导出了不带参数签名的 decode，重载的方法会被绑定到 byte[] 的实现上
+ */
+
+#include <jni.h>
+#include <stdlib.h>
+#include <string.h>
+#include <zbar.h>
+
+/* 灰度图像格式 */
+#define FOURCC_Y800 zbar_fourcc('Y', '8', '0', '0')
+
+/* 每个条码固定的头部：类型、质量、顶点个数 */
+#define SYMBOL_HEADER_INTS 3
+
+static zbar_image_scanner_t *create_scanner(void) {
+    zbar_image_scanner_t *scanner = zbar_image_scanner_create();
+    zbar_image_scanner_set_config(scanner, 0, ZBAR_CFG_ENABLE, 1);
+    return scanner;
+}
+
+/*
+ * 检查裁剪区域是否位于图像内部
+ */
+static int crop_fits(jint width, jint height, jboolean isCrop,
+                     jint x, jint y, jint cwidth, jint cheight) {
+    if (width <= 0 || height <= 0) {
+        return 0;
+    }
+    if (!isCrop) {
+        return 1;
+    }
+    return x >= 0 && y >= 0 && cwidth > 0 && cheight > 0
+           && x <= width - cwidth && y <= height - cheight;
+}
+
+/*
+ * 用灰度数据创建 zbar 图像。需要裁剪时把裁剪区域复制到新的内存中（随图像一起释放），
+ * 否则直接引用 data，调用者需要保证扫描结束之前 data 有效。
+ */
+static zbar_image_t *create_image(const unsigned char *data, jint width, jint height,
+                                  jboolean isCrop, jint x, jint y, jint cwidth, jint cheight) {
+    zbar_image_t *image = zbar_image_create();
+    zbar_image_set_format(image, FOURCC_Y800);
+    if (isCrop) {
+        size_t size = (size_t) cwidth * (size_t) cheight;
+        unsigned char *cropped = malloc(size);
+        if (cropped == NULL) {
+            zbar_image_destroy(image);
+            return NULL;
+        }
+        const unsigned char *src = data + (size_t) y * (size_t) width + (size_t) x;
+        unsigned char *dst = cropped;
+        for (jint row = 0; row < cheight; row++) {
+            memcpy(dst, src, (size_t) cwidth);
+            src += width;
+            dst += cwidth;
+        }
+        zbar_image_set_size(image, (unsigned) cwidth, (unsigned) cheight);
+        zbar_image_set_data(image, cropped, size, zbar_image_free_data);
+    } else {
+        zbar_image_set_size(image, (unsigned) width, (unsigned) height);
+        zbar_image_set_data(image, data, (size_t) width * (size_t) height, NULL);
+    }
+    return image;
+}
+
+/*
+ * 按 UTF-8 创建 java 字符串（NewStringUTF 只接受 modified UTF-8，条码数据不一定满足）
+ */
+static jstring new_string_utf8(JNIEnv *env, const char *data, unsigned int length) {
+    jbyteArray bytes = (*env)->NewByteArray(env, (jsize) length);
+    if (bytes == NULL) {
+        return NULL;
+    }
+    (*env)->SetByteArrayRegion(env, bytes, 0, (jsize) length, (const jbyte *) data);
+    jclass stringClass = (*env)->FindClass(env, "java/lang/String");
+    jmethodID init = (*env)->GetMethodID(env, stringClass, "<init>", "([BLjava/lang/String;)V");
+    jstring charset = (*env)->NewStringUTF(env, "UTF-8");
+    jstring result = (jstring) (*env)->NewObject(env, stringClass, init, bytes, charset);
+    (*env)->DeleteLocalRef(env, charset);
+    (*env)->DeleteLocalRef(env, stringClass);
+    (*env)->DeleteLocalRef(env, bytes);
+    return result;
+}
+
+/*
+ * 扫描图像，返回第一个条码的内容
+ */
+static jstring scan_text(JNIEnv *env, const unsigned char *data, jint width, jint height,
+                         jboolean isCrop, jint x, jint y, jint cwidth, jint cheight) {
+    zbar_image_t *image = create_image(data, width, height, isCrop, x, y, cwidth, cheight);
+    if (image == NULL) {
+        return NULL;
+    }
+    zbar_image_scanner_t *scanner = create_scanner();
+    jstring result = NULL;
+    if (zbar_scan_image(scanner, image) > 0) {
+        const zbar_symbol_t *symbol = zbar_image_first_symbol(image);
+        if (symbol != NULL) {
+            result = new_string_utf8(env, zbar_symbol_get_data(symbol),
+                                     zbar_symbol_get_data_length(symbol));
+        }
+    }
+    zbar_image_destroy(image);
+    zbar_image_scanner_destroy(scanner);
+    return result;
+}
+
+static void put_int(unsigned char *out, size_t *offset, int value) {
+    memcpy(out + *offset, &value, sizeof(int));
+    *offset += sizeof(int);
+}
+
+/*
+ * 扫描图像，把所有条码按 DecodeResult.readZbarSymbols 的格式写入 out。
+ * 返回条码个数；空间不足时返回所需字节数的相反数。
+ */
+static jint scan_symbols(const unsigned char *data, jint width, jint height,
+                         jboolean isCrop, jint x, jint y, jint cwidth, jint cheight,
+                         unsigned char *out, size_t capacity) {
+    zbar_image_t *image = create_image(data, width, height, isCrop, x, y, cwidth, cheight);
+    if (image == NULL) {
+        return 0;
+    }
+    zbar_image_scanner_t *scanner = create_scanner();
+    jint count = 0;
+    size_t required = 0;
+    if (zbar_scan_image(scanner, image) > 0) {
+        const zbar_symbol_t *symbol;
+        for (symbol = zbar_image_first_symbol(image); symbol != NULL;
+             symbol = zbar_symbol_next(symbol)) {
+            unsigned int points = zbar_symbol_get_loc_size(symbol);
+            unsigned int length = zbar_symbol_get_data_length(symbol);
+            size_t size = (SYMBOL_HEADER_INTS + 2 * points + 1) * sizeof(int)
+                          + ((length + 3u) & ~3u);
+            if (required + size <= capacity) {
+                size_t offset = required;
+                put_int(out, &offset, (int) zbar_symbol_get_type(symbol));
+                put_int(out, &offset, zbar_symbol_get_quality(symbol));
+                put_int(out, &offset, (int) points);
+                for (unsigned int i = 0; i < points; i++) {
+                    put_int(out, &offset, zbar_symbol_get_loc_x(symbol, i));
+                    put_int(out, &offset, zbar_symbol_get_loc_y(symbol, i));
+                }
+                put_int(out, &offset, (int) length);
+                memcpy(out + offset, zbar_symbol_get_data(symbol), length);
+            }
+            required += size;
+            count++;
+        }
+    }
+    zbar_image_destroy(image);
+    zbar_image_scanner_destroy(scanner);
+    if (required > capacity) {
+        return -(jint) required;
+    }
+    return count;
+}
+
+JNIEXPORT jstring JNICALL
+Java_com_zbar_lib_ZbarManager_decode(
+        JNIEnv *env, jobject thiz, jbyteArray img, jint width, jint height, jboolean isCrop,
+        jint x, jint y, jint cwidth, jint cheight) {
+    if (img == NULL || !crop_fits(width, height, isCrop, x, y, cwidth, cheight)
+        || (*env)->GetArrayLength(env, img) < width * height) {
+        return NULL;
+    }
+    jbyte *data = (*env)->GetByteArrayElements(env, img, NULL);
+    if (data == NULL) {
+        return NULL;
+    }
+    jstring result = scan_text(env, (const unsigned char *) data, width, height,
+                               isCrop, x, y, cwidth, cheight);
+    (*env)->ReleaseByteArrayElements(env, img, data, JNI_ABORT);
+    return result;
+}
+
+JNIEXPORT jint JNICALL
+Java_com_zbar_lib_ZbarManager_decodeSymbols(
+        JNIEnv *env, jobject thiz, jbyteArray img, jint width, jint height, jboolean isCrop,
+        jint x, jint y, jint cwidth, jint cheight, jobject out) {
+    if (img == NULL || out == NULL || !crop_fits(width, height, isCrop, x, y, cwidth, cheight)
+        || (*env)->GetArrayLength(env, img) < width * height) {
+        return 0;
+    }
+    unsigned char *outAddress = (*env)->GetDirectBufferAddress(env, out);
+    jlong capacity = (*env)->GetDirectBufferCapacity(env, out);
+    if (outAddress == NULL || capacity < 0) {
+        return 0;
+    }
+    jbyte *data = (*env)->GetByteArrayElements(env, img, NULL);
+    if (data == NULL) {
+        return 0;
+    }
+    jint count = scan_symbols((const unsigned char *) data, width, height,
+                              isCrop, x, y, cwidth, cheight, outAddress, (size_t) capacity);
+    (*env)->ReleaseByteArrayElements(env, img, data, JNI_ABORT);
+    return count;
+}
+
+/*
+ * 取得 direct buffer 的地址，图像放不下时返回 NULL
+ */
+static const unsigned char *direct_image_address(JNIEnv *env, jobject img, jint width, jint height) {
+    if (img == NULL) {
+        return NULL;
+    }
+    jlong capacity = (*env)->GetDirectBufferCapacity(env, img);
+    if (capacity < (jlong) width * (jlong) height) {
+        return NULL;
+    }
+    return (const unsigned char *) (*env)->GetDirectBufferAddress(env, img);
+}
+
+JNIEXPORT jstring JNICALL
+Java_com_zbar_lib_ZbarManager_decodeDirect(
+        JNIEnv *env, jobject thiz, jobject img, jint width, jint height, jboolean isCrop,
+        jint x, jint y, jint cwidth, jint cheight) {
+    if (!crop_fits(width, height, isCrop, x, y, cwidth, cheight)) {
+        return NULL;
+    }
+    const unsigned char *data = direct_image_address(env, img, width, height);
+    if (data == NULL) {
+        return NULL;
+    }
+    return scan_text(env, data, width, height, isCrop, x, y, cwidth, cheight);
+}
+
+JNIEXPORT jint JNICALL
+Java_com_zbar_lib_ZbarManager_decodeSymbolsDirect(
+        JNIEnv *env, jobject thiz, jobject img, jint width, jint height, jboolean isCrop,
+        jint x, jint y, jint cwidth, jint cheight, jobject out) {
+    if (out == NULL || !crop_fits(width, height, isCrop, x, y, cwidth, cheight)) {
+        return 0;
+    }
+    const unsigned char *data = direct_image_address(env, img, width, height);
+    unsigned char *outAddress = (*env)->GetDirectBufferAddress(env, out);
+    jlong capacity = (*env)->GetDirectBufferCapacity(env, out);
+    if (data == NULL || outAddress == NULL || capacity < 0) {
+        return 0;
+    }
+    return scan_symbols(data, width, height, isCrop, x, y, cwidth, cheight,
+                        outAddress, (size_t) capacity);
+}
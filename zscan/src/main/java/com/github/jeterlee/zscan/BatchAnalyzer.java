@@ -0,0 +1,222 @@
+package com.github.jeterlee.zscan;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.zxing.Result;
+import com.zxing.decode.LuminanceImageLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <pre>
+ * Title: BatchAnalyzer
+ * Description: 批量解析图片中的条码（例如导入整个相册目录）。图片在固定数量的后台线程中并行解析，
+ * 每个线程只创建一个 MultiFormatReader 并在图片之间复用，图片通过 {@link LuminanceImageLoader} 分块读取亮度，不保留整张图片；
+ * 按照 {@link ProgressiveDecodePolicy} 先尝试缩略图和低分辨率，失败后再逐级提高分辨率。每张图片的结果和进度都在主线程中回调，
+ * 回调同时实现 {@link DecodeAttempt.Listener} 时还会得到每一级的耗时。可以随时取消。单张图片的解析参考 {@link QRCodeUtils#analyzeBitmap(String, com.zxing.ICaptureHandler.AnalyzeCallback)}。
+ * 同一个 BatchAnalyzer 的所有批次共用 threadCount 个线程，同时进行的批次轮流解析，空闲的线程自动结束。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public final class BatchAnalyzer {
+    private static final String TAG = BatchAnalyzer.class.getSimpleName();
+
+    /**
+     * 批量解析的回调，都在主线程中执行
+     */
+    public interface Callback {
+        /**
+         * 一张图片解析完成，不保证按照图片的顺序回调
+         *
+         * @param index  图片在列表中的位置
+         * @param uri    图片
+         * @param result 解析结果，没有识别到条码或图片无法读取时为 null
+         */
+        void onResult(int index, Uri uri, Result result);
+
+        /**
+         * 进度，每张图片解析完成后回调
+         *
+         * @param completed 已经完成的图片数
+         * @param total     图片总数
+         */
+        void onProgress(int completed, int total);
+
+        /**
+         * 全部完成或已经取消，只回调一次
+         *
+         * @param succeeded 识别到条码的图片数
+         * @param completed 已经完成的图片数，取消时小于 total
+         * @param cancelled 是否被取消
+         */
+        void onComplete(int succeeded, int completed, boolean cancelled);
+    }
+
+    private final ContentResolver contentResolver;
+    private final int threadCount;
+    private final ThreadPoolExecutor executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private ProgressiveDecodePolicy decodePolicy = new ProgressiveDecodePolicy();
+
+    /**
+     * 使用默认的线程数：可用的核心数，最多 4 个（同时解码的图片越多，占用的内存越多）
+     */
+    public BatchAnalyzer(Context context) {
+        this(context, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * @param threadCount 解析图片的线程数，小于 1 时按 1 处理
+     */
+    public BatchAnalyzer(Context context, int threadCount) {
+        this.contentResolver = context.getApplicationContext().getContentResolver();
+        this.threadCount = Math.max(1, threadCount);
+        executor = BatchTask.newExecutor(TAG, this.threadCount);
+    }
+
+    /**
+     * 设置逐级解析的策略，对之后开始的解析生效。解析过程中不要修改已经设置的策略
+     */
+    public BatchAnalyzer setDecodePolicy(ProgressiveDecodePolicy decodePolicy) {
+        if (decodePolicy == null) {
+            throw new NullPointerException("decodePolicy == null");
+        }
+        this.decodePolicy = decodePolicy;
+        return this;
+    }
+
+    public ProgressiveDecodePolicy getDecodePolicy() {
+        return decodePolicy;
+    }
+
+    /**
+     * 批量解析本地图片文件
+     *
+     * @param paths    图片路径
+     * @param callback 回调
+     * @return 用于取消解析
+     */
+    public Task analyzePaths(List<String> paths, Callback callback) {
+        List<Uri> uris = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            uris.add(Uri.fromFile(new File(path)));
+        }
+        return analyzeUris(uris, callback);
+    }
+
+    /**
+     * 批量解析图片，支持 file 与 content（例如相册返回的）Uri
+     *
+     * @param uris     图片
+     * @param callback 回调
+     * @return 用于取消解析
+     */
+    public Task analyzeUris(List<Uri> uris, Callback callback) {
+        Task task = new Task(new ArrayList<>(uris), decodePolicy, callback);
+        task.start();
+        return task;
+    }
+
+    /**
+     * 一次批量解析
+     */
+    public final class Task extends BatchTask {
+        private final List<Uri> uris;
+        private final ProgressiveDecodePolicy policy;
+        private final Callback callback;
+        private final AtomicInteger nextIndex = new AtomicInteger();
+
+        private Task(List<Uri> uris, ProgressiveDecodePolicy policy, Callback callback) {
+            super(executor, mainHandler);
+            this.uris = Collections.unmodifiableList(uris);
+            this.policy = policy;
+            this.callback = callback;
+        }
+
+        private void start() {
+            start(Math.min(threadCount, uris.size()));
+        }
+
+        /**
+         * 每个 worker 使用自己的 {@link ProgressiveDecoder}
+         */
+        @Override
+        Worker newWorker() {
+            return new Worker() {
+                private final ProgressiveDecoder decoder = new ProgressiveDecoder(policy);
+
+                @Override
+                boolean processNext() {
+                    int index = nextIndex.getAndIncrement();
+                    if (index >= uris.size()) {
+                        return false;
+                    }
+                    Uri uri = uris.get(index);
+                    List<DecodeAttempt> attempts = callback instanceof DecodeAttempt.Listener
+                            ? new ArrayList<DecodeAttempt>(policy.getLevelCount() + 1) : null;
+                    post(index, uri, analyze(decoder, uri, attempts), attempts);
+                    return true;
+                }
+
+                @Override
+                void release() {
+                    decoder.release();
+                }
+            };
+        }
+
+        private void post(final int index, final Uri uri, final Result result,
+                          final List<DecodeAttempt> attempts) {
+            post(result != null, new Runnable() {
+                @Override
+                public void run() {
+                    if (attempts != null) {
+                        ((DecodeAttempt.Listener) callback).onDecodeAttempts(
+                                uri, Collections.unmodifiableList(attempts));
+                    }
+                    callback.onResult(index, uri, result);
+                    callback.onProgress(getCompleted(), uris.size());
+                }
+            });
+        }
+
+        @Override
+        void onComplete(int succeeded, int completed, boolean cancelled) {
+            callback.onComplete(succeeded, completed, cancelled);
+        }
+
+        public int getTotal() {
+            return uris.size();
+        }
+    }
+
+    private Result analyze(ProgressiveDecoder decoder, Uri uri, List<DecodeAttempt> attempts) {
+        try {
+            return decoder.decode(contentResolver, uri, attempts);
+        } catch (IOException | SecurityException e) {
+            Log.w(TAG, "Unable to read " + uri, e);
+            return null;
+        } catch (RuntimeException e) {
+            // 图片损坏等情况下解码器可能抛出其他异常，只影响这一张图片
+            Log.w(TAG, "Unable to decode " + uri, e);
+            return null;
+        } catch (OutOfMemoryError e) {
+            Log.w(TAG, "Out of memory while decoding " + uri, e);
+            return null;
+        }
+    }
+
+}
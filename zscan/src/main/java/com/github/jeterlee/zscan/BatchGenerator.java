@@ -0,0 +1,261 @@
+package com.github.jeterlee.zscan;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * <pre>
+ * Title: BatchGenerator
+ * Description: 批量生成二维码并写为 PNG 文件（例如打印成千上万张标签）。内容从迭代器中逐个取出，
+ * 在固定数量的后台线程中并行编码，每个二维码通过 {@link QRCodePngWriter} 逐行写出 1 位灰度的 PNG，
+ * 不创建 Bitmap，内存占用与数量和分辨率都无关。每个二维码的结果和进度都在主线程中回调，可以随时取消。
+ * 同一个 BatchGenerator 的所有批次共用 threadCount 个线程，写入失败时丢弃不完整的输出。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public final class BatchGenerator {
+    private static final String TAG = BatchGenerator.class.getSimpleName();
+
+    /**
+     * 为每个二维码打开输出，在后台线程中调用
+     */
+    public interface OutputFactory {
+        /**
+         * @param index   内容在迭代器中的位置
+         * @param payload 内容
+         * @return 输出，写完后由 BatchGenerator 关闭
+         * @throws IOException 无法打开
+         */
+        OutputStream open(int index, String payload) throws IOException;
+
+        /**
+         * 编码或写入失败，输出已经关闭，删除不完整的内容（例如写了一半的文件）
+         *
+         * @param index   内容在迭代器中的位置
+         * @param payload 内容
+         */
+        void discard(int index, String payload);
+    }
+
+    /**
+     * 批量生成的回调，都在主线程中执行
+     */
+    public interface Callback {
+        /**
+         * 一个二维码生成完成，不保证按照顺序回调
+         *
+         * @param index   内容在迭代器中的位置
+         * @param payload 内容
+         * @param error   失败的原因（编码失败或写入失败），成功时为 null
+         */
+        void onResult(int index, String payload, Exception error);
+
+        /**
+         * 进度，每个二维码完成后回调
+         *
+         * @param completed 已经完成的数量
+         */
+        void onProgress(int completed);
+
+        /**
+         * 全部完成或已经取消，只回调一次
+         *
+         * @param succeeded 成功的数量
+         * @param completed 已经完成的数量
+         * @param cancelled 是否被取消
+         */
+        void onComplete(int succeeded, int completed, boolean cancelled);
+    }
+
+    private final int threadCount;
+    private final ThreadPoolExecutor executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private int size = 500;
+    private ErrorCorrectionLevel ecLevel = ErrorCorrectionLevel.L;
+
+    /**
+     * 使用默认的线程数：可用的核心数
+     */
+    public BatchGenerator() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param threadCount 生成的线程数，小于 1 时按 1 处理
+     */
+    public BatchGenerator(int threadCount) {
+        this.threadCount = Math.max(1, threadCount);
+        executor = BatchTask.newExecutor(TAG, this.threadCount);
+    }
+
+    /**
+     * 二维码的边长（像素），默认 500，对之后开始的生成生效
+     */
+    public BatchGenerator setSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size < 1");
+        }
+        this.size = size;
+        return this;
+    }
+
+    /**
+     * 容错级别，默认为 L，对之后开始的生成生效
+     */
+    public BatchGenerator setErrorCorrectionLevel(ErrorCorrectionLevel ecLevel) {
+        if (ecLevel == null) {
+            throw new NullPointerException("ecLevel == null");
+        }
+        this.ecLevel = ecLevel;
+        return this;
+    }
+
+    /**
+     * 写到目录中，文件名为 序号.png，失败时删除写了一半的文件
+     */
+    public static OutputFactory directoryOutput(final File directory) {
+        return new OutputFactory() {
+            @Override
+            public OutputStream open(int index, String payload) throws IOException {
+                return new FileOutputStream(file(index));
+            }
+
+            @Override
+            public void discard(int index, String payload) {
+                File file = file(index);
+                if (file.exists() && !file.delete()) {
+                    Log.w(TAG, "Unable to delete " + file);
+                }
+            }
+
+            private File file(int index) {
+                return new File(directory, index + ".png");
+            }
+        };
+    }
+
+    /**
+     * 批量生成
+     *
+     * @param payloads 内容，只在后台线程中按顺序访问（加锁），可以是惰性生成的
+     * @param output   每个二维码的输出
+     * @param callback 回调
+     * @return 用于取消生成
+     */
+    public Task generate(Iterator<String> payloads, OutputFactory output, Callback callback) {
+        Task task = new Task(payloads, output, size, ecLevel, callback);
+        task.start();
+        return task;
+    }
+
+    /**
+     * 一次批量生成
+     */
+    public final class Task extends BatchTask {
+        private final Iterator<String> payloads;
+        private final OutputFactory output;
+        private final int size;
+        private final ErrorCorrectionLevel ecLevel;
+        private final Callback callback;
+        /**
+         * 下一个内容的位置，与 payloads 一起在持有 payloads 的锁时访问
+         */
+        private int nextIndex;
+
+        private Task(Iterator<String> payloads, OutputFactory output, int size,
+                     ErrorCorrectionLevel ecLevel, Callback callback) {
+            super(executor, mainHandler);
+            this.payloads = payloads;
+            this.output = output;
+            this.size = size;
+            this.ecLevel = ecLevel;
+            this.callback = callback;
+        }
+
+        private void start() {
+            start(threadCount);
+        }
+
+        /**
+         * 每个 worker 使用自己的 {@link QRCodePngWriter}
+         */
+        @Override
+        Worker newWorker() {
+            return new Worker() {
+                private final QRCodePngWriter writer = new QRCodePngWriter();
+
+                @Override
+                boolean processNext() {
+                    int index;
+                    String payload;
+                    synchronized (payloads) {
+                        if (!payloads.hasNext()) {
+                            return false;
+                        }
+                        payload = payloads.next();
+                        index = nextIndex++;
+                    }
+                    post(index, payload, generate(writer, index, payload));
+                    return true;
+                }
+
+                @Override
+                void release() {
+                    writer.release();
+                }
+            };
+        }
+
+        private Exception generate(QRCodePngWriter writer, int index, String payload) {
+            OutputStream out = null;
+            try {
+                BitMatrix modules = QRCodeEncoder.encodeModules(payload, ecLevel);
+                out = new BufferedOutputStream(output.open(index, payload));
+                writer.write(modules, size, out);
+                out.close();
+                return null;
+            } catch (WriterException | IOException | IllegalArgumentException e) {
+                if (out != null) {
+                    try {
+                        out.close();
+                    } catch (IOException ignored) {
+                        // 已经失败，关闭时的异常不再报告
+                    }
+                    output.discard(index, payload);
+                }
+                return e;
+            }
+        }
+
+        private void post(final int index, final String payload, final Exception error) {
+            post(error == null, new Runnable() {
+                @Override
+                public void run() {
+                    callback.onResult(index, payload, error);
+                    callback.onProgress(getCompleted());
+                }
+            });
+        }
+
+        @Override
+        void onComplete(int succeeded, int completed, boolean cancelled) {
+            callback.onComplete(succeeded, completed, cancelled);
+        }
+    }
+
+}
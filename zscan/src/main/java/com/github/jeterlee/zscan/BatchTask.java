@@ -0,0 +1,201 @@
+package com.github.jeterlee.zscan;
+
+import android.os.Handler;
+import android.os.Process;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <pre>
+ * Title: BatchTask
+ * Description: {@link BatchAnalyzer} 与 {@link BatchGenerator} 共用的批量任务：在共享的线程池中运行
+ * 若干个 worker，每个 worker 处理一项后重新排队，同时进行的批次轮流使用线程；在主线程中统计进度、
+ * 回调结果，全部完成或取消时只回调一次 {@link #onComplete}。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+abstract class BatchTask {
+    /**
+     * 空闲的线程保留的时间
+     */
+    private static final long KEEP_ALIVE_SECONDS = 10;
+
+    private final Executor executor;
+    private final Handler mainHandler;
+    private final AtomicInteger runningWorkers = new AtomicInteger();
+    /**
+     * 以下状态只在主线程中访问
+     */
+    private int completed;
+    private int succeeded;
+    private boolean finished;
+    private volatile boolean cancelled;
+
+    BatchTask(Executor executor, Handler mainHandler) {
+        this.executor = executor;
+        this.mainHandler = mainHandler;
+    }
+
+    /**
+     * 最多 threadCount 个后台优先级线程的线程池，空闲一段时间后线程自动结束
+     *
+     * @param name        线程名的前缀
+     * @param threadCount 线程数
+     */
+    static ThreadPoolExecutor newExecutor(final String name, int threadCount) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threadCount, threadCount,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        return new Thread(new Runnable() {
+                            @Override
+                            public void run() {
+                                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                                runnable.run();
+                            }
+                        }, name + "-" + count.incrementAndGet());
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * 开始处理
+     *
+     * @param workerCount worker 的数量，为 0 时直接完成
+     */
+    final void start(int workerCount) {
+        if (workerCount == 0) {
+            postFinish();
+            return;
+        }
+        runningWorkers.set(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            executor.execute(newWorker());
+        }
+    }
+
+    /**
+     * 创建一个 worker，在 {@link #start} 中调用
+     */
+    abstract Worker newWorker();
+
+    /**
+     * 全部完成或已经取消，在主线程中只调用一次
+     */
+    abstract void onComplete(int succeeded, int completed, boolean cancelled);
+
+    /**
+     * 一项处理完成，在主线程中计数后执行 report（取消后不再执行）
+     *
+     * @param success 是否成功
+     * @param report  回调这一项的结果与进度，可以通过 {@link #getCompleted()} 得到已经完成的数量
+     */
+    final void post(final boolean success, final Runnable report) {
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (finished) {
+                    return;
+                }
+                completed++;
+                if (success) {
+                    succeeded++;
+                }
+                report.run();
+            }
+        });
+    }
+
+    /**
+     * 已经完成的数量，只能在主线程中调用
+     */
+    final int getCompleted() {
+        return completed;
+    }
+
+    private void postFinish() {
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                finish();
+            }
+        });
+    }
+
+    private void finish() {
+        if (!finished) {
+            finished = true;
+            onComplete(succeeded, completed, cancelled);
+        }
+    }
+
+    /**
+     * 取消，正在处理的一项完成后 worker 结束。之后不再回调 onResult，会立即回调 onComplete。
+     * 只能在主线程中调用
+     */
+    public final void cancel() {
+        if (finished) {
+            return;
+        }
+        cancelled = true;
+        finish();
+    }
+
+    public final boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 是否已经完成（或取消）
+     */
+    public final boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * 每次运行处理一项，还有下一项时重新排队；worker 不会被并发运行，可以持有自己复用的资源
+     */
+    abstract class Worker implements Runnable {
+        /**
+         * 处理下一项，在后台线程中调用
+         *
+         * @return 是否处理了一项，没有下一项时返回 false
+         */
+        abstract boolean processNext();
+
+        /**
+         * worker 结束时释放资源
+         */
+        abstract void release();
+
+        @Override
+        public final void run() {
+            boolean more = false;
+            try {
+                more = !cancelled && processNext();
+            } finally {
+                if (more) {
+                    executor.execute(this);
+                } else {
+                    release();
+                    if (runningWorkers.decrementAndGet() == 0) {
+                        postFinish();
+                    }
+                }
+            }
+        }
+    }
+
+}
@@ -22,6 +22,7 @@ import com.google.zxing.BarcodeFormat;
 import com.google.zxing.DecodeHintType;
 import com.google.zxing.Result;
 import com.zbar.lib.CaptureActivityHandler;
+import com.zbar.lib.DecodeOptions;
 import com.zxing.AmbientLightManager;
 import com.zxing.BeepManager;
 import com.zxing.FinishListener;
@@ -320,8 +321,10 @@ public class CaptureActivity extends AppCompatActivity
             CameraManager.get().openDriver(surfaceHolder);
             camera = CameraManager.get().getCamera();
             if (captureActivityHandler == null) {
+                // 连续扫码等参数来自设置
                 captureActivityHandler = new CaptureActivityHandler(this,
-                        decodeFormats, decodeHints, characterSet);
+                        decodeFormats, decodeHints, characterSet,
+                        DecodeOptions.fromPreferences(this));
             }
             decodeOrStoreSavedBitmap(null, null);
         } catch (IOException ioe) {
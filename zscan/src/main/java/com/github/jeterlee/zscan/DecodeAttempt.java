@@ -0,0 +1,91 @@
+package com.github.jeterlee.zscan;
+
+import android.net.Uri;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * <pre>
+ * Title: DecodeAttempt
+ * Description: 按照 {@link ProgressiveDecodePolicy} 解析一张图片时的一次尝试（缩略图或某一级分辨率），
+ * 包括读取与识别的耗时。解析回调实现 {@link Listener} 时可以得到每张图片的所有尝试。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public final class DecodeAttempt {
+
+    /**
+     * 由 {@link com.zxing.ICaptureHandler.AnalyzeCallback} 或 {@link BatchAnalyzer.Callback} 同时实现，
+     * 在对应的结果回调之前、在同一个线程中回调
+     */
+    public interface Listener {
+        /**
+         * @param uri      图片
+         * @param attempts 按时间顺序的所有尝试，最后一次成功时表示识别成功
+         */
+        void onDecodeAttempts(Uri uri, List<DecodeAttempt> attempts);
+    }
+
+    /**
+     * 缩略图的级别
+     */
+    public static final int LEVEL_THUMBNAIL = 0;
+
+    private final int level;
+    private final int width;
+    private final int height;
+    private final long elapsedNanos;
+    private final boolean success;
+
+    DecodeAttempt(int level, int width, int height, long elapsedNanos, boolean success) {
+        this.level = level;
+        this.width = width;
+        this.height = height;
+        this.elapsedNanos = elapsedNanos;
+        this.success = success;
+    }
+
+    /**
+     * @return 这一级的长边最大值，缩略图为 {@link #LEVEL_THUMBNAIL}
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    public boolean isThumbnail() {
+        return level == LEVEL_THUMBNAIL;
+    }
+
+    /**
+     * @return 实际识别的亮度图宽度，读取失败时为 0
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return 读取与识别的总耗时（纳秒）
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%s %dx%d %.1fms %s",
+                isThumbnail() ? "thumbnail" : String.valueOf(level), width, height,
+                elapsedNanos / 1e6, success ? "success" : "failed");
+    }
+
+}
@@ -0,0 +1,166 @@
+package com.github.jeterlee.zscan;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <pre>
+ * Title: PooledLruCache
+ * Description: {@link QRCodeCache} 使用的按字节数限制大小的 LRU 缓存与复用池，不依赖 Bitmap。
+ * 超出限制时淘汰最久没有使用的，被淘汰的值放入复用池（开启时），之后 {@link #take} 取出合适的重新使用。
+ * 比缓存上限还大的值不缓存也不放入复用池：放入后会立即被淘汰，而调用者仍在使用它。线程安全。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+abstract class PooledLruCache<K, V> {
+    private final LinkedHashMap<K, V> map = new LinkedHashMap<>(16, 0.75f, true);
+    private final int maxBytes;
+    private final int poolMaxBytes;
+    /**
+     * 被淘汰、等待复用的值，按放入的顺序
+     */
+    private final List<V> pool = new ArrayList<>();
+    private int bytes;
+    private int poolBytes;
+    private int hitCount;
+    private int missCount;
+    private int evictionCount;
+
+    /**
+     * @param maxBytes     缓存最多占用的字节数
+     * @param poolMaxBytes 复用池最多占用的字节数，0 表示不开启复用池
+     */
+    PooledLruCache(int maxBytes, int poolMaxBytes) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("maxBytes < 1");
+        }
+        this.maxBytes = maxBytes;
+        this.poolMaxBytes = Math.max(0, poolMaxBytes);
+    }
+
+    /**
+     * 值占用的字节数，放入缓存后不能改变
+     */
+    abstract int sizeOf(V value);
+
+    /**
+     * 值是否可以放入复用池（例如可修改、没有 recycle 的图片）
+     */
+    abstract boolean isReusable(V value);
+
+    /**
+     * 复用池中的值是否可以用于生成 key 对应的值（例如大小、格式相同）
+     */
+    abstract boolean fits(V value, K key);
+
+    synchronized V get(K key) {
+        V value = map.get(key);
+        if (value != null) {
+            hitCount++;
+        } else {
+            missCount++;
+        }
+        return value;
+    }
+
+    /**
+     * 放入缓存，超出限制时淘汰最久没有使用的。被替换的旧值可能仍在使用，不放入复用池
+     *
+     * @return 是否缓存，比缓存上限还大时不缓存
+     */
+    synchronized boolean put(K key, V value) {
+        int size = sizeOf(value);
+        if (size > maxBytes) {
+            return false;
+        }
+        V old = map.put(key, value);
+        if (old != null) {
+            bytes -= sizeOf(old);
+        }
+        bytes += size;
+        Iterator<Map.Entry<K, V>> iterator = map.entrySet().iterator();
+        while (bytes > maxBytes) {
+            V eldest = iterator.next().getValue();
+            iterator.remove();
+            bytes -= sizeOf(eldest);
+            evictionCount++;
+            recycle(eldest);
+        }
+        return true;
+    }
+
+    /**
+     * 从复用池中取出一个可以用于 key 的值，优先最近放入的
+     *
+     * @return 没有时为 null
+     */
+    synchronized V take(K key) {
+        for (int i = pool.size() - 1; i >= 0; i--) {
+            V value = pool.get(i);
+            if (fits(value, key)) {
+                pool.remove(i);
+                poolBytes -= sizeOf(value);
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 放入复用池，没有开启、不能复用或比复用池上限还大时丢弃。放不下时丢弃最早放入的
+     */
+    synchronized void recycle(V value) {
+        if (poolMaxBytes == 0 || !isReusable(value)) {
+            return;
+        }
+        int size = sizeOf(value);
+        if (size > poolMaxBytes) {
+            return;
+        }
+        while (poolBytes + size > poolMaxBytes) {
+            poolBytes -= sizeOf(pool.remove(0));
+        }
+        pool.add(value);
+        poolBytes += size;
+    }
+
+    /**
+     * 清空缓存与复用池
+     */
+    synchronized void clear() {
+        map.clear();
+        bytes = 0;
+        pool.clear();
+        poolBytes = 0;
+    }
+
+    synchronized int getSizeBytes() {
+        return bytes;
+    }
+
+    int getMaxSizeBytes() {
+        return maxBytes;
+    }
+
+    synchronized int getPoolBytes() {
+        return poolBytes;
+    }
+
+    synchronized int getHitCount() {
+        return hitCount;
+    }
+
+    synchronized int getMissCount() {
+        return missCount;
+    }
+
+    synchronized int getEvictionCount() {
+        return evictionCount;
+    }
+
+}
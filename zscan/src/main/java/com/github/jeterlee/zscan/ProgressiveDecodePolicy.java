@@ -0,0 +1,77 @@
+package com.github.jeterlee.zscan;
+
+import java.util.Arrays;
+
+/**
+ * <pre>
+ * Title: ProgressiveDecodePolicy
+ * Description: 图片解析的逐级重试策略。先尝试 EXIF 中的缩略图（可选），失败后按照 levels 从小到大
+ * 逐级提高分辨率重新读取（每一级的长边不超过对应的值），第一次识别成功就停止。
+ * 大多数照片中的二维码在很低的分辨率下就能识别，只有条码很小或很密时才需要读取更大的图片。
+ * 缩小比例为 2 的幂次，缩小比例与上一级相同的级别会被跳过，原图已经尝试过后不再继续。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public final class ProgressiveDecodePolicy {
+    private static final int[] DEFAULT_LEVELS = {800, 1600, 3200};
+
+    private boolean useThumbnail = true;
+    private int[] levels = DEFAULT_LEVELS.clone();
+
+    /**
+     * 只按一种分辨率解析，不尝试缩略图（逐级重试之前的行为）
+     *
+     * @param maxDimension 长边的最大值
+     */
+    public static ProgressiveDecodePolicy singleLevel(int maxDimension) {
+        return new ProgressiveDecodePolicy().setUseThumbnail(false).setLevels(maxDimension);
+    }
+
+    /**
+     * 是否先尝试 EXIF 中的缩略图，默认尝试。读取 content Uri 的缩略图需要 Android 7.0 以上
+     */
+    public ProgressiveDecodePolicy setUseThumbnail(boolean useThumbnail) {
+        this.useThumbnail = useThumbnail;
+        return this;
+    }
+
+    public boolean isUseThumbnail() {
+        return useThumbnail;
+    }
+
+    /**
+     * 设置各级的长边最大值，默认为 800、1600、3200
+     *
+     * @param maxDimensions 至少一个，都大于 0，会按从小到大排序
+     */
+    public ProgressiveDecodePolicy setLevels(int... maxDimensions) {
+        if (maxDimensions == null || maxDimensions.length == 0) {
+            throw new IllegalArgumentException("At least one level is required");
+        }
+        int[] sorted = maxDimensions.clone();
+        Arrays.sort(sorted);
+        if (sorted[0] < 1) {
+            throw new IllegalArgumentException("Level < 1: " + sorted[0]);
+        }
+        this.levels = sorted;
+        return this;
+    }
+
+    /**
+     * @return 各级的长边最大值，从小到大
+     */
+    public int[] getLevels() {
+        return levels.clone();
+    }
+
+    int getLevelCount() {
+        return levels.length;
+    }
+
+    int getLevel(int index) {
+        return levels[index];
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.github.jeterlee.zscan;
+
+import android.content.ContentResolver;
+import android.net.Uri;
+
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.Result;
+import com.zxing.decode.LuminanceImageLoader;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * <pre>
+ * Title: ProgressiveDecoder
+ * Description: 按照 {@link ProgressiveDecodePolicy} 逐级解析图片。reader 与 {@link LuminanceImageLoader}
+ * 在各级之间、图片之间复用（亮度缓冲区只在更大的一级需要时才重新分配）。不是线程安全的，每个线程使用各自的实例。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+final class ProgressiveDecoder {
+    private final ProgressiveDecodePolicy policy;
+    private final MultiFormatReader reader = QRCodeUtils.newAnalyzeReader();
+    private final LuminanceImageLoader loader = new LuminanceImageLoader();
+
+    ProgressiveDecoder(ProgressiveDecodePolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * @param resolver 读取 content Uri，file Uri 时可以为 null
+     * @param uri      图片
+     * @param attempts 不为 null 时记录每一次尝试
+     * @return 识别结果，没有识别到条码时为 null
+     * @throws IOException 图片无法读取
+     */
+    Result decode(ContentResolver resolver, Uri uri, List<DecodeAttempt> attempts)
+            throws IOException {
+        if (policy.isUseThumbnail()) {
+            long start = System.nanoTime();
+            LuminanceSource thumbnail = loader.loadThumbnail(resolver, uri);
+            if (thumbnail != null) {
+                Result result = QRCodeUtils.decodeLuminance(reader, thumbnail);
+                record(attempts, DecodeAttempt.LEVEL_THUMBNAIL, thumbnail, start, result);
+                if (result != null) {
+                    return result;
+                }
+            }
+        }
+        int previousSampleSize = 0;
+        for (int i = 0; i < policy.getLevelCount(); i++) {
+            int maxDimension = policy.getLevel(i);
+            if (previousSampleSize != 0 && LuminanceImageLoader.computeSampleSize(
+                    loader.getSourceWidth(), loader.getSourceHeight(), maxDimension)
+                    >= previousSampleSize) {
+                // 与上一级的缩小比例相同，结果不会不同
+                continue;
+            }
+            long start = System.nanoTime();
+            loader.setMaxDimension(maxDimension);
+            LuminanceSource source = loader.load(resolver, uri);
+            Result result = QRCodeUtils.decodeLuminance(reader, source);
+            record(attempts, maxDimension, source, start, result);
+            if (result != null) {
+                return result;
+            }
+            previousSampleSize = LuminanceImageLoader.computeSampleSize(
+                    loader.getSourceWidth(), loader.getSourceHeight(), maxDimension);
+            if (previousSampleSize == 1) {
+                // 已经是原图
+                break;
+            }
+        }
+        return null;
+    }
+
+    private static void record(List<DecodeAttempt> attempts, int level, LuminanceSource source,
+                               long start, Result result) {
+        if (attempts != null) {
+            attempts.add(new DecodeAttempt(level, source.getWidth(), source.getHeight(),
+                    System.nanoTime() - start, result != null));
+        }
+    }
+
+    /**
+     * 释放复用的缓冲区
+     */
+    void release() {
+        loader.release();
+    }
+
+}
@@ -0,0 +1,258 @@
+package com.github.jeterlee.zscan;
+
+import android.graphics.Bitmap;
+
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+
+import java.util.Locale;
+
+/**
+ * <pre>
+ * Title: QRCodeCache
+ * Description: 生成的二维码图片的缓存，同样的内容（文字、大小、容错级别、图片格式、logo、样式）再次生成时直接返回之前的图片。
+ * 按图片占用的字节数限制大小，超出时淘汰最久没有使用的；比上限还大的图片不缓存。统计命中与未命中的次数。
+ * 可以开启复用池：被淘汰的图片放入池中，之后生成同样大小、格式的二维码时直接在上面重新绘制，不再分配新的图片。
+ * 只有调用者在图片被淘汰后不再显示它时才能开启复用池（例如只在列表当前可见的项中使用）。
+ * 返回的图片由缓存持有，调用者不能修改或 recycle。线程安全。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public final class QRCodeCache {
+
+    /**
+     * 生成缓存中没有的图片
+     */
+    public interface Generator {
+        /**
+         * @param reusable 复用池中大小、格式与 key 相同的可修改图片，可以在上面重新绘制后返回；没有时为 null
+         * @return 生成的图片，失败时为 null（不缓存）
+         */
+        Bitmap generate(Bitmap reusable);
+    }
+
+    /**
+     * 缓存的 key。logo 按 generationId 与大小比较（不持有 logo，缓存不会让调用者的 logo 无法回收，
+     * logo 的内容改变后 generationId 也会改变），style 按 equals 比较，可以是任何描述样式的不可变对象
+     */
+    public static final class Key {
+        private final String text;
+        private final int size;
+        private final ErrorCorrectionLevel ecLevel;
+        private final Bitmap.Config config;
+        private final boolean hasLogo;
+        private final int logoGenerationId;
+        private final int logoWidth;
+        private final int logoHeight;
+        private final Object style;
+
+        /**
+         * @param text    文字或网址
+         * @param size    二维码的大小
+         * @param ecLevel 容错级别
+         * @param config  图片格式
+         * @param logo    logo，没有时为 null
+         * @param style   样式（颜色等），没有时为 null
+         */
+        public Key(String text, int size, ErrorCorrectionLevel ecLevel, Bitmap.Config config,
+                   Bitmap logo, Object style) {
+            if (text == null || ecLevel == null || config == null) {
+                throw new NullPointerException("text, ecLevel and config are required");
+            }
+            this.text = text;
+            this.size = size;
+            this.ecLevel = ecLevel;
+            this.config = config;
+            this.hasLogo = logo != null;
+            this.logoGenerationId = hasLogo ? logo.getGenerationId() : 0;
+            this.logoWidth = hasLogo ? logo.getWidth() : 0;
+            this.logoHeight = hasLogo ? logo.getHeight() : 0;
+            this.style = style;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return size == other.size && text.equals(other.text) && ecLevel == other.ecLevel
+                    && config == other.config && hasLogo == other.hasLogo
+                    && logoGenerationId == other.logoGenerationId
+                    && logoWidth == other.logoWidth && logoHeight == other.logoHeight
+                    && (style == null ? other.style == null : style.equals(other.style));
+        }
+
+        @Override
+        public int hashCode() {
+            int result = text.hashCode();
+            result = 31 * result + size;
+            result = 31 * result + ecLevel.hashCode();
+            result = 31 * result + config.hashCode();
+            result = 31 * result + (hasLogo ? 1 : 0);
+            result = 31 * result + logoGenerationId;
+            result = 31 * result + logoWidth;
+            result = 31 * result + logoHeight;
+            result = 31 * result + (style == null ? 0 : style.hashCode());
+            return result;
+        }
+    }
+
+    private final PooledLruCache<Key, Bitmap> cache;
+
+    /**
+     * 使用默认的大小：最大堆内存的 1/16，不开启复用池
+     */
+    public QRCodeCache() {
+        this((int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 16), 0);
+    }
+
+    /**
+     * @param maxBytes     缓存的图片最多占用的字节数
+     * @param poolMaxBytes 复用池最多占用的字节数，0 表示不开启复用池
+     */
+    public QRCodeCache(int maxBytes, int poolMaxBytes) {
+        this.cache = new PooledLruCache<Key, Bitmap>(maxBytes, poolMaxBytes) {
+            @Override
+            int sizeOf(Bitmap value) {
+                return value.getAllocationByteCount();
+            }
+
+            @Override
+            boolean isReusable(Bitmap value) {
+                return !value.isRecycled() && value.isMutable();
+            }
+
+            @Override
+            boolean fits(Bitmap value, Key key) {
+                return value.getWidth() == key.size && value.getHeight() == key.size
+                        && value.getConfig() == key.config;
+            }
+        };
+    }
+
+    /**
+     * 生成二维码（ARGB_8888），参考 {@link QRCodeUtils#createQRCode(String, int)}
+     */
+    public Bitmap createQRCode(String text, int size) {
+        return createQRCode(text, size, Bitmap.Config.ARGB_8888);
+    }
+
+    /**
+     * 生成二维码，参考 {@link QRCodeUtils#createQRCode(String, int, Bitmap.Config)}
+     *
+     * @return 编码失败时为 null
+     */
+    public Bitmap createQRCode(final String text, final int size, final Bitmap.Config config) {
+        return get(new Key(text, size, ErrorCorrectionLevel.L, config, null, null), new Generator() {
+            @Override
+            public Bitmap generate(Bitmap reusable) {
+                if (reusable == null) {
+                    return QRCodeUtils.createQRCode(text, size, config);
+                }
+                try {
+                    BitMatrix modules = QRCodeEncoder.encodeModules(text, ErrorCorrectionLevel.L);
+                    QRCodeRenderer.render(modules, reusable, 0xff000000, 0xffffffff);
+                    return reusable;
+                } catch (WriterException e) {
+                    e.printStackTrace();
+                    return null;
+                }
+            }
+        });
+    }
+
+    /**
+     * 按照样式生成二维码，参考 {@link QRCodeUtils#createQRCode(String, int, Bitmap, QRCodeStyle)}
+     *
+     * @param composer 生成缓存中没有的二维码
+     * @return 编码失败时为 null
+     */
+    public Bitmap createQRCode(final String text, final int size, final Bitmap logo,
+                               final QRCodeStyle style, final QRCodeComposer composer) {
+        Key key = new Key(text, size, style.getErrorCorrectionLevel(), Bitmap.Config.ARGB_8888,
+                logo, style);
+        return get(key, new Generator() {
+            @Override
+            public Bitmap generate(Bitmap reusable) {
+                if (reusable == null) {
+                    return composer.compose(text, size, logo, style);
+                }
+                try {
+                    BitMatrix modules = QRCodeEncoder.encodeModules(text,
+                            style.getErrorCorrectionLevel());
+                    composer.compose(modules, reusable, logo, style);
+                    return reusable;
+                } catch (WriterException e) {
+                    e.printStackTrace();
+                    return null;
+                }
+            }
+        });
+    }
+
+    /**
+     * 取出缓存的图片，没有时调用 generator 生成并放入缓存。生成在调用者的线程中进行，不持有锁
+     *
+     * @return 图片，生成失败时为 null
+     */
+    public Bitmap get(Key key, Generator generator) {
+        Bitmap bitmap = cache.get(key);
+        if (bitmap != null) {
+            return bitmap;
+        }
+        Bitmap reusable = cache.take(key);
+        bitmap = generator.generate(reusable);
+        if (reusable != null && bitmap != reusable) {
+            cache.recycle(reusable);
+        }
+        if (bitmap != null) {
+            // 比上限还大时不缓存，也不会放入复用池，调用者可以一直使用
+            cache.put(key, bitmap);
+        }
+        return bitmap;
+    }
+
+    /**
+     * 清空缓存与复用池（不 recycle 图片，可能仍在显示）
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    public int getHitCount() {
+        return cache.getHitCount();
+    }
+
+    public int getMissCount() {
+        return cache.getMissCount();
+    }
+
+    public int getEvictionCount() {
+        return cache.getEvictionCount();
+    }
+
+    /**
+     * @return 缓存的图片占用的字节数
+     */
+    public int getSizeBytes() {
+        return cache.getSizeBytes();
+    }
+
+    public int getMaxSizeBytes() {
+        return cache.getMaxSizeBytes();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "QRCodeCache[bytes=%d/%d, hits=%d, misses=%d, evictions=%d]",
+                getSizeBytes(), getMaxSizeBytes(), getHitCount(), getMissCount(), getEvictionCount());
+    }
+
+}
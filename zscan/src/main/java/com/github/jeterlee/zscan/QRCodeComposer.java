@@ -0,0 +1,194 @@
+package com.github.jeterlee.zscan;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Shader;
+import android.util.LruCache;
+
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+
+/**
+ * <pre>
+ * Title: QRCodeComposer
+ * Description: 按照 {@link QRCodeStyle} 生成带 logo 的二维码。只编码一次（每个模块一个点），
+ * 模块按行合并后用 Canvas 绘制（{@link QRCodeRenderer}），logo 通过画笔的 BitmapShader 或一次 drawBitmap 合成，
+ * 不逐个像素判断；需要拉伸到整个二维码的 logo 由 Shader 缩放，不生成整张图片大小的副本。
+ * 放在中央的 logo 直接缩放到最终大小，缩放结果按（logo 的 generationId 与宽高，大小）缓存，同一个 logo
+ * 反复生成时不再缩放。缓存不持有原始的 logo，logo 的内容改变后 generationId 随之改变，不会用到旧的缩放结果。
+ * 线程安全。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public final class QRCodeComposer {
+    /**
+     * FILL_MODULES_DARK 时叠加的黑色的不透明度
+     */
+    private static final int DARKEN_ALPHA = 0x80;
+
+    /**
+     * 缩放后的 logo 的 key。只记录 logo 的 generationId 与宽高，不引用 logo，
+     * 否则缓存会让调用者的 logo 一直无法回收，而且不计入缓存的大小
+     */
+    private static final class ScaledLogoKey {
+        private final int generationId;
+        private final int width;
+        private final int height;
+        private final int size;
+
+        ScaledLogoKey(Bitmap logo, int size) {
+            this.generationId = logo.getGenerationId();
+            this.width = logo.getWidth();
+            this.height = logo.getHeight();
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ScaledLogoKey)) {
+                return false;
+            }
+            ScaledLogoKey other = (ScaledLogoKey) o;
+            return generationId == other.generationId && width == other.width
+                    && height == other.height && size == other.size;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = generationId;
+            result = 31 * result + width;
+            result = 31 * result + height;
+            result = 31 * result + size;
+            return result;
+        }
+    }
+
+    private final LruCache<ScaledLogoKey, Bitmap> scaledLogos;
+
+    /**
+     * 缩放后的 logo 最多占用 4 MB
+     */
+    public QRCodeComposer() {
+        this(4 * 1024 * 1024);
+    }
+
+    /**
+     * @param logoCacheBytes 缩放后的 logo 最多占用的字节数
+     */
+    public QRCodeComposer(int logoCacheBytes) {
+        scaledLogos = new LruCache<ScaledLogoKey, Bitmap>(Math.max(1, logoCacheBytes)) {
+            @Override
+            protected int sizeOf(ScaledLogoKey key, Bitmap value) {
+                return value.getAllocationByteCount();
+            }
+        };
+    }
+
+    /**
+     * 生成二维码（ARGB_8888）
+     *
+     * @param text  文字或网址
+     * @param size  二维码的大小
+     * @param logo  logo，样式不需要 logo 时可以为 null
+     * @param style 样式
+     * @return 图片，编码失败时为 null
+     */
+    public Bitmap compose(String text, int size, Bitmap logo, QRCodeStyle style) {
+        BitMatrix modules;
+        try {
+            modules = QRCodeEncoder.encodeModules(text, style.getErrorCorrectionLevel());
+        } catch (WriterException e) {
+            e.printStackTrace();
+            return null;
+        }
+        Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        compose(modules, bitmap, logo, style);
+        return bitmap;
+    }
+
+    /**
+     * 把二维码绘制到已有的图片上（覆盖原有内容）
+     *
+     * @param modules 模块矩阵
+     * @param target  可修改的正方形图片
+     * @param logo    logo，样式不需要 logo 时可以为 null
+     * @param style   样式
+     */
+    public void compose(BitMatrix modules, Bitmap target, Bitmap logo, QRCodeStyle style) {
+        int size = Math.min(target.getWidth(), target.getHeight());
+        QRCodeStyle.LogoMode mode = logo == null ? QRCodeStyle.LogoMode.NONE : style.getLogoMode();
+        Canvas canvas = new Canvas(target);
+        target.eraseColor(style.getBackground());
+
+        if (mode == QRCodeStyle.LogoMode.BACKGROUND) {
+            Paint logoPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+            logoPaint.setAlpha(style.getLogoAlpha());
+            canvas.drawBitmap(logo, null, new Rect(0, 0, size, size), logoPaint);
+        }
+
+        Paint paint = new Paint();
+        Paint finderPaint = paint;
+        if (mode == QRCodeStyle.LogoMode.FILL_MODULES
+                || mode == QRCodeStyle.LogoMode.FILL_MODULES_DARK) {
+            // 模块的颜色取自拉伸到整个二维码的 logo
+            BitmapShader shader = new BitmapShader(logo,
+                    Shader.TileMode.CLAMP, Shader.TileMode.CLAMP);
+            Matrix matrix = new Matrix();
+            matrix.setScale((float) size / logo.getWidth(), (float) size / logo.getHeight());
+            shader.setLocalMatrix(matrix);
+            paint.setShader(shader);
+        } else {
+            paint.setColor(style.getForeground());
+        }
+        if (style.hasFinderColor()) {
+            finderPaint = new Paint();
+            finderPaint.setColor(style.getFinderColor());
+        }
+        QRCodeRenderer.draw(modules, canvas, 0, 0, size, paint, finderPaint);
+
+        if (mode == QRCodeStyle.LogoMode.FILL_MODULES_DARK) {
+            Paint dark = new Paint();
+            dark.setColor(0xff000000);
+            dark.setAlpha(DARKEN_ALPHA);
+            QRCodeRenderer.draw(modules, canvas, 0, 0, size, dark,
+                    style.hasFinderColor() ? finderPaint : dark);
+        }
+
+        if (mode == QRCodeStyle.LogoMode.CENTER) {
+            int logoSize = Math.max(1, Math.round(size * style.getLogoRatio()));
+            int left = (size - logoSize) / 2;
+            // logo 覆盖下面的模块，透明的部分显示背景色
+            Paint background = new Paint();
+            background.setColor(style.getBackground());
+            canvas.drawRect(left, left, left + logoSize, left + logoSize, background);
+            canvas.drawBitmap(scaledLogo(logo, logoSize), left, left, null);
+        }
+    }
+
+    private Bitmap scaledLogo(Bitmap logo, int size) {
+        if (logo.getWidth() == size && logo.getHeight() == size) {
+            return logo;
+        }
+        ScaledLogoKey key = new ScaledLogoKey(logo, size);
+        Bitmap scaled = scaledLogos.get(key);
+        if (scaled == null) {
+            scaled = Bitmap.createScaledBitmap(logo, size, size, true);
+            scaledLogos.put(key, scaled);
+        }
+        return scaled;
+    }
+
+    /**
+     * 清空缩放后的 logo
+     */
+    public void clearLogoCache() {
+        scaledLogos.evictAll();
+    }
+
+}
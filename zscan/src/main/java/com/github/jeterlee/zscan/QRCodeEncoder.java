@@ -0,0 +1,137 @@
+package com.github.jeterlee.zscan;
+
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.Encoder;
+
+import java.util.Hashtable;
+
+/**
+ * <pre>
+ * Title: QRCodeEncoder
+ * Description: 把文字编码为二维码，不依赖 Bitmap。{@link #encodeModules} 得到每个模块一个点的矩阵
+ * （21 * 21 ~ 177 * 177），{@link QRCodeRenderer} 按模块放大后绘制；{@link #moduleScale}、{@link #moduleOffset}
+ * 给出与 QRCodeWriter 相同的排版（四周留 4 个模块的空白，放大倍数取整后居中），
+ * {@link #forEachRun} 按这个排版给出每一行合并后的矩形。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public final class QRCodeEncoder {
+
+    /**
+     * 四周空白的模块数，与 QRCodeWriter 相同
+     */
+    public static final int QUIET_ZONE = 4;
+    /**
+     * 定位图案的模块数
+     */
+    private static final int FINDER_SIZE = 7;
+
+    /**
+     * 接收每一行中连续的深色模块合并成的矩形（像素坐标，不包括 right、bottom）
+     */
+    public interface RunCallback {
+        /**
+         * @param finder 是否位于定位图案中
+         */
+        void onRun(int left, int top, int right, int bottom, boolean finder);
+    }
+
+    private QRCodeEncoder() {
+    }
+
+    /**
+     * 把文字编码为模块矩阵，不包含四周的空白
+     *
+     * @param text    文字或网址
+     * @param ecLevel 容错级别
+     * @return 每个模块一个点，true 为深色
+     * @throws WriterException 编码失败（例如内容过长）
+     */
+    public static BitMatrix encodeModules(String text, ErrorCorrectionLevel ecLevel)
+            throws WriterException {
+        if (text == null || text.isEmpty()) {
+            throw new IllegalArgumentException("Found empty contents");
+        }
+        Hashtable<EncodeHintType, Object> hints = new Hashtable<>();
+        hints.put(EncodeHintType.CHARACTER_SET, "utf-8");
+        ByteMatrix matrix = Encoder.encode(text, ecLevel, hints).getMatrix();
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+        BitMatrix modules = new BitMatrix(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (matrix.get(x, y) == 1) {
+                    modules.set(x, y);
+                }
+            }
+        }
+        return modules;
+    }
+
+    /**
+     * 每个模块占用的像素数（整数，至少为 1）
+     *
+     * @param moduleCount 模块矩阵的边长
+     * @param size        图片的边长
+     */
+    public static int moduleScale(int moduleCount, int size) {
+        return Math.max(1, size / (moduleCount + 2 * QUIET_ZONE));
+    }
+
+    /**
+     * 第一个模块在图片中的位置（居中）
+     */
+    public static int moduleOffset(int moduleCount, int size) {
+        return (size - moduleCount * moduleScale(moduleCount, size)) / 2;
+    }
+
+    /**
+     * 按 {@link #moduleScale}、{@link #moduleOffset} 的排版，把每一行中连续的深色模块合并为矩形，
+     * 依次交给 callback，定位图案的边界处分开。{@link QRCodeRenderer} 用这些矩形绘制
+     *
+     * @param modules  模块矩阵
+     * @param left     二维码（包括四周的空白）左上角的位置
+     * @param top      二维码左上角的位置
+     * @param size     二维码的边长
+     * @param callback 接收矩形
+     */
+    public static void forEachRun(BitMatrix modules, int left, int top, int size,
+                                  RunCallback callback) {
+        int count = modules.getWidth();
+        int scale = moduleScale(count, size);
+        int offsetX = left + moduleOffset(count, size);
+        int offsetY = top + moduleOffset(modules.getHeight(), size);
+        for (int y = 0; y < modules.getHeight(); y++) {
+            int rowTop = offsetY + y * scale;
+            int x = 0;
+            while (x < count) {
+                if (!modules.get(x, y)) {
+                    x++;
+                    continue;
+                }
+                boolean finder = isFinder(x, y, count);
+                int start = x;
+                while (x < count && modules.get(x, y) && isFinder(x, y, count) == finder) {
+                    x++;
+                }
+                callback.onRun(offsetX + start * scale, rowTop, offsetX + x * scale,
+                        rowTop + scale, finder);
+            }
+        }
+    }
+
+    /**
+     * 是否位于左上、右上、左下的定位图案中
+     */
+    static boolean isFinder(int x, int y, int count) {
+        return (x < FINDER_SIZE || x >= count - FINDER_SIZE) && y < FINDER_SIZE
+                || x < FINDER_SIZE && y >= count - FINDER_SIZE;
+    }
+
+}
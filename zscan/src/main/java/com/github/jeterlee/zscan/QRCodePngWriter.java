@@ -0,0 +1,182 @@
+package com.github.jeterlee.zscan;
+
+import com.google.zxing.common.BitMatrix;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * <pre>
+ * Title: QRCodePngWriter
+ * Description: 把模块矩阵（{@link QRCodeEncoder#encodeModules}）逐行写为 1 位灰度的 PNG，不依赖 Bitmap。
+ * 每次只生成一行像素（size / 8 字节），同一模块行放大后的各行相同，压缩后几乎不占空间，
+ * 因此内存占用与图片大小无关，可以输出打印用的超大分辨率（例如 20000 * 20000）。排版与 QRCodeWriter 相同。
+ * 同一个实例复用行缓冲区与 Deflater，不是线程安全的，每个线程使用各自的实例，用完后调用 {@link #release()}。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public final class QRCodePngWriter {
+    private static final byte[] SIGNATURE = {(byte) 137, 80, 78, 71, 13, 10, 26, 10};
+    private static final byte[] IHDR = {'I', 'H', 'D', 'R'};
+    private static final byte[] IDAT = {'I', 'D', 'A', 'T'};
+    private static final byte[] IEND = {'I', 'E', 'N', 'D'};
+    /**
+     * 每个 IDAT 块的最大长度
+     */
+    private static final int IDAT_SIZE = 32 * 1024;
+
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    private final CRC32 crc = new CRC32();
+    private final byte[] chunkBuffer = new byte[IDAT_SIZE];
+    private byte[] whiteRow;
+    private byte[] moduleRow;
+
+    /**
+     * 写出 size * size 的 PNG（深色模块为黑色，其余为白色），不关闭 out
+     *
+     * @param modules 模块矩阵
+     * @param size    图片的边长
+     * @param out     输出
+     * @throws IOException 写入失败
+     */
+    public void write(BitMatrix modules, int size, OutputStream out) throws IOException {
+        if (size < 1) {
+            throw new IllegalArgumentException("size < 1");
+        }
+        int count = modules.getWidth();
+        int scale = QRCodeEncoder.moduleScale(count, size);
+        int offset = QRCodeEncoder.moduleOffset(count, size);
+        // 每行以过滤方式（0，不过滤）开始
+        int rowBytes = 1 + (size + 7) / 8;
+        prepareRows(rowBytes);
+
+        out.write(SIGNATURE);
+        byte[] header = new byte[13];
+        putInt(header, 0, size);
+        putInt(header, 4, size);
+        // 位深 1，灰度，默认压缩、过滤方式，不隔行
+        header[8] = 1;
+        writeChunk(out, IHDR, header, header.length);
+
+        deflater.reset();
+        IdatOutputStream idat = new IdatOutputStream(out);
+        DeflaterOutputStream compressed = new DeflaterOutputStream(idat, deflater, 8192);
+        for (int y = 0; y < size; y++) {
+            int moduleY = y - offset;
+            if (moduleY < 0 || moduleY >= count * scale) {
+                compressed.write(whiteRow, 0, rowBytes);
+            } else if (moduleY % scale == 0) {
+                fillRow(modules, moduleY / scale, count, scale, offset, size, rowBytes);
+                compressed.write(moduleRow, 0, rowBytes);
+            } else {
+                compressed.write(moduleRow, 0, rowBytes);
+            }
+        }
+        compressed.finish();
+        idat.flushChunk();
+        writeChunk(out, IEND, chunkBuffer, 0);
+    }
+
+    private void prepareRows(int rowBytes) {
+        if (whiteRow == null || whiteRow.length < rowBytes) {
+            whiteRow = new byte[rowBytes];
+            moduleRow = new byte[rowBytes];
+        }
+        Arrays.fill(whiteRow, (byte) 0xff);
+        whiteRow[0] = 0;
+    }
+
+    /**
+     * 生成一个模块行放大后的像素行：1 为白色，0 为黑色，高位在前
+     */
+    private void fillRow(BitMatrix modules, int moduleY, int count, int scale, int offset,
+                         int size, int rowBytes) {
+        System.arraycopy(whiteRow, 0, moduleRow, 0, rowBytes);
+        for (int moduleX = 0; moduleX < count; moduleX++) {
+            if (!modules.get(moduleX, moduleY)) {
+                continue;
+            }
+            int end = Math.min(size, offset + (moduleX + 1) * scale);
+            for (int x = Math.max(0, offset + moduleX * scale); x < end; x++) {
+                moduleRow[1 + (x >> 3)] &= ~(0x80 >>> (x & 7));
+            }
+        }
+    }
+
+    private void writeChunk(OutputStream out, byte[] type, byte[] data, int length)
+            throws IOException {
+        byte[] header = new byte[8];
+        putInt(header, 0, length);
+        System.arraycopy(type, 0, header, 4, 4);
+        out.write(header);
+        out.write(data, 0, length);
+        crc.reset();
+        crc.update(type);
+        crc.update(data, 0, length);
+        byte[] trailer = new byte[4];
+        putInt(trailer, 0, (int) crc.getValue());
+        out.write(trailer);
+    }
+
+    private static void putInt(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) (value >>> 24);
+        buffer[offset + 1] = (byte) (value >>> 16);
+        buffer[offset + 2] = (byte) (value >>> 8);
+        buffer[offset + 3] = (byte) value;
+    }
+
+    /**
+     * 把压缩后的数据分成 IDAT 块写出
+     */
+    private final class IdatOutputStream extends OutputStream {
+        private final OutputStream out;
+        private int length;
+
+        IdatOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (length == IDAT_SIZE) {
+                flushChunk();
+            }
+            chunkBuffer[length++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (length == IDAT_SIZE) {
+                    flushChunk();
+                }
+                int n = Math.min(len, IDAT_SIZE - length);
+                System.arraycopy(b, off, chunkBuffer, length, n);
+                length += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        void flushChunk() throws IOException {
+            if (length > 0) {
+                writeChunk(out, IDAT, chunkBuffer, length);
+                length = 0;
+            }
+        }
+    }
+
+    /**
+     * 释放 Deflater 的本地内存，之后不能再使用
+     */
+    public void release() {
+        deflater.end();
+    }
+
+}
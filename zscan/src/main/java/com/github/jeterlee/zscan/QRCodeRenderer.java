@@ -0,0 +1,123 @@
+package com.github.jeterlee.zscan;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+
+import com.google.zxing.common.BitMatrix;
+
+/**
+ * <pre>
+ * Title: QRCodeRenderer
+ * Description: 把模块矩阵（{@link QRCodeEncoder#encodeModules}）绘制为二维码图片。每一行中连续的深色模块
+ * 合并为一个矩形直接画到目标 Bitmap 或 Canvas 上，不需要整张图片大小的像素数组，也不需要 size * size 的 BitMatrix。
+ * 支持 ARGB_8888、RGB_565 与 ALPHA_8：ALPHA_8 只保存透明度，深色模块不透明、其余透明，可以作为遮罩着色。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public final class QRCodeRenderer {
+
+    private QRCodeRenderer() {
+    }
+
+    /**
+     * 生成二维码图片
+     *
+     * @param modules    模块矩阵
+     * @param size       图片的边长
+     * @param config     图片格式，ALPHA_8 时忽略颜色
+     * @param foreground 深色模块的颜色
+     * @param background 背景颜色
+     * @return size * size 的图片
+     */
+    public static Bitmap render(BitMatrix modules, int size, Bitmap.Config config,
+                                int foreground, int background) {
+        Bitmap bitmap = Bitmap.createBitmap(size, size, config);
+        render(modules, bitmap, foreground, background);
+        return bitmap;
+    }
+
+    /**
+     * 把二维码绘制到已有的图片上（覆盖原有内容），用于复用图片
+     *
+     * @param modules    模块矩阵
+     * @param target     可修改的正方形图片，ALPHA_8 时忽略颜色
+     * @param foreground 深色模块的颜色
+     * @param background 背景颜色
+     */
+    public static void render(BitMatrix modules, Bitmap target, int foreground, int background) {
+        if (target.getConfig() == Bitmap.Config.ALPHA_8) {
+            foreground = Color.BLACK;
+            background = Color.TRANSPARENT;
+        }
+        target.eraseColor(background);
+        Paint paint = new Paint();
+        paint.setColor(foreground);
+        draw(modules, new Canvas(target), 0, 0, Math.min(target.getWidth(), target.getHeight()), paint);
+    }
+
+    /**
+     * 在 canvas 上绘制深色模块（不绘制背景），与 QRCodeWriter 的排版相同
+     *
+     * @param modules 模块矩阵
+     * @param canvas  目标
+     * @param left    二维码（包括四周的空白）左上角的位置
+     * @param top     二维码左上角的位置
+     * @param size    二维码的边长
+     * @param paint   深色模块的画笔，应关闭抗锯齿，保证模块边缘清晰
+     */
+    public static void draw(BitMatrix modules, Canvas canvas, int left, int top, int size,
+                            Paint paint) {
+        draw(modules, canvas, left, top, size, paint, paint);
+    }
+
+    /**
+     * 与 {@link #draw(BitMatrix, Canvas, int, int, int, Paint)} 相同，三个角上 7 * 7 的定位图案使用 finderPaint
+     */
+    public static void draw(BitMatrix modules, final Canvas canvas, int left, int top, int size,
+                            final Paint paint, final Paint finderPaint) {
+        // 连续的深色模块合并为一个矩形，定位图案的边界处分开
+        QRCodeEncoder.forEachRun(modules, left, top, size, new QRCodeEncoder.RunCallback() {
+            @Override
+            public void onRun(int runLeft, int runTop, int runRight, int runBottom,
+                              boolean finder) {
+                canvas.drawRect(runLeft, runTop, runRight, runBottom,
+                        finder ? finderPaint : paint);
+            }
+        });
+    }
+
+    /**
+     * 生成矢量路径，坐标以模块为单位（包括四周的空白，边长为 模块数 + 8），每一行中连续的深色模块合并为一个矩形。
+     * 绘制时用 Matrix 或 Canvas.scale 缩放到任意大小，不需要先生成大图再缩放
+     *
+     * @param modules 模块矩阵
+     * @return 路径
+     */
+    public static Path toPath(BitMatrix modules) {
+        Path path = new Path();
+        int count = modules.getWidth();
+        for (int y = 0; y < modules.getHeight(); y++) {
+            int top = y + QRCodeEncoder.QUIET_ZONE;
+            int x = 0;
+            while (x < count) {
+                if (!modules.get(x, y)) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < count && modules.get(x, y)) {
+                    x++;
+                }
+                path.addRect(start + QRCodeEncoder.QUIET_ZONE, top,
+                        x + QRCodeEncoder.QUIET_ZONE, top + 1, Path.Direction.CW);
+            }
+        }
+        return path;
+    }
+
+}
@@ -0,0 +1,263 @@
+package com.github.jeterlee.zscan;
+
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+
+/**
+ * <pre>
+ * Title: QRCodeStyle
+ * Description: 二维码的样式（颜色、定位图案的颜色、logo 的绘制方式、容错级别），由 {@link QRCodeComposer} 绘制。
+ * 不可修改，可以作为 {@link QRCodeCache.Key} 的样式。预设的样式对应 QRCodeUtils.createQRCodeWithLogo2 ~ 6。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public final class QRCodeStyle {
+
+    /**
+     * logo 的绘制方式
+     */
+    public enum LogoMode {
+        /**
+         * 不绘制 logo
+         */
+        NONE,
+        /**
+         * logo 缩放到 logoRatio 大小后绘制在中央，覆盖下面的模块
+         */
+        CENTER,
+        /**
+         * logo 拉伸到整个二维码，作为深色模块的颜色
+         */
+        FILL_MODULES,
+        /**
+         * 与 FILL_MODULES 相同，再叠加一层半透明的黑色，颜色更深，更容易识别
+         */
+        FILL_MODULES_DARK,
+        /**
+         * logo 拉伸到整个二维码，按 logoAlpha 的透明度作为背景
+         */
+        BACKGROUND
+    }
+
+    /**
+     * 黑色模块，白色背景，没有 logo
+     */
+    public static final QRCodeStyle PLAIN = new Builder().build();
+    /**
+     * logo 的颜色代替黑色的模块（createQRCodeWithLogo2）
+     */
+    public static final QRCodeStyle LOGO_FILL_MODULES = new Builder()
+            .setErrorCorrectionLevel(ErrorCorrectionLevel.H)
+            .setLogoMode(LogoMode.FILL_MODULES)
+            .build();
+    /**
+     * 红色的模块，半透明的 logo 作为底色（createQRCodeWithLogo3）
+     */
+    public static final QRCodeStyle LOGO_BACKGROUND = new Builder()
+            .setErrorCorrectionLevel(ErrorCorrectionLevel.H)
+            .setForeground(0xfff92736)
+            .setBackground(0x00000000)
+            .setLogoMode(LogoMode.BACKGROUND)
+            .build();
+    /**
+     * 比 LOGO_FILL_MODULES 的颜色深一些（createQRCodeWithLogo4）
+     */
+    public static final QRCodeStyle LOGO_FILL_MODULES_DARK = new Builder()
+            .setErrorCorrectionLevel(ErrorCorrectionLevel.H)
+            .setLogoMode(LogoMode.FILL_MODULES_DARK)
+            .build();
+    /**
+     * 中央带 logo 的绿色二维码（createQRCodeWithLogo5）
+     */
+    public static final QRCodeStyle LOGO_CENTER = new Builder()
+            .setErrorCorrectionLevel(ErrorCorrectionLevel.H)
+            .setForeground(0xff37b19e)
+            .setLogoMode(LogoMode.CENTER)
+            .build();
+    /**
+     * 中央带 logo，三个定位图案为红色（createQRCodeWithLogo6）
+     */
+    public static final QRCodeStyle LOGO_CENTER_FINDER = new Builder()
+            .setErrorCorrectionLevel(ErrorCorrectionLevel.H)
+            .setForeground(0xff111111)
+            .setFinderColor(0xfff92736)
+            .setLogoMode(LogoMode.CENTER)
+            .build();
+
+    private final ErrorCorrectionLevel ecLevel;
+    private final int foreground;
+    private final int background;
+    private final boolean hasFinderColor;
+    private final int finderColor;
+    private final LogoMode logoMode;
+    private final float logoRatio;
+    private final int logoAlpha;
+
+    private QRCodeStyle(Builder builder) {
+        this.ecLevel = builder.ecLevel;
+        this.foreground = builder.foreground;
+        this.background = builder.background;
+        this.hasFinderColor = builder.hasFinderColor;
+        this.finderColor = builder.finderColor;
+        this.logoMode = builder.logoMode;
+        this.logoRatio = builder.logoRatio;
+        this.logoAlpha = builder.logoAlpha;
+    }
+
+    public ErrorCorrectionLevel getErrorCorrectionLevel() {
+        return ecLevel;
+    }
+
+    public int getForeground() {
+        return foreground;
+    }
+
+    public int getBackground() {
+        return background;
+    }
+
+    /**
+     * 是否单独设置了三个定位图案的颜色
+     */
+    public boolean hasFinderColor() {
+        return hasFinderColor;
+    }
+
+    public int getFinderColor() {
+        return hasFinderColor ? finderColor : foreground;
+    }
+
+    public LogoMode getLogoMode() {
+        return logoMode;
+    }
+
+    /**
+     * @return CENTER 时 logo 的边长占二维码边长的比例
+     */
+    public float getLogoRatio() {
+        return logoRatio;
+    }
+
+    /**
+     * @return BACKGROUND 时 logo 的不透明度，0 ~ 255
+     */
+    public int getLogoAlpha() {
+        return logoAlpha;
+    }
+
+    public Builder newBuilder() {
+        return new Builder(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof QRCodeStyle)) {
+            return false;
+        }
+        QRCodeStyle other = (QRCodeStyle) o;
+        return ecLevel == other.ecLevel && foreground == other.foreground
+                && background == other.background && hasFinderColor == other.hasFinderColor
+                && finderColor == other.finderColor && logoMode == other.logoMode
+                && Float.compare(logoRatio, other.logoRatio) == 0 && logoAlpha == other.logoAlpha;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = ecLevel.hashCode();
+        result = 31 * result + foreground;
+        result = 31 * result + background;
+        result = 31 * result + (hasFinderColor ? finderColor : 0);
+        result = 31 * result + logoMode.hashCode();
+        result = 31 * result + Float.floatToIntBits(logoRatio);
+        result = 31 * result + logoAlpha;
+        return result;
+    }
+
+    public static final class Builder {
+        private ErrorCorrectionLevel ecLevel = ErrorCorrectionLevel.L;
+        private int foreground = 0xff000000;
+        private int background = 0xffffffff;
+        private boolean hasFinderColor;
+        private int finderColor;
+        private LogoMode logoMode = LogoMode.NONE;
+        private float logoRatio = 0.2f;
+        private int logoAlpha = 0x66;
+
+        public Builder() {
+        }
+
+        private Builder(QRCodeStyle style) {
+            this.ecLevel = style.ecLevel;
+            this.foreground = style.foreground;
+            this.background = style.background;
+            this.hasFinderColor = style.hasFinderColor;
+            this.finderColor = style.finderColor;
+            this.logoMode = style.logoMode;
+            this.logoRatio = style.logoRatio;
+            this.logoAlpha = style.logoAlpha;
+        }
+
+        /**
+         * 容错级别，默认为 L。中间覆盖了 logo 时建议使用 H，否则可能识别不了
+         */
+        public Builder setErrorCorrectionLevel(ErrorCorrectionLevel ecLevel) {
+            if (ecLevel == null) {
+                throw new NullPointerException("ecLevel == null");
+            }
+            this.ecLevel = ecLevel;
+            return this;
+        }
+
+        public Builder setForeground(int foreground) {
+            this.foreground = foreground;
+            return this;
+        }
+
+        public Builder setBackground(int background) {
+            this.background = background;
+            return this;
+        }
+
+        public Builder setFinderColor(int finderColor) {
+            this.hasFinderColor = true;
+            this.finderColor = finderColor;
+            return this;
+        }
+
+        public Builder setLogoMode(LogoMode logoMode) {
+            if (logoMode == null) {
+                throw new NullPointerException("logoMode == null");
+            }
+            this.logoMode = logoMode;
+            return this;
+        }
+
+        /**
+         * @param logoRatio CENTER 时 logo 的边长占二维码边长的比例，默认 0.2
+         */
+        public Builder setLogoRatio(float logoRatio) {
+            if (!(logoRatio > 0 && logoRatio <= 1)) {
+                throw new IllegalArgumentException("logoRatio must be in (0, 1]: " + logoRatio);
+            }
+            this.logoRatio = logoRatio;
+            return this;
+        }
+
+        /**
+         * @param logoAlpha BACKGROUND 时 logo 的不透明度，默认 0x66
+         */
+        public Builder setLogoAlpha(int logoAlpha) {
+            this.logoAlpha = Math.max(0, Math.min(255, logoAlpha));
+            return this;
+        }
+
+        public QRCodeStyle build() {
+            return new QRCodeStyle(this);
+        }
+    }
+
+}
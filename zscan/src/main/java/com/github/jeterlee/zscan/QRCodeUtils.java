@@ -1,26 +1,32 @@
 package com.github.jeterlee.zscan;
 
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.graphics.Matrix;
+import android.net.Uri;
 
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.BinaryBitmap;
 import com.google.zxing.DecodeHintType;
-import com.google.zxing.EncodeHintType;
+import com.google.zxing.LuminanceSource;
 import com.google.zxing.MultiFormatReader;
+import com.google.zxing.ReaderException;
 import com.google.zxing.Result;
 import com.google.zxing.WriterException;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.common.HybridBinarizer;
-import com.google.zxing.qrcode.QRCodeWriter;
 import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
 import com.zbar.lib.DecodeFormatManager;
 import com.zxing.ICaptureHandler;
-import com.zxing.decode.BitmapLuminanceSource;
-
-import java.util.Hashtable;
-import java.util.Vector;
+import com.zxing.decode.LuminanceImageLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
 
 /**
  * *          _       _
@@ -33,7 +39,10 @@ import java.util.Vector;
  */
 public class QRCodeUtils {
 
-    private static int IMAGE_HALFWIDTH = 50;
+    /**
+     * 带 logo 的二维码共用一个 composer，缩放后的 logo 在调用之间缓存（不持有调用者的 logo）
+     */
+    private static final QRCodeComposer COMPOSER = new QRCodeComposer();
 
     /**
      * 生成二维码，默认大小为 500*500
@@ -53,31 +62,57 @@ public class QRCodeUtils {
      * @return bitmap
      */
     public static Bitmap createQRCode(String text, int size) {
+        return createQRCode(text, size, Bitmap.Config.ARGB_8888);
+    }
+
+    /**
+     * 生成二维码。按模块编码后直接绘制（{@link QRCodeRenderer}），不生成整张图片的像素数组。
+     * 需要反复生成同样的二维码时使用 {@link QRCodeCache}
+     *
+     * @param text   文字或网址
+     * @param size   生成二维码的大小
+     * @param config 图片格式，RGB_565 的内存只有 ARGB_8888 的一半，ALPHA_8 为四分之一（深色模块不透明，其余透明）
+     * @return bitmap，编码失败时为 null
+     */
+    public static Bitmap createQRCode(String text, int size, Bitmap.Config config) {
         try {
-            Hashtable<EncodeHintType, String> hints = new Hashtable<>();
-            hints.put(EncodeHintType.CHARACTER_SET, "utf-8");
-            BitMatrix bitMatrix = new QRCodeWriter().encode(text,
-                    BarcodeFormat.QR_CODE, size, size, hints);
-            int[] pixels = new int[size * size];
-            for (int y = 0; y < size; y++) {
-                for (int x = 0; x < size; x++) {
-                    if (bitMatrix.get(x, y)) {
-                        pixels[y * size + x] = 0xff000000;
-                    } else {
-                        pixels[y * size + x] = 0xffffffff;
-                    }
-                }
-            }
-            Bitmap bitmap = Bitmap.createBitmap(size, size,
-                    Bitmap.Config.ARGB_8888);
-            bitmap.setPixels(pixels, 0, size, 0, 0, size, size);
-            return bitmap;
+            BitMatrix modules = QRCodeEncoder.encodeModules(text, ErrorCorrectionLevel.L);
+            return QRCodeRenderer.render(modules, size, config, 0xff000000, 0xffffffff);
         } catch (WriterException e) {
             e.printStackTrace();
             return null;
         }
     }
 
+    /**
+     * 生成矢量的二维码（SVG），用于打印或大屏幕显示，大小与分辨率无关
+     *
+     * @param text 文字或网址
+     * @param size SVG 的宽高（例如 "40mm"），为 null 时不设置
+     * @return SVG，编码失败时为 null
+     */
+    public static String createQRCodeSvg(String text, String size) {
+        try {
+            return QRCodeVector.toSvg(QRCodeEncoder.encodeModules(text, ErrorCorrectionLevel.L), size);
+        } catch (WriterException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * 按照样式生成二维码，所有带 logo 的二维码都通过 {@link QRCodeComposer} 生成
+     *
+     * @param text  文字或网址
+     * @param size  生成二维码的大小
+     * @param logo  logo，样式不需要 logo 时可以为 null
+     * @param style 样式
+     * @return bitmap，编码失败时为 null
+     */
+    public static Bitmap createQRCode(String text, int size, Bitmap logo, QRCodeStyle style) {
+        return COMPOSER.compose(text, size, logo, style);
+    }
+
     /**
      * bitmap 的颜色代替黑色的二维码
      *
@@ -87,38 +122,7 @@ public class QRCodeUtils {
      * @return
      */
     public static Bitmap createQRCodeWithLogo2(String text, int size, Bitmap mBitmap) {
-        try {
-            IMAGE_HALFWIDTH = size / 10;
-            Hashtable<EncodeHintType, Object> hints = new Hashtable<>();
-            hints.put(EncodeHintType.CHARACTER_SET, "utf-8");
-
-            hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H);
-            BitMatrix bitMatrix = new QRCodeWriter().encode(text,
-                    BarcodeFormat.QR_CODE, size, size, hints);
-
-            // 将 logo 图片按 matrix 设置的信息缩放
-            mBitmap = Bitmap.createScaledBitmap(mBitmap, size, size, false);
-
-            int[] pixels = new int[size * size];
-            int color = 0xffffffff;
-            for (int y = 0; y < size; y++) {
-                for (int x = 0; x < size; x++) {
-                    if (bitMatrix.get(x, y)) {
-                        pixels[y * size + x] = mBitmap.getPixel(x, y);
-                    } else {
-                        pixels[y * size + x] = color;
-                    }
-
-                }
-            }
-            Bitmap bitmap = Bitmap.createBitmap(size, size,
-                    Bitmap.Config.ARGB_8888);
-            bitmap.setPixels(pixels, 0, size, 0, 0, size, size);
-            return bitmap;
-        } catch (WriterException e) {
-            e.printStackTrace();
-            return null;
-        }
+        return createQRCode(text, size, mBitmap, QRCodeStyle.LOGO_FILL_MODULES);
     }
 
     /**
@@ -130,37 +134,7 @@ public class QRCodeUtils {
      * @return
      */
     public static Bitmap createQRCodeWithLogo3(String text, int size, Bitmap mBitmap) {
-        try {
-            IMAGE_HALFWIDTH = size / 10;
-            Hashtable<EncodeHintType, Object> hints = new Hashtable<>();
-            hints.put(EncodeHintType.CHARACTER_SET, "utf-8");
-
-            hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H);
-            BitMatrix bitMatrix = new QRCodeWriter().encode(text,
-                    BarcodeFormat.QR_CODE, size, size, hints);
-
-            // 将 logo 图片按 matrix 设置的信息缩放
-            mBitmap = Bitmap.createScaledBitmap(mBitmap, size, size, false);
-
-            int[] pixels = new int[size * size];
-            int color = 0xfff92736;
-            for (int y = 0; y < size; y++) {
-                for (int x = 0; x < size; x++) {
-                    if (bitMatrix.get(x, y)) {
-                        pixels[y * size + x] = color;
-                    } else {
-                        pixels[y * size + x] = mBitmap.getPixel(x, y) & 0x66ffffff;
-                    }
-                }
-            }
-            Bitmap bitmap = Bitmap.createBitmap(size, size,
-                    Bitmap.Config.ARGB_8888);
-            bitmap.setPixels(pixels, 0, size, 0, 0, size, size);
-            return bitmap;
-        } catch (WriterException e) {
-            e.printStackTrace();
-            return null;
-        }
+        return createQRCode(text, size, mBitmap, QRCodeStyle.LOGO_BACKGROUND);
     }
 
     /**
@@ -172,43 +146,7 @@ public class QRCodeUtils {
      * @return
      */
     public static Bitmap createQRCodeWithLogo4(String text, int size, Bitmap mBitmap) {
-        try {
-            IMAGE_HALFWIDTH = size / 10;
-            Hashtable<EncodeHintType, Object> hints = new Hashtable<>();
-            hints.put(EncodeHintType.CHARACTER_SET, "utf-8");
-
-            hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H);
-            BitMatrix bitMatrix = new QRCodeWriter().encode(text,
-                    BarcodeFormat.QR_CODE, size, size, hints);
-
-            // 将 logo 图片按 matrix 设置的信息缩放
-            mBitmap = Bitmap.createScaledBitmap(mBitmap, size, size, false);
-
-            int[] pixels = new int[size * size];
-            boolean flag = true;
-            for (int y = 0; y < size; y++) {
-                for (int x = 0; x < size; x++) {
-                    if (bitMatrix.get(x, y)) {
-                        if (flag) {
-                            flag = false;
-                            pixels[y * size + x] = 0xff000000;
-                        } else {
-                            pixels[y * size + x] = mBitmap.getPixel(x, y);
-                            flag = true;
-                        }
-                    } else {
-                        pixels[y * size + x] = 0xffffffff;
-                    }
-                }
-            }
-            Bitmap bitmap = Bitmap.createBitmap(size, size,
-                    Bitmap.Config.ARGB_8888);
-            bitmap.setPixels(pixels, 0, size, 0, 0, size, size);
-            return bitmap;
-        } catch (WriterException e) {
-            e.printStackTrace();
-            return null;
-        }
+        return createQRCode(text, size, mBitmap, QRCodeStyle.LOGO_FILL_MODULES_DARK);
     }
 
     /**
@@ -220,62 +158,7 @@ public class QRCodeUtils {
      * @return
      */
     public static Bitmap createQRCodeWithLogo5(String text, int size, Bitmap mBitmap) {
-        try {
-            IMAGE_HALFWIDTH = size / 10;
-            Hashtable<EncodeHintType, Object> hints = new Hashtable<>();
-            hints.put(EncodeHintType.CHARACTER_SET, "utf-8");
-
-            hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H);
-            BitMatrix bitMatrix = new QRCodeWriter().encode(text,
-                    BarcodeFormat.QR_CODE, size, size, hints);
-
-            // 将 logo 图片按 matrix 设置的信息缩放
-            mBitmap = Bitmap.createScaledBitmap(mBitmap, size, size, false);
-
-            // 矩阵高度
-            int width = bitMatrix.getWidth();
-            // 矩阵宽度
-            int height = bitMatrix.getHeight();
-            int halfW = width / 2;
-            int halfH = height / 2;
-
-            Matrix m = new Matrix();
-            float sx = (float) 2 * IMAGE_HALFWIDTH / mBitmap.getWidth();
-            float sy = (float) 2 * IMAGE_HALFWIDTH
-                    / mBitmap.getHeight();
-            m.setScale(sx, sy);
-            // 设置缩放信息
-            // 将 logo 图片按 matrix 设置的信息缩放
-            mBitmap = Bitmap.createBitmap(mBitmap, 0, 0,
-                    mBitmap.getWidth(), mBitmap.getHeight(), m, false);
-
-            int[] pixels = new int[size * size];
-            for (int y = 0; y < size; y++) {
-                for (int x = 0; x < size; x++) {
-                    if (x > halfW - IMAGE_HALFWIDTH && x < halfW + IMAGE_HALFWIDTH
-                            && y > halfH - IMAGE_HALFWIDTH
-                            && y < halfH + IMAGE_HALFWIDTH) {
-                        // 该位置用于存放图片信息
-                        // 记录图片每个像素信息
-                        pixels[y * width + x] = mBitmap.getPixel(x - halfW
-                                + IMAGE_HALFWIDTH, y - halfH + IMAGE_HALFWIDTH);
-                    } else {
-                        if (bitMatrix.get(x, y)) {
-                            pixels[y * size + x] = 0xff37b19e;
-                        } else {
-                            pixels[y * size + x] = 0xffffffff;
-                        }
-                    }
-                }
-            }
-            Bitmap bitmap = Bitmap.createBitmap(size, size,
-                    Bitmap.Config.ARGB_8888);
-            bitmap.setPixels(pixels, 0, size, 0, 0, size, size);
-            return bitmap;
-        } catch (WriterException e) {
-            e.printStackTrace();
-            return null;
-        }
+        return createQRCode(text, size, mBitmap, QRCodeStyle.LOGO_CENTER);
     }
 
     /**
@@ -287,120 +170,99 @@ public class QRCodeUtils {
      * @return
      */
     public static Bitmap createQRCodeWithLogo6(String text, int size, Bitmap mBitmap) {
-        try {
-            IMAGE_HALFWIDTH = size / 10;
-            Hashtable<EncodeHintType, Object> hints = new Hashtable<>();
-            hints.put(EncodeHintType.CHARACTER_SET, "utf-8");
-            /*
-             * 设置容错级别，默认为ErrorCorrectionLevel.L
-             * 因为中间加入 logo 所以建议你把容错级别调至H,否则可能会出现识别不了
-             */
-            hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H);
-            BitMatrix bitMatrix = new QRCodeWriter().encode(text,
-                    BarcodeFormat.QR_CODE, size, size, hints);
+        return createQRCode(text, size, mBitmap, QRCodeStyle.LOGO_CENTER_FINDER);
+    }
 
-            // 将logo图片按martix设置的信息缩放
-            mBitmap = Bitmap.createScaledBitmap(mBitmap, size, size, false);
 
-            // 矩阵高度
-            int width = bitMatrix.getWidth();
-            // 矩阵宽度
-            int height = bitMatrix.getHeight();
-            int halfW = width / 2;
-            int halfH = height / 2;
+    /**
+     * 解析图片时使用的解码参数，只创建一次（不可修改）
+     */
+    private static final Map<DecodeHintType, Object> ANALYZE_HINTS = createAnalyzeHints();
+    /**
+     * 解析成功后交给回调的图片的最大边长
+     */
+    private static final int ANALYZE_BITMAP_MAX_DIMENSION = 800;
+
+    private static Map<DecodeHintType, Object> createAnalyzeHints() {
+        Map<DecodeHintType, Object> hints = new EnumMap<>(DecodeHintType.class);
+        // 可以解析的编码类型，这里设置可扫描的类型，我这里选择了都支持
+        Collection<BarcodeFormat> decodeFormats = EnumSet.noneOf(BarcodeFormat.class);
+        decodeFormats.addAll(DecodeFormatManager.ONE_D_FORMATS);
+        decodeFormats.addAll(DecodeFormatManager.QR_CODE_FORMATS);
+        decodeFormats.addAll(DecodeFormatManager.DATA_MATRIX_FORMATS);
+        hints.put(DecodeHintType.POSSIBLE_FORMATS, Collections.unmodifiableCollection(decodeFormats));
+        // 设置解析的字符编码格式为 UTF8
+        // hints.put(DecodeHintType.CHARACTER_SET, "UTF8");
+        return Collections.unmodifiableMap(hints);
+    }
 
-            Matrix m = new Matrix();
-            float sx = (float) 2 * IMAGE_HALFWIDTH / mBitmap.getWidth();
-            float sy = (float) 2 * IMAGE_HALFWIDTH
-                    / mBitmap.getHeight();
-            m.setScale(sx, sy);
-            // 设置缩放信息
-            // 将 logo 图片按 matrix 设置的信息缩放
-            mBitmap = Bitmap.createBitmap(mBitmap, 0, 0,
-                    mBitmap.getWidth(), mBitmap.getHeight(), m, false);
+    /**
+     * 创建解析图片使用的 reader，可以在同一个线程中重复使用
+     */
+    static MultiFormatReader newAnalyzeReader() {
+        MultiFormatReader multiFormatReader = new MultiFormatReader();
+        // 设置解析配置参数
+        multiFormatReader.setHints(ANALYZE_HINTS);
+        return multiFormatReader;
+    }
 
-            int[] pixels = new int[size * size];
-            for (int y = 0; y < size; y++) {
-                for (int x = 0; x < size; x++) {
-                    if (x > halfW - IMAGE_HALFWIDTH && x < halfW + IMAGE_HALFWIDTH
-                            && y > halfH - IMAGE_HALFWIDTH
-                            && y < halfH + IMAGE_HALFWIDTH) {
-                        // 该位置用于存放图片信息
-                        // 记录图片每个像素信息
-                        pixels[y * width + x] = mBitmap.getPixel(x - halfW
-                                + IMAGE_HALFWIDTH, y - halfH + IMAGE_HALFWIDTH);
-                    } else {
-                        if (bitMatrix.get(x, y)) {
-                            pixels[y * size + x] = 0xff111111;
-                            if (x < 115 && (y < 115 || y >= size - 115) || (y < 115 && x >= size - 115)) {
-                                pixels[y * size + x] = 0xfff92736;
-                            }
-                        } else {
-                            pixels[y * size + x] = 0xffffffff;
-                        }
-                    }
-                }
-            }
-            Bitmap bitmap = Bitmap.createBitmap(size, size,
-                    Bitmap.Config.ARGB_8888);
-            bitmap.setPixels(pixels, 0, size, 0, 0, size, size);
-            return bitmap;
-        } catch (WriterException e) {
-            e.printStackTrace();
+    /**
+     * 使用已经设置好参数的 reader 解析图片的亮度
+     *
+     * @return 解析失败时返回 null
+     */
+    static Result decodeLuminance(MultiFormatReader multiFormatReader, LuminanceSource source) {
+        try {
+            return multiFormatReader.decodeWithState(new BinaryBitmap(new HybridBinarizer(source)));
+        } catch (ReaderException e) {
             return null;
+        } finally {
+            multiFormatReader.reset();
         }
     }
 
-
     /**
-     * 解析二维码图片工具类
+     * 解析二维码图片工具类，使用默认的逐级解析策略（{@link ProgressiveDecodePolicy}）
      *
      * @param analyzeCallback 解析结果回调
      */
     public static void analyzeBitmap(String path, ICaptureHandler.AnalyzeCallback analyzeCallback) {
-        /**
-         * 首先判断图片的大小,若图片过大,则执行图片的裁剪操作,防止OOM
-         */
-        BitmapFactory.Options options = new BitmapFactory.Options();
-        options.inJustDecodeBounds = true; // 先获取原大小
-        Bitmap mBitmap = BitmapFactory.decodeFile(path, options);
-        options.inJustDecodeBounds = false; // 获取新的大小
-
-        int sampleSize = (int) (options.outHeight / (float) 400);
-
-        if (sampleSize <= 0) {
-            sampleSize = 1;
-        }
-        options.inSampleSize = sampleSize;
-        mBitmap = BitmapFactory.decodeFile(path, options);
-
-        MultiFormatReader multiFormatReader = new MultiFormatReader();
-
-        // 解码的参数
-        Hashtable<DecodeHintType, Object> hints = new Hashtable<DecodeHintType, Object>(2);
-        // 可以解析的编码类型
-        Vector<BarcodeFormat> decodeFormats = new Vector<BarcodeFormat>();
-        if (decodeFormats == null || decodeFormats.isEmpty()) {
-            decodeFormats = new Vector<BarcodeFormat>();
-
-            // 这里设置可扫描的类型，我这里选择了都支持
-            decodeFormats.addAll(DecodeFormatManager.ONE_D_FORMATS);
-            decodeFormats.addAll(DecodeFormatManager.QR_CODE_FORMATS);
-            decodeFormats.addAll(DecodeFormatManager.DATA_MATRIX_FORMATS);
-        }
-        hints.put(DecodeHintType.POSSIBLE_FORMATS, decodeFormats);
-        // 设置解析的字符编码格式为 UTF8
-        // hints.put(DecodeHintType.CHARACTER_SET, "UTF8");
-        // 设置解析配置参数
-        multiFormatReader.setHints(hints);
+        analyzeBitmap(path, new ProgressiveDecodePolicy(), analyzeCallback);
+    }
 
+    /**
+     * 解析二维码图片工具类。在调用者的线程中同步解析，需要解析多张图片时使用 {@link BatchAnalyzer}。
+     * 解析时通过 {@link LuminanceImageLoader} 分块读取亮度，不会把整张图片读入内存；按照 policy
+     * 先尝试缩略图和低分辨率，失败后再逐级提高分辨率。识别成功后才读取一张缩小的图片交给回调。
+     * 回调同时实现 {@link DecodeAttempt.Listener} 时，先回调每一级的耗时
+     *
+     * @param policy          逐级解析的策略
+     * @param analyzeCallback 解析结果回调
+     */
+    public static void analyzeBitmap(String path, ProgressiveDecodePolicy policy,
+                                     ICaptureHandler.AnalyzeCallback analyzeCallback) {
         // 开始对图像资源解码
         Result rawResult = null;
+        List<DecodeAttempt> attempts = analyzeCallback instanceof DecodeAttempt.Listener
+                ? new ArrayList<DecodeAttempt>() : null;
+        Uri uri = Uri.fromFile(new File(path));
+        ProgressiveDecoder decoder = new ProgressiveDecoder(policy);
         try {
-            rawResult = multiFormatReader.decodeWithState(new BinaryBitmap(
-                    new HybridBinarizer(new BitmapLuminanceSource(mBitmap))));
-        } catch (Exception e) {
+            rawResult = decoder.decode(null, uri, attempts);
+        } catch (IOException e) {
             e.printStackTrace();
+        } finally {
+            decoder.release();
+        }
+        if (attempts != null) {
+            ((DecodeAttempt.Listener) analyzeCallback).onDecodeAttempts(
+                    uri, Collections.unmodifiableList(attempts));
+        }
+
+        Bitmap mBitmap = null;
+        if (rawResult != null) {
+            // 交给回调显示的图片：缩小后只解码一次（RGB_565），并按照 EXIF 方向旋转，防止 OOM
+            mBitmap = LuminanceImageLoader.loadBitmap(path, ANALYZE_BITMAP_MAX_DIMENSION);
         }
 
         if (rawResult != null) {
@@ -413,5 +275,5 @@ public class QRCodeUtils {
             }
         }
     }
-   
+
 }
@@ -0,0 +1,112 @@
+package com.github.jeterlee.zscan;
+
+import com.google.zxing.common.BitMatrix;
+
+import java.io.IOException;
+
+/**
+ * <pre>
+ * Title: QRCodeVector
+ * Description: 把模块矩阵（{@link QRCodeEncoder#encodeModules}）输出为矢量图形：SVG 的 path 数据或完整的 SVG。
+ * 坐标以模块为单位（包括四周 4 个模块的空白），每一行中连续的深色模块合并为一个矩形，
+ * 输出的大小与生成时间只与模块数有关，与打印的分辨率无关。不依赖 Android，
+ * 在 Android 中绘制时使用 {@link QRCodeRenderer#toPath(BitMatrix)}。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public final class QRCodeVector {
+
+    private QRCodeVector() {
+    }
+
+    /**
+     * 生成 SVG 的 path 数据，例如 "M4 4h7v1h-7z"，每个矩形一段
+     *
+     * @param modules 模块矩阵
+     * @return path 的 d 属性
+     */
+    public static String toPathData(BitMatrix modules) {
+        StringBuilder path = new StringBuilder(modules.getWidth() * modules.getHeight() / 2);
+        try {
+            appendPathData(modules, path);
+        } catch (IOException e) {
+            // StringBuilder 不会抛出 IOException
+            throw new IllegalStateException(e);
+        }
+        return path.toString();
+    }
+
+    /**
+     * 写出 path 数据
+     */
+    public static void appendPathData(BitMatrix modules, Appendable out) throws IOException {
+        int count = modules.getWidth();
+        for (int y = 0; y < modules.getHeight(); y++) {
+            int x = 0;
+            while (x < count) {
+                if (!modules.get(x, y)) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < count && modules.get(x, y)) {
+                    x++;
+                }
+                int run = x - start;
+                out.append('M').append(String.valueOf(start + QRCodeEncoder.QUIET_ZONE))
+                        .append(' ').append(String.valueOf(y + QRCodeEncoder.QUIET_ZONE))
+                        .append('h').append(String.valueOf(run))
+                        .append("v1h-").append(String.valueOf(run)).append('z');
+            }
+        }
+    }
+
+    /**
+     * 生成黑色模块、白色背景的 SVG
+     *
+     * @param modules 模块矩阵
+     * @param size    宽高（SVG 的长度，例如 "40mm"、"100%"），为 null 时不设置，由使用者决定大小
+     */
+    public static String toSvg(BitMatrix modules, String size) {
+        StringBuilder svg = new StringBuilder(modules.getWidth() * modules.getHeight() / 2 + 256);
+        try {
+            writeSvg(modules, size, "#000000", "#ffffff", svg);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return svg.toString();
+    }
+
+    /**
+     * 写出 SVG，只有一个背景矩形和一个 path
+     *
+     * @param modules    模块矩阵
+     * @param size       宽高（SVG 的长度），为 null 时不设置
+     * @param foreground 深色模块的颜色（SVG 颜色，例如 "#000000"）
+     * @param background 背景颜色，为 null 时背景透明
+     * @param out        输出
+     * @throws IOException 写入失败
+     */
+    public static void writeSvg(BitMatrix modules, String size, String foreground, String background,
+                                Appendable out) throws IOException {
+        int dimension = modules.getWidth() + 2 * QRCodeEncoder.QUIET_ZONE;
+        out.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+                .append("<svg xmlns=\"http://www.w3.org/2000/svg\" version=\"1.1\" viewBox=\"0 0 ")
+                .append(String.valueOf(dimension)).append(' ').append(String.valueOf(dimension))
+                .append('"');
+        if (size != null) {
+            out.append(" width=\"").append(size).append("\" height=\"").append(size).append('"');
+        }
+        out.append(" shape-rendering=\"crispEdges\">\n");
+        if (background != null) {
+            out.append("<rect width=\"100%\" height=\"100%\" fill=\"").append(background)
+                    .append("\"/>\n");
+        }
+        out.append("<path fill=\"").append(foreground).append("\" d=\"");
+        appendPathData(modules, out);
+        out.append("\"/>\n</svg>\n");
+    }
+
+}
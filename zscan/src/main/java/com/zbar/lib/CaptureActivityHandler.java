@@ -19,6 +19,7 @@ package com.zbar.lib;
 import android.content.Intent;
 import android.os.Handler;
 import android.os.Message;
+import android.os.SystemClock;
 import android.util.Log;
 
 import com.github.jeterlee.zscan.R;
@@ -41,9 +42,28 @@ public final class CaptureActivityHandler extends Handler {
     private static final String TAG = CaptureActivityHandler.class.getSimpleName();
     private final ICaptureHandler captureHandler;
     /**
-     * 真正负责扫描任务的核心线程
+     * 真正负责扫描任务的解码线程池
      */
-    private final DecodeThread decodeThread;
+    private final DecodeWorkerPool decodeWorkerPool;
+    /**
+     * 连续扫码，识别成功后不停止
+     */
+    private final boolean bulkMode;
+    private final DecodeMetrics.Listener metricsListener;
+    private final long metricsIntervalMillis;
+    /**
+     * 定期把统计快照交给 {@link #metricsListener}
+     */
+    private final Runnable metricsReporter = new Runnable() {
+        @Override
+        public void run() {
+            if (state == State.DONE) {
+                return;
+            }
+            metricsListener.onDecodeMetrics(decodeWorkerPool.getMetrics().snapshot());
+            postDelayed(this, metricsIntervalMillis);
+        }
+    };
     private State state;
 
     /**
@@ -68,16 +88,31 @@ public final class CaptureActivityHandler extends Handler {
                                   Collection<BarcodeFormat> decodeFormats,
                                   Map<DecodeHintType, ?> baseHints,
                                   String characterSet) {
+        this(captureHandler, decodeFormats, baseHints, characterSet, new DecodeOptions());
+    }
+
+    public CaptureActivityHandler(ICaptureHandler captureHandler,
+                                  Collection<BarcodeFormat> decodeFormats,
+                                  Map<DecodeHintType, ?> baseHints,
+                                  String characterSet,
+                                  DecodeOptions options) {
         this.captureHandler = captureHandler;
+        this.bulkMode = options.isBulkMode();
+        this.metricsListener = options.getMetricsListener();
+        this.metricsIntervalMillis = options.getMetricsIntervalMillis();
         // 启动扫描线程
-        decodeThread = new DecodeThread(this, decodeFormats, baseHints,
+        decodeWorkerPool = new DecodeWorkerPool(this, decodeFormats, baseHints,
                 characterSet,
-                new ViewfinderResultPointCallback(captureHandler.getViewfinderView()));
-        decodeThread.start();
+                new ViewfinderResultPointCallback(captureHandler.getViewfinderView()),
+                options);
+        decodeWorkerPool.start();
         state = State.SUCCESS;
         // Start ourselves capturing previews and decoding.
         CameraManager.get().startPreview();
         restartPreviewAndDecode();
+        if (metricsListener != null) {
+            postDelayed(metricsReporter, metricsIntervalMillis);
+        }
     }
 
     @Override
@@ -91,13 +126,18 @@ public final class CaptureActivityHandler extends Handler {
             restartPreviewAndDecode();
 
         } else if (message.what == R.id.decode_succeeded) {
-            state = State.SUCCESS;
-            captureHandler.handleDecode((String) message.obj);
-
-        } else if (message.what == R.id.decode_failed) {
-            state = State.PREVIEW;
-            CameraManager.get().requestPreviewFrame(decodeThread.getDecodeHandler(),
-                    R.id.decode);
+            // 消息的时间就是解码线程发出结果的时间
+            decodeWorkerPool.getMetrics().record(DecodeMetrics.Stage.DISPATCH,
+                    (SystemClock.uptimeMillis() - message.getWhen()) * 1000000L);
+            if (!bulkMode) {
+                state = State.SUCCESS;
+            }
+            DecodeResult result = (DecodeResult) message.obj;
+            if (captureHandler instanceof ICaptureHandler.DecodeResultHandler) {
+                ((ICaptureHandler.DecodeResultHandler) captureHandler).handleDecodeResult(result);
+            } else {
+                captureHandler.handleDecode(result.getText());
+            }
 
         } else if (message.what == R.id.return_scan_result) {
             captureHandler.deliverResult((Intent) message.obj);
@@ -113,17 +153,35 @@ public final class CaptureActivityHandler extends Handler {
     public void quitSynchronously() {
         state = State.DONE;
         CameraManager.get().stopPreview();
-        Message quit = Message.obtain(decodeThread.getDecodeHandler(), R.id.quit);
-        quit.sendToTarget();
-        try {
-            decodeThread.join();
-        } catch (InterruptedException e) {
-            // continue
-        }
+        decodeWorkerPool.quitSynchronously();
 
         // Be absolutely sure we don't send any queued up messages
         removeMessages(R.id.decode_succeeded);
-        removeMessages(R.id.decode_failed);
+        removeCallbacks(metricsReporter);
+    }
+
+    /**
+     * 扫码过程的统计（各阶段耗时与帧数），可以随时调用 {@link DecodeMetrics#snapshot()}
+     */
+    public DecodeMetrics getDecodeMetrics() {
+        return decodeWorkerPool.getMetrics();
+    }
+
+    /**
+     * 解码前的清晰度检查，可以读取最近的清晰度判断画面是否一直模糊
+     *
+     * @return 未开启（{@link DecodeOptions#setSharpnessGateEnabled(boolean)}）时为 null
+     */
+    public SharpnessGate getSharpnessGate() {
+        return decodeWorkerPool.getSharpnessGate();
+    }
+
+    /**
+     * 连续取帧模式（{@link DecodeOptions.DispatchMode#LATEST_FRAME}）下，
+     * 因为解码线程来不及处理而被丢弃的预览帧数
+     */
+    public long getDroppedFrameCount() {
+        return decodeWorkerPool.getDroppedFrameCount();
     }
 
     /**
@@ -132,9 +190,8 @@ public final class CaptureActivityHandler extends Handler {
     public void restartPreviewAndDecode() {
         if (state == State.SUCCESS) {
             state = State.PREVIEW;
-            // 向decodeThread绑定的handler（DecodeHandlerImpl)发送解码消息
-            CameraManager.get().requestPreviewFrame(decodeThread.getDecodeHandler(),
-                    R.id.decode);
+            // 由解码线程池向相机请求预览帧，解码失败时线程池会自动请求下一帧
+            decodeWorkerPool.startDecode();
             // CameraManager.get().requestAutoFocus(this, R.id.auto_focus);
             captureHandler.drawViewfinder();
         }
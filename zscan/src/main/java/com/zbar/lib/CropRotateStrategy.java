@@ -0,0 +1,91 @@
+package com.zbar.lib;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <pre>
+ * Title: CropRotateStrategy
+ * Description: 只旋转扫描框内的数据，并写入整个会话复用的缓冲区。与 {@link FullFrameRotateStrategy}
+ * 相比，每帧不再分配整帧大小的数组，旋转的像素数也只有扫描框大小。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public final class CropRotateStrategy implements RotateStrategy {
+    private final boolean direct;
+    private byte[] buffer;
+    private int bufferOffset;
+    private ByteBuffer directBuffer;
+
+    public CropRotateStrategy() {
+        this(false);
+    }
+
+    /**
+     * @param direct 是否把结果写入 direct buffer，zbar 可以通过
+     *               {@link ZbarManager#decodeSymbolsDirect}
+     *               直接读取，JNI 层不需要再锁定或复制 java 数组。Android 上 direct buffer 背后是不可移动的数组，
+     *               旋转时直接写入该数组，不会多一次复制
+     */
+    public CropRotateStrategy(boolean direct) {
+        this.direct = direct;
+    }
+
+    @Override
+    public void rotate(byte[] data, int width, int height,
+                       int left, int top, int cropWidth, int cropHeight,
+                       RotatedFrame out) {
+        // 旋转后宽高互换
+        if (left < 0 || top < 0 || cropWidth <= 0 || cropHeight <= 0
+                || left + cropWidth > height || top + cropHeight > width) {
+            throw new IllegalArgumentException("Crop rectangle does not fit within image data.");
+        }
+        int area = cropWidth * cropHeight;
+        ensureCapacity(area);
+        byte[] cropped = buffer;
+        // 旋转后的 (left + c, top + r) 对应原图的 (top + r, height - 1 - left - c)，
+        // 按原图的行遍历，保证读取是连续的
+        for (int c = 0; c < cropWidth; c++) {
+            int inputOffset = (height - 1 - left - c) * width + top;
+            int outputOffset = bufferOffset + c;
+            for (int r = 0; r < cropHeight; r++) {
+                cropped[outputOffset] = data[inputOffset + r];
+                outputOffset += cropWidth;
+            }
+        }
+        if (direct) {
+            directBuffer.clear();
+            if (directBuffer.hasArray()) {
+                directBuffer.limit(area);
+            } else {
+                // 其他 JVM 上 direct buffer 没有背后的数组，只能复制一次
+                directBuffer.put(cropped, 0, area);
+                directBuffer.flip();
+            }
+            out.setDirect(directBuffer, cropWidth, cropHeight, 0, 0, cropWidth, cropHeight);
+        } else {
+            out.set(cropped, cropWidth, cropHeight, 0, 0, cropWidth, cropHeight);
+        }
+    }
+
+    private void ensureCapacity(int area) {
+        if (!direct) {
+            if (buffer == null || buffer.length < area) {
+                buffer = new byte[area];
+            }
+            return;
+        }
+        if (directBuffer == null || directBuffer.capacity() < area) {
+            directBuffer = ByteBuffer.allocateDirect(area);
+            if (directBuffer.hasArray()) {
+                buffer = directBuffer.array();
+                bufferOffset = directBuffer.arrayOffset();
+            } else {
+                buffer = new byte[area];
+                bufferOffset = 0;
+            }
+        }
+    }
+
+}
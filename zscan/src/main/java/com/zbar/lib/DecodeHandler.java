@@ -20,20 +20,19 @@ import android.graphics.Rect;
 import android.os.Handler;
 import android.os.Looper;
 import android.os.Message;
+import android.os.SystemClock;
 import android.util.Log;
 
 import com.github.jeterlee.zscan.R;
-import com.google.zxing.DecodeHintType;
-import com.google.zxing.MultiFormatReader;
 import com.zxing.camera.CameraManager;
-
-import java.util.Map;
+import com.zxing.camera.FramingGeometry;
+import com.zxing.camera.PreviewFrame;
 
 /**
  * <pre>
  * Title: DecodeHandler
  * Description: 解码 Handler，在 解码的 Handler {@link DecodeHandler} 中向
- * 扫码的 Handler {@link CaptureActivityHandler} 发送消息。
+ * 扫码的 Handler {@link CaptureActivityHandler} 发送消息（通过 {@link DecodeWorkerPool}）。
  * </pre>
  *
  * @author <a href="https://www.github.com/jeterlee"></a>
@@ -41,16 +40,40 @@ import java.util.Map;
  */
 public class DecodeHandler extends Handler {
     private static final String TAG = DecodeHandler.class.getSimpleName();
-    private final CaptureActivityHandler captureActivityHandler;
-    private final MultiFormatReader multiFormatReader;
+    private final DecodeWorkerPool pool;
+    private final int workerIndex;
+    private final DecoderEngine decoderEngine;
+    private final RotatedFrame rotatedFrame = new RotatedFrame();
+    private final PreviewFrame previewFrame = new PreviewFrame();
+    private final DecodeResult decodeResult = new DecodeResult();
+    private final DecodeMetrics metrics;
+    /**
+     * 自适应解码窗口，未开启时为 null
+     */
+    private final RoiTracker roiTracker;
+    /**
+     * 解码前的清晰度检查，未开启时为 null
+     */
+    private final SharpnessGate sharpnessGate;
+    /**
+     * 预览帧尺寸与 {@link FramingGeometry} 不一致时使用的扫描框
+     */
+    private final Rect framingWindow = new Rect();
+    private final Rect decodeWindow = new Rect();
     private boolean running = true;
-    private ZbarManager manager;
+    /**
+     * 预览帧旋转策略，默认只旋转扫描框内的数据
+     */
+    private RotateStrategy rotateStrategy = new CropRotateStrategy();
 
-    public DecodeHandler(CaptureActivityHandler captureActivityHandler,
-                         Map<DecodeHintType, Object> hints) {
-        this.captureActivityHandler = captureActivityHandler;
-        multiFormatReader = new MultiFormatReader();
-        multiFormatReader.setHints(hints);
+    DecodeHandler(DecodeWorkerPool pool, int workerIndex,
+                  DecoderEngine decoderEngine) {
+        this.pool = pool;
+        this.workerIndex = workerIndex;
+        this.decoderEngine = decoderEngine;
+        this.roiTracker = pool.getRoiTracker();
+        this.metrics = pool.getMetrics();
+        this.sharpnessGate = pool.getSharpnessGate();
     }
 
     @Override
@@ -60,7 +83,35 @@ public class DecodeHandler extends Handler {
         }
         if (message.what == R.id.decode) {
             // Log.d(TAG, "Got decode message");
-            decode((byte[]) message.obj, message.arg1, message.arg2);
+            byte[] data = (byte[]) message.obj;
+            metrics.onFrameReceived(System.nanoTime());
+            // 消息的时间就是相机回调发出这一帧的时间（uptimeMillis）
+            metrics.record(DecodeMetrics.Stage.QUEUE_WAIT,
+                    (SystemClock.uptimeMillis() - message.getWhen()) * 1000000L);
+            if (pool.onFrameReceived(workerIndex)) {
+                // 其他线程已经解码成功，这一帧不再需要
+                metrics.onFramesDropped(1);
+                CameraManager.get().releasePreviewBuffer(data);
+                return;
+            }
+            decode(data, message.arg1, message.arg2);
+
+        } else if (message.what == R.id.decode_next_frame) {
+            // 连续取帧模式：取最新的一帧解码，然后继续取下一帧
+            PreviewFrame frame = previewFrame;
+            if (pool.takeFrame(workerIndex, frame)) {
+                if (pool.isTakenFrameStale(workerIndex)) {
+                    // 扫码已经成功或停止，信箱暂停前放入的帧不再解码
+                    metrics.onFramesDropped(1);
+                    CameraManager.get().releasePreviewBuffer(frame.getData());
+                } else {
+                    long now = System.nanoTime();
+                    metrics.onFrameReceived(now);
+                    metrics.record(DecodeMetrics.Stage.QUEUE_WAIT, now - frame.getTimestamp());
+                    decode(frame.getData(), frame.getWidth(), frame.getHeight());
+                }
+                sendEmptyMessage(R.id.decode_next_frame);
+            }
 
         } else if (message.what == R.id.quit) {
             running = false;
@@ -72,7 +123,7 @@ public class DecodeHandler extends Handler {
     /**
      * Decode the data within the viewfinder rectangle, and time how long it
      * took. For efficiency, reuse the same reader objects from one decode to
-     * the next. （最大的不同点，使用 zbar {@link ZbarManager} 解码）
+     * the next. （最大的不同点，默认使用 zbar {@link ZbarManager} 解码，参考 {@link DecoderEngine}）
      *
      * @param data   The YUV preview frame.
      * @param width  The width of the preview frame.
@@ -80,58 +131,117 @@ public class DecodeHandler extends Handler {
      */
     public void decode(byte[] data, int width, int height) {
         // modify here
-        long start = System.currentTimeMillis();
-        byte[] rotatedData = new byte[data.length];
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                rotatedData[x * height + height - y - 1] = data[x + y * width];
+        long start = System.nanoTime();
+        boolean rotated = false;
+        boolean blurry = false;
+        try {
+            if (computeWindow(width, height)) {
+                Rect window = decodeWindow;
+                // 先检查清晰度，模糊的帧不需要旋转和解码
+                blurry = sharpnessGate != null && !sharpnessGate.accept(data, width, height,
+                        window.left, window.top, window.width(), window.height());
+                if (!blurry) {
+                    rotate(data, width, height);
+                    rotated = true;
+                }
             }
+        } finally {
+            // 旋转之后不再需要原始数据，尽早还给相机（使用预览缓冲池时）
+            CameraManager.get().releasePreviewBuffer(data);
         }
-        // Here we are swapping, that's the difference to #11
-        int tmp = width;
-        width = height;
-        height = tmp;
-
-        Rect rect = new Rect(CameraManager.get().getFramingRect());
-        if (manager == null) {
-            manager = new ZbarManager();
+        if (blurry) {
+            metrics.onFrameSkipped();
+            CameraManager.get().onFrameBlurry();
+            notifyDecodeFailed();
+            return;
+        }
+        if (!rotated) {
+            metrics.onFrameFailed();
+            notifyDecodeFailed();
+            return;
         }
-        String result = manager.decode(rotatedData, width, height, true,
-                rect.left, rect.top, rect.right - rect.left, rect.bottom
-                        - rect.top);
-
-        // zxing 解码方式
-        // PlanarYUVLuminanceSource source =
-        // CameraManager.get().buildLuminanceSource(rotatedData, width, height);
-        // BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
-        // try {
-        // rawResult = multiFormatReader.decodeWithState(bitmap);
-        // } catch (ReaderException re) {
-        // // continue
-        // } finally {
-        // multiFormatReader.reset();
-        // }
-
-        if (result != null) {
+        long rotatedAt = System.nanoTime();
+        metrics.record(DecodeMetrics.Stage.ROTATE, rotatedAt - start);
+
+        boolean decoded = decoderEngine.decode(rotatedFrame, decodeResult);
+        long end = System.nanoTime();
+        metrics.record(DecodeMetrics.Stage.DECODE, end - rotatedAt);
+        boolean fresh = false;
+        if (decoded) {
+            metrics.onFrameDecoded();
+            CameraManager.get().onFrameDecoded();
             // Don't log the barcode contents for security.
-            long end = System.currentTimeMillis();
-            Log.d(TAG, "Found barcode in " + (end - start) + " ms");
-            if (captureActivityHandler != null) {
-                Message message = Message.obtain(captureActivityHandler, R.id.decode_succeeded, result);
-                // zxing 解码方式
-                // Bundle bundle = new Bundle();
-                // bundle.putParcelable(DecodeThread.BARCODE_BITMAP,
-                // source.renderCroppedGreyscaleBitmap());
-                // message.setData(bundle);
-                // Log.d(TAG, "Sending decode succeeded message...");
-                message.sendToTarget();
+            Log.d(TAG, "Found barcode in " + (end - start) / 1000000 + " ms");
+            // decodeResult 会被下一帧复用，由线程池复制后交给其他线程
+            fresh = pool.onDecodeSucceeded(workerIndex, decodeResult);
+        } else {
+            metrics.onFrameFailed();
+            CameraManager.get().onFrameFailed();
+            notifyDecodeFailed();
+        }
+        if (roiTracker != null) {
+            // 连续扫码时重复的条码不算识别成功，解码窗口不会一直停留在已经扫过的条码上
+            roiTracker.onDecoded(decodeWindow, decodeResult, fresh);
+        }
+    }
+
+    /**
+     * 计算这一帧需要解码的窗口（旋转后的坐标），保存在 {@link #decodeWindow} 中，
+     * 扫描框保存在 {@link #framingWindow} 中。开启自适应解码窗口时使用 {@link RoiTracker} 给出的窗口
+     *
+     * @return 扫描框不可用时返回 false
+     */
+    private boolean computeWindow(int width, int height) {
+        FramingGeometry geometry = CameraManager.get().getFramingGeometry();
+        if (geometry == null) {
+            return false;
+        }
+        Rect rect;
+        if (geometry.isPreviewSize(width, height)) {
+            rect = geometry.getCropRect();
+            if (rect.isEmpty()) {
+                return false;
             }
         } else {
-            if (captureActivityHandler != null) {
-                Message message = Message.obtain(captureActivityHandler, R.id.decode_failed);
-                message.sendToTarget();
+            rect = framingWindow;
+            rect.set(geometry.getScreenRect());
+            // 旋转后宽高互换，扫描框需要限制在旋转后的图像内
+            if (!rect.intersect(0, 0, height, width)) {
+                return false;
             }
         }
+        Rect window = decodeWindow;
+        if (roiTracker == null || !roiTracker.getWindow(rect, window)) {
+            window.set(rect);
+        }
+        if (rect != framingWindow) {
+            framingWindow.set(rect);
+        }
+        return true;
+    }
+
+    /**
+     * 按 {@link #computeWindow(int, int)} 的结果旋转（裁剪）预览帧，结果写入 {@link #rotatedFrame}
+     */
+    private void rotate(byte[] data, int width, int height) {
+        Rect window = decodeWindow;
+        rotateStrategy.rotate(data, width, height, window.left, window.top,
+                window.width(), window.height(), rotatedFrame);
+        rotatedFrame.setWindowOffset(window.left - framingWindow.left,
+                window.top - framingWindow.top);
+    }
+
+    private void notifyDecodeFailed() {
+        pool.onDecodeFailed(workerIndex);
+    }
+
+    /**
+     * 设置预览帧的旋转策略，只能在解码线程中调用，或在开始解码之前调用
+     *
+     * @param rotateStrategy 旋转策略，参考 {@link CropRotateStrategy}、{@link FullFrameRotateStrategy}
+     */
+    public void setRotateStrategy(RotateStrategy rotateStrategy) {
+        this.rotateStrategy = rotateStrategy;
     }
 
 }
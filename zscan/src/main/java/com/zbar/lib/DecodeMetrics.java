@@ -0,0 +1,210 @@
+package com.zbar.lib;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <pre>
+ * Title: DecodeMetrics
+ * Description: 扫码过程的统计：各阶段的耗时直方图（{@link LatencyHistogram}）与帧数计数。
+ * 由 {@link DecodeWorkerPool} 在解码线程中记录，开销只有几次原子操作；通过 {@link #snapshot()} 随时读取，
+ * 或在 {@link DecodeOptions#setMetricsListener(Listener, long)} 中注册监听器定期在主线程中收到快照。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public final class DecodeMetrics {
+
+    /**
+     * 统计耗时的阶段
+     */
+    public enum Stage {
+        /**
+         * 相邻两帧到达解码线程的间隔
+         */
+        FRAME_INTERVAL,
+        /**
+         * 预览帧从相机回调到解码线程开始处理的等待时间（按请求取帧时精度为毫秒）
+         */
+        QUEUE_WAIT,
+        /**
+         * 旋转（裁剪）预览帧
+         */
+        ROTATE,
+        /**
+         * 解码引擎（zbar / zxing）解码
+         */
+        DECODE,
+        /**
+         * 解码成功后，结果从解码线程发出到主线程开始处理（精度为毫秒）
+         */
+        DISPATCH
+    }
+
+    /**
+     * 定期收到统计快照，在主线程中回调
+     */
+    public interface Listener {
+        void onDecodeMetrics(Snapshot snapshot);
+    }
+
+    private final LatencyHistogram[] histograms;
+    private final AtomicLong receivedFrames = new AtomicLong();
+    private final AtomicLong decodedFrames = new AtomicLong();
+    private final AtomicLong failedFrames = new AtomicLong();
+    private final AtomicLong droppedFrames = new AtomicLong();
+    private final AtomicLong skippedFrames = new AtomicLong();
+    private final AtomicLong lastArrivalNanos = new AtomicLong();
+
+    public DecodeMetrics() {
+        Stage[] stages = Stage.values();
+        histograms = new LatencyHistogram[stages.length];
+        for (int i = 0; i < stages.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * 一帧到达解码线程，同时记录与上一帧的间隔
+     *
+     * @param nowNanos {@link System#nanoTime()}
+     */
+    void onFrameReceived(long nowNanos) {
+        receivedFrames.incrementAndGet();
+        long last = lastArrivalNanos.getAndSet(nowNanos);
+        if (last != 0) {
+            record(Stage.FRAME_INTERVAL, nowNanos - last);
+        }
+    }
+
+    void onFrameDecoded() {
+        decodedFrames.incrementAndGet();
+    }
+
+    void onFrameFailed() {
+        failedFrames.incrementAndGet();
+    }
+
+    /**
+     * 清晰度不够（{@link SharpnessGate}），没有解码的帧
+     */
+    void onFrameSkipped() {
+        skippedFrames.incrementAndGet();
+    }
+
+    /**
+     * 没有解码就被丢弃的帧（扫码已经成功或停止，或被更新的帧顶替）
+     */
+    void onFramesDropped(long count) {
+        if (count > 0) {
+            droppedFrames.addAndGet(count);
+        }
+    }
+
+    void record(Stage stage, long nanos) {
+        histograms[stage.ordinal()].record(nanos);
+    }
+
+    /**
+     * 当前的统计快照
+     */
+    public Snapshot snapshot() {
+        Stage[] stages = Stage.values();
+        LatencyHistogram.Summary[] summaries = new LatencyHistogram.Summary[stages.length];
+        for (int i = 0; i < stages.length; i++) {
+            summaries[i] = histograms[i].summarize();
+        }
+        return new Snapshot(receivedFrames.get(), decodedFrames.get(), failedFrames.get(),
+                droppedFrames.get(), skippedFrames.get(), summaries);
+    }
+
+    /**
+     * 清空所有统计
+     */
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+        receivedFrames.set(0);
+        decodedFrames.set(0);
+        failedFrames.set(0);
+        droppedFrames.set(0);
+        skippedFrames.set(0);
+        lastArrivalNanos.set(0);
+    }
+
+    /**
+     * 某一时刻的统计结果，不可修改
+     */
+    public static final class Snapshot {
+        private final long receivedFrames;
+        private final long decodedFrames;
+        private final long failedFrames;
+        private final long droppedFrames;
+        private final long skippedFrames;
+        private final LatencyHistogram.Summary[] summaries;
+
+        Snapshot(long receivedFrames, long decodedFrames, long failedFrames, long droppedFrames,
+                 long skippedFrames, LatencyHistogram.Summary[] summaries) {
+            this.receivedFrames = receivedFrames;
+            this.decodedFrames = decodedFrames;
+            this.failedFrames = failedFrames;
+            this.droppedFrames = droppedFrames;
+            this.skippedFrames = skippedFrames;
+            this.summaries = summaries;
+        }
+
+        /**
+         * 到达解码线程的帧数（包括到达后发现已经过期、没有解码的帧）
+         */
+        public long getReceivedFrames() {
+            return receivedFrames;
+        }
+
+        /**
+         * 识别到条码的帧数
+         */
+        public long getDecodedFrames() {
+            return decodedFrames;
+        }
+
+        /**
+         * 解码了但没有识别到条码（或扫描框不可用）的帧数
+         */
+        public long getFailedFrames() {
+            return failedFrames;
+        }
+
+        /**
+         * 没有解码就被丢弃的帧数
+         */
+        public long getDroppedFrames() {
+            return droppedFrames;
+        }
+
+        /**
+         * 因为模糊被跳过、没有解码的帧数
+         */
+        public long getSkippedFrames() {
+            return skippedFrames;
+        }
+
+        public LatencyHistogram.Summary getSummary(Stage stage) {
+            return summaries[stage.ordinal()];
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder(String.format(Locale.US,
+                    "frames received=%d decoded=%d failed=%d dropped=%d skipped=%d",
+                    receivedFrames, decodedFrames, failedFrames, droppedFrames, skippedFrames));
+            for (Stage stage : Stage.values()) {
+                builder.append('\n').append(stage.name().toLowerCase(Locale.US)).append(": ")
+                        .append(summaries[stage.ordinal()]);
+            }
+            return builder.toString();
+        }
+    }
+
+}
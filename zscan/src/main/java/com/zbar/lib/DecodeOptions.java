@@ -0,0 +1,281 @@
+package com.zbar.lib;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.preference.PreferenceManager;
+
+import com.zxing.Config;
+
+/**
+ * <pre>
+ * Title: DecodeOptions
+ * Description: 扫码解码参数，在创建 {@link CaptureActivityHandler} 时传入，扫码过程中不再改变。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public final class DecodeOptions {
+
+    /**
+     * 预览帧分发方式
+     */
+    public enum DispatchMode {
+        /**
+         * 解码线程空闲时逐帧向相机请求（原有方式）
+         */
+        REQUEST,
+        /**
+         * 相机持续输出预览帧到只有一个位置的信箱，解码线程总是取最新的一帧，来不及解码的旧帧被丢弃
+         */
+        LATEST_FRAME
+    }
+
+    private int workerCount = defaultWorkerCount();
+    private DispatchMode dispatchMode = DispatchMode.REQUEST;
+    private DecoderEngine.Factory decoderEngineFactory = DecoderEngine.Factory.ZBAR;
+    private RotateStrategy.Factory rotateStrategyFactory = RotateStrategy.Factory.CROP;
+    private boolean roiTrackingEnabled;
+    private int roiMissLimit = 8;
+    private boolean bulkMode;
+    private long duplicateWindowMillis = 3000;
+    private int duplicateCapacity = 256;
+    private boolean sharpnessGateEnabled;
+    private float sharpnessRatio = 0.5f;
+    private int sharpnessMaxSkips = 5;
+    private DecodeMetrics.Listener metricsListener;
+    private long metricsIntervalMillis;
+
+    /**
+     * 按照设置（{@link Config#KEY_BULK_MODE}、{@link Config#KEY_REMEMBER_DUPLICATES}）创建解码参数，
+     * 其他参数为默认值
+     */
+    public static DecodeOptions fromPreferences(Context context) {
+        SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(context);
+        DecodeOptions options = new DecodeOptions();
+        options.setBulkMode(prefs.getBoolean(Config.KEY_BULK_MODE, false));
+        // 记住已经扫过的内容，连续扫码时不再重复报告
+        if (!prefs.getBoolean(Config.KEY_REMEMBER_DUPLICATES, true)) {
+            options.setDuplicateWindowMillis(0);
+        }
+        return options;
+    }
+
+    /**
+     * 默认的解码线程数：可用的核心数减一（留给 UI 线程和相机），至少一个
+     */
+    public static int defaultWorkerCount() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    }
+
+    /**
+     * 设置解码线程数，每个线程使用各自的 {@link ZbarManager} 和 MultiFormatReader
+     *
+     * @param workerCount 解码线程数，小于 1 时按 1 处理
+     */
+    public DecodeOptions setWorkerCount(int workerCount) {
+        this.workerCount = Math.max(1, workerCount);
+        return this;
+    }
+
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
+    /**
+     * 设置预览帧的旋转策略，每个解码线程会创建各自的实例
+     *
+     * @param rotateStrategyFactory 默认为 {@link RotateStrategy.Factory#CROP}，使用 zbar 解码时可以选择
+     *                              {@link RotateStrategy.Factory#CROP_DIRECT} 减少一次复制
+     */
+    public DecodeOptions setRotateStrategyFactory(RotateStrategy.Factory rotateStrategyFactory) {
+        if (rotateStrategyFactory == null) {
+            throw new IllegalArgumentException("rotateStrategyFactory == null");
+        }
+        this.rotateStrategyFactory = rotateStrategyFactory;
+        return this;
+    }
+
+    public RotateStrategy.Factory getRotateStrategyFactory() {
+        return rotateStrategyFactory;
+    }
+
+    /**
+     * 设置预览帧的分发方式
+     *
+     * @param dispatchMode 默认为 {@link DispatchMode#REQUEST}
+     */
+    public DecodeOptions setDispatchMode(DispatchMode dispatchMode) {
+        if (dispatchMode == null) {
+            throw new IllegalArgumentException("dispatchMode == null");
+        }
+        this.dispatchMode = dispatchMode;
+        return this;
+    }
+
+    public DispatchMode getDispatchMode() {
+        return dispatchMode;
+    }
+
+    /**
+     * 设置解码引擎，每个解码线程会创建各自的实例
+     *
+     * @param decoderEngineFactory 默认为 {@link DecoderEngine.Factory#ZBAR}，
+     *                             另外可选 {@link DecoderEngine.Factory#ZXING}、
+     *                             {@link DecoderEngine.Factory#HYBRID} 或 {@link HybridDecoderEngine#factory(int)}
+     */
+    public DecodeOptions setDecoderEngineFactory(DecoderEngine.Factory decoderEngineFactory) {
+        if (decoderEngineFactory == null) {
+            throw new IllegalArgumentException("decoderEngineFactory == null");
+        }
+        this.decoderEngineFactory = decoderEngineFactory;
+        return this;
+    }
+
+    public DecoderEngine.Factory getDecoderEngineFactory() {
+        return decoderEngineFactory;
+    }
+
+    /**
+     * 开启自适应解码窗口：识别到条码（或 zxing 找到定位点）后，之后的帧只解码该位置周围的区域，
+     * 连续 {@link #setRoiMissLimit(int)} 帧没有识别到条码后恢复解码整个扫描框，适合连续扫码
+     *
+     * @param roiTrackingEnabled 默认为 false
+     */
+    public DecodeOptions setRoiTrackingEnabled(boolean roiTrackingEnabled) {
+        this.roiTrackingEnabled = roiTrackingEnabled;
+        return this;
+    }
+
+    public boolean isRoiTrackingEnabled() {
+        return roiTrackingEnabled;
+    }
+
+    /**
+     * 设置自适应解码窗口连续多少帧没有识别到条码后恢复解码整个扫描框
+     *
+     * @param roiMissLimit 默认为 8，小于 1 时按 1 处理
+     */
+    public DecodeOptions setRoiMissLimit(int roiMissLimit) {
+        this.roiMissLimit = Math.max(1, roiMissLimit);
+        return this;
+    }
+
+    public int getRoiMissLimit() {
+        return roiMissLimit;
+    }
+
+    /**
+     * 开启连续扫码：识别成功后不停止解码，每个结果都通过 {@link com.zxing.ICaptureHandler} 回调，
+     * 不需要调用 {@link CaptureActivityHandler#restartPreviewAndDecode()}。
+     * 重复的条码按 {@link #setDuplicateWindowMillis(long)} 过滤
+     *
+     * @param bulkMode 默认为 false
+     */
+    public DecodeOptions setBulkMode(boolean bulkMode) {
+        this.bulkMode = bulkMode;
+        return this;
+    }
+
+    public boolean isBulkMode() {
+        return bulkMode;
+    }
+
+    /**
+     * 连续扫码时，同一内容距离上一次出现不超过这个时间时视为重复，不再报告
+     *
+     * @param duplicateWindowMillis 默认为 3000 毫秒，0 表示不过滤重复的条码
+     */
+    public DecodeOptions setDuplicateWindowMillis(long duplicateWindowMillis) {
+        this.duplicateWindowMillis = Math.max(0, duplicateWindowMillis);
+        return this;
+    }
+
+    public long getDuplicateWindowMillis() {
+        return duplicateWindowMillis;
+    }
+
+    /**
+     * 连续扫码时最多记住的内容个数，参考 {@link DuplicateFilter}
+     *
+     * @param duplicateCapacity 默认为 256，小于 1 时按 1 处理
+     */
+    public DecodeOptions setDuplicateCapacity(int duplicateCapacity) {
+        this.duplicateCapacity = Math.max(1, duplicateCapacity);
+        return this;
+    }
+
+    public int getDuplicateCapacity() {
+        return duplicateCapacity;
+    }
+
+    /**
+     * 开启清晰度检查：解码前计算解码窗口的清晰度，明显低于最近平均水平的模糊帧（例如移动中拍到的）
+     * 不旋转、不解码，直接取下一帧，参考 {@link SharpnessGate}
+     *
+     * @param sharpnessGateEnabled 默认为 false
+     */
+    public DecodeOptions setSharpnessGateEnabled(boolean sharpnessGateEnabled) {
+        this.sharpnessGateEnabled = sharpnessGateEnabled;
+        return this;
+    }
+
+    public boolean isSharpnessGateEnabled() {
+        return sharpnessGateEnabled;
+    }
+
+    /**
+     * 清晰度低于最近平均值的多少倍时跳过这一帧
+     *
+     * @param sharpnessRatio 默认为 0.5，需要在 (0, 1) 之间
+     */
+    public DecodeOptions setSharpnessRatio(float sharpnessRatio) {
+        if (!(sharpnessRatio > 0 && sharpnessRatio < 1)) {
+            throw new IllegalArgumentException(
+                    "sharpnessRatio must be in (0, 1): " + sharpnessRatio);
+        }
+        this.sharpnessRatio = sharpnessRatio;
+        return this;
+    }
+
+    public float getSharpnessRatio() {
+        return sharpnessRatio;
+    }
+
+    /**
+     * 最多连续跳过的模糊帧数，之后强制解码一帧
+     *
+     * @param sharpnessMaxSkips 默认为 5，小于 1 时按 1 处理
+     */
+    public DecodeOptions setSharpnessMaxSkips(int sharpnessMaxSkips) {
+        this.sharpnessMaxSkips = Math.max(1, sharpnessMaxSkips);
+        return this;
+    }
+
+    public int getSharpnessMaxSkips() {
+        return sharpnessMaxSkips;
+    }
+
+    /**
+     * 注册扫码统计的监听器，扫码过程中每隔 intervalMillis 在主线程中收到一次快照（{@link DecodeMetrics}）。
+     * 不注册时也可以通过 {@link CaptureActivityHandler#getDecodeMetrics()} 随时读取
+     *
+     * @param metricsListener 为 null 时不回调
+     * @param intervalMillis  回调间隔，小于 100 毫秒时按 100 毫秒处理
+     */
+    public DecodeOptions setMetricsListener(DecodeMetrics.Listener metricsListener,
+                                            long intervalMillis) {
+        this.metricsListener = metricsListener;
+        this.metricsIntervalMillis = Math.max(100, intervalMillis);
+        return this;
+    }
+
+    public DecodeMetrics.Listener getMetricsListener() {
+        return metricsListener;
+    }
+
+    public long getMetricsIntervalMillis() {
+        return metricsIntervalMillis;
+    }
+
+}
@@ -0,0 +1,331 @@
+package com.zbar.lib;
+
+import com.google.zxing.BarcodeFormat;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+
+/**
+ * <pre>
+ * Title: DecodeResult
+ * Description: 一帧的解码结果，包含帧中识别到的所有条码（码制、数据、质量和位置）。
+ * 解码线程中的实例会在每一帧之间复用，需要交给其他线程时使用 {@link #copy()}。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public final class DecodeResult {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private Symbol[] symbols = new Symbol[1];
+    private int symbolCount;
+    /**
+     * 解码失败时 zxing 找到的可能的定位点（x, y 交替保存），坐标相对于解码窗口
+     */
+    private int[] possiblePoints = new int[8];
+    private int possiblePointCount;
+
+    /**
+     * 识别到的条码个数
+     */
+    public int getSymbolCount() {
+        return symbolCount;
+    }
+
+    public Symbol getSymbol(int index) {
+        if (index < 0 || index >= symbolCount) {
+            throw new IndexOutOfBoundsException("index: " + index + ", count: " + symbolCount);
+        }
+        return symbols[index];
+    }
+
+    /**
+     * 第一个条码的内容，没有识别到时返回 null
+     */
+    public String getText() {
+        return symbolCount == 0 ? null : symbols[0].getText();
+    }
+
+    void clear() {
+        symbolCount = 0;
+        possiblePointCount = 0;
+    }
+
+    void addPossiblePoint(int x, int y) {
+        if (possiblePointCount * 2 == possiblePoints.length) {
+            int[] newPoints = new int[possiblePoints.length * 2];
+            System.arraycopy(possiblePoints, 0, newPoints, 0, possiblePointCount * 2);
+            possiblePoints = newPoints;
+        }
+        possiblePoints[possiblePointCount * 2] = x;
+        possiblePoints[possiblePointCount * 2 + 1] = y;
+        possiblePointCount++;
+    }
+
+    /**
+     * 本帧中找到的可能的定位点个数（例如 QR 码的定位图形），解码失败时也可能不为 0。
+     * 只有 zxing 会报告这些点
+     */
+    public int getPossiblePointCount() {
+        return possiblePointCount;
+    }
+
+    public int getPossiblePointX(int index) {
+        return possiblePoints[index * 2];
+    }
+
+    public int getPossiblePointY(int index) {
+        return possiblePoints[index * 2 + 1];
+    }
+
+    /**
+     * 追加一个条码，复用之前的 {@link Symbol} 对象
+     */
+    Symbol addSymbol() {
+        if (symbolCount == symbols.length) {
+            Symbol[] newSymbols = new Symbol[symbolCount * 2];
+            System.arraycopy(symbols, 0, newSymbols, 0, symbolCount);
+            symbols = newSymbols;
+        }
+        Symbol symbol = symbols[symbolCount];
+        if (symbol == null) {
+            symbol = new Symbol();
+            symbols[symbolCount] = symbol;
+        }
+        symbolCount++;
+        return symbol;
+    }
+
+    /**
+     * 复制一份不再被复用的结果
+     */
+    public DecodeResult copy() {
+        DecodeResult result = new DecodeResult();
+        for (int i = 0; i < symbolCount; i++) {
+            result.addCopyOf(symbols[i]);
+        }
+        return result;
+    }
+
+    /**
+     * 追加另一个结果中的条码的拷贝
+     */
+    void addCopyOf(Symbol symbol) {
+        Symbol copy = addSymbol();
+        copy.set(symbol.zbarType, symbol.format, symbol.quality,
+                symbol.data, 0, symbol.dataLength);
+        copy.setPoints(symbol.points, symbol.pointCount);
+    }
+
+    /**
+     * 读取 {@link ZbarManager#decodeSymbols} 写入的数据（本地字节序）：
+     * 每个条码依次为 类型、质量、顶点个数、顶点坐标（x, y）、数据长度（均为 int），
+     * 之后是数据本身，按 4 字节对齐。
+     *
+     * @param buffer      native 写入的 buffer
+     * @param symbolCount 条码个数
+     */
+    void readZbarSymbols(ByteBuffer buffer, int symbolCount) {
+        clear();
+        buffer.order(ByteOrder.nativeOrder());
+        buffer.clear();
+        for (int i = 0; i < symbolCount; i++) {
+            int type = buffer.getInt();
+            int quality = buffer.getInt();
+            int pointCount = buffer.getInt();
+            Symbol symbol = addSymbol();
+            symbol.ensurePointCapacity(pointCount);
+            for (int p = 0; p < pointCount * 2; p++) {
+                symbol.points[p] = buffer.getInt();
+            }
+            symbol.pointCount = pointCount;
+            int length = buffer.getInt();
+            symbol.ensureDataCapacity(length);
+            buffer.get(symbol.data, 0, length);
+            buffer.position((buffer.position() + 3) & ~3);
+            symbol.zbarType = type;
+            symbol.format = formatOfZbarType(type);
+            symbol.quality = quality;
+            symbol.dataLength = length;
+            symbol.text = null;
+        }
+    }
+
+    /**
+     * zbar 的码制（zbar_symbol_type_t）对应的 zxing 码制
+     */
+    static BarcodeFormat formatOfZbarType(int zbarType) {
+        switch (zbarType) {
+            case Symbol.ZBAR_EAN8:
+                return BarcodeFormat.EAN_8;
+            case Symbol.ZBAR_UPCE:
+                return BarcodeFormat.UPC_E;
+            case Symbol.ZBAR_UPCA:
+                return BarcodeFormat.UPC_A;
+            case Symbol.ZBAR_EAN13:
+            // ISBN（包括 ISBN-10）印刷为 978 / 979 开头的 EAN-13 条码
+            case Symbol.ZBAR_ISBN10:
+            case Symbol.ZBAR_ISBN13:
+                return BarcodeFormat.EAN_13;
+            case Symbol.ZBAR_I25:
+                return BarcodeFormat.ITF;
+            case Symbol.ZBAR_DATABAR:
+                return BarcodeFormat.RSS_14;
+            case Symbol.ZBAR_DATABAR_EXP:
+                return BarcodeFormat.RSS_EXPANDED;
+            case Symbol.ZBAR_CODABAR:
+                return BarcodeFormat.CODABAR;
+            case Symbol.ZBAR_CODE39:
+                return BarcodeFormat.CODE_39;
+            case Symbol.ZBAR_PDF417:
+                return BarcodeFormat.PDF_417;
+            case Symbol.ZBAR_QRCODE:
+                return BarcodeFormat.QR_CODE;
+            case Symbol.ZBAR_CODE93:
+                return BarcodeFormat.CODE_93;
+            case Symbol.ZBAR_CODE128:
+                return BarcodeFormat.CODE_128;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 一个条码
+     */
+    public static final class Symbol {
+        /**
+         * zbar_symbol_type_t 中的取值
+         */
+        public static final int ZBAR_NONE = 0;
+        public static final int ZBAR_EAN8 = 8;
+        public static final int ZBAR_UPCE = 9;
+        public static final int ZBAR_ISBN10 = 10;
+        public static final int ZBAR_UPCA = 12;
+        public static final int ZBAR_EAN13 = 13;
+        public static final int ZBAR_ISBN13 = 14;
+        public static final int ZBAR_I25 = 25;
+        public static final int ZBAR_DATABAR = 34;
+        public static final int ZBAR_DATABAR_EXP = 35;
+        public static final int ZBAR_CODABAR = 38;
+        public static final int ZBAR_CODE39 = 39;
+        public static final int ZBAR_PDF417 = 57;
+        public static final int ZBAR_QRCODE = 64;
+        public static final int ZBAR_CODE93 = 93;
+        public static final int ZBAR_CODE128 = 128;
+
+        private int zbarType;
+        private BarcodeFormat format;
+        private int quality;
+        private byte[] data = new byte[64];
+        private int dataLength;
+        private int[] points = new int[8];
+        private int pointCount;
+        private String text;
+
+        void set(int zbarType, BarcodeFormat format, int quality,
+                 byte[] data, int offset, int length) {
+            this.zbarType = zbarType;
+            this.format = format;
+            this.quality = quality;
+            ensureDataCapacity(length);
+            System.arraycopy(data, offset, this.data, 0, length);
+            this.dataLength = length;
+            this.pointCount = 0;
+            this.text = null;
+        }
+
+        void set(int zbarType, BarcodeFormat format, int quality, String text) {
+            byte[] bytes = text.getBytes(UTF_8);
+            set(zbarType, format, quality, bytes, 0, bytes.length);
+            this.text = text;
+        }
+
+        void setPoints(int[] points, int pointCount) {
+            ensurePointCapacity(pointCount);
+            System.arraycopy(points, 0, this.points, 0, pointCount * 2);
+            this.pointCount = pointCount;
+        }
+
+        void addPoint(int x, int y) {
+            ensurePointCapacity(pointCount + 1);
+            points[pointCount * 2] = x;
+            points[pointCount * 2 + 1] = y;
+            pointCount++;
+        }
+
+        private void ensureDataCapacity(int length) {
+            if (data.length < length) {
+                data = new byte[Math.max(length, data.length * 2)];
+            }
+        }
+
+        private void ensurePointCapacity(int count) {
+            if (points.length < count * 2) {
+                int[] newPoints = new int[Math.max(count * 2, points.length * 2)];
+                System.arraycopy(points, 0, newPoints, 0, pointCount * 2);
+                points = newPoints;
+            }
+        }
+
+        /**
+         * zbar 的码制（zbar_symbol_type_t），zxing 解码的结果为 {@link #ZBAR_NONE}
+         */
+        public int getZbarType() {
+            return zbarType;
+        }
+
+        /**
+         * 码制，zbar 中没有对应 zxing 码制的类型返回 null
+         */
+        public BarcodeFormat getFormat() {
+            return format;
+        }
+
+        /**
+         * 识别质量，数值越大越可靠（zbar 中为扫描到该条码的次数）
+         */
+        public int getQuality() {
+            return quality;
+        }
+
+        /**
+         * 原始数据，长度可能大于 {@link #getDataLength()}
+         */
+        public byte[] getData() {
+            return data;
+        }
+
+        public int getDataLength() {
+            return dataLength;
+        }
+
+        /**
+         * 按 UTF-8 解码的内容
+         */
+        public String getText() {
+            if (text == null) {
+                text = new String(data, 0, dataLength, UTF_8);
+            }
+            return text;
+        }
+
+        /**
+         * 位置多边形的顶点个数，坐标相对于解码的图像（扫描框）
+         */
+        public int getPointCount() {
+            return pointCount;
+        }
+
+        public int getPointX(int index) {
+            return points[index * 2];
+        }
+
+        public int getPointY(int index) {
+            return points[index * 2 + 1];
+        }
+    }
+
+}
@@ -16,26 +16,14 @@
 
 package com.zbar.lib;
 
-import android.content.SharedPreferences;
 import android.os.Handler;
 import android.os.Looper;
-import android.preference.PreferenceManager;
 
-import com.google.zxing.BarcodeFormat;
-import com.google.zxing.DecodeHintType;
-import com.google.zxing.ResultPointCallback;
-import com.zxing.Config;
-import com.zxing.camera.CameraManager;
-
-import java.util.Collection;
-import java.util.EnumMap;
-import java.util.EnumSet;
-import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 
 /**
  * This thread does all the heavy lifting of decoding the images.
- * 解码线程
+ * 解码线程，由 {@link DecodeWorkerPool} 统一管理
  *
  * @author dswitkin@google.com (Daniel Switkin)
  */
@@ -43,62 +31,39 @@ final class DecodeThread extends Thread {
     public static final String BARCODE_BITMAP = "barcode_bitmap";
     public static final String BARCODE_SCALED_FACTOR = "barcode_scaled_factor";
     /**
-     * 扫码 Handler
+     * 所属的解码线程池
+     */
+    private final DecodeWorkerPool pool;
+    /**
+     * 在线程池中的序号
      */
-    private final CaptureActivityHandler captureActivityHandler;
+    private final int index;
     /**
      * 解码 Handler
      */
     private Handler decodeHandler;
     /**
-     * 【辅助解码的参数(用作 MultiFormatReader 的参数)】 该参数最终会传入 MultiFormatReader，
-     * 上面的 decodeFormats 和 characterSet 最终会先加入到 decodeHints 中 最终被设置到
-     * MultiFormatReader 中，参考 DecodeHandlerImpl 构造器中如下代码：
-     * multiFormatReader.setHints(hints);
+     * 解码引擎（每个线程一个实例），解码参数已经在创建引擎时设置
      */
-    private final Map<DecodeHintType, Object> hints;
+    private final DecoderEngine decoderEngine;
+    /**
+     * 预览帧旋转策略（每个线程一个实例）
+     */
+    private final RotateStrategy rotateStrategy;
     /**
      * 锁存器
      */
     private final CountDownLatch handlerInitLatch;
 
-    DecodeThread(CaptureActivityHandler captureActivityHandler,
-                 Collection<BarcodeFormat> decodeFormats,
-                 Map<DecodeHintType, ?> baseHints,
-                 String characterSet,
-                 ResultPointCallback resultPointCallback) {
-
-        this.captureActivityHandler = captureActivityHandler;
+    DecodeThread(DecodeWorkerPool pool, int index,
+                 DecoderEngine decoderEngine,
+                 RotateStrategy rotateStrategy) {
+        super("DecodeThread-" + index);
+        this.pool = pool;
+        this.index = index;
+        this.decoderEngine = decoderEngine;
+        this.rotateStrategy = rotateStrategy;
         handlerInitLatch = new CountDownLatch(1);
-        hints = new EnumMap<>(DecodeHintType.class);
-        if (baseHints != null) {
-            hints.putAll(baseHints);
-        }
-
-        // The prefs can't change while the thread is running, so pick them up
-        // once here.
-        if (decodeFormats == null || decodeFormats.isEmpty()) {
-            SharedPreferences prefs = PreferenceManager
-                    .getDefaultSharedPreferences(CameraManager.get().getContext());
-            decodeFormats = EnumSet.noneOf(BarcodeFormat.class);
-            if (prefs.getBoolean(Config.KEY_DECODE_1D, false)) {
-                decodeFormats.addAll(DecodeFormatManager.ONE_D_FORMATS);
-            }
-            if (prefs.getBoolean(Config.KEY_DECODE_QR, false)) {
-                decodeFormats.addAll(DecodeFormatManager.QR_CODE_FORMATS);
-            }
-            if (prefs.getBoolean(Config.KEY_DECODE_DATA_MATRIX,
-                    false)) {
-                decodeFormats.addAll(DecodeFormatManager.DATA_MATRIX_FORMATS);
-            }
-        }
-        hints.put(DecodeHintType.POSSIBLE_FORMATS, decodeFormats);
-
-        if (characterSet != null) {
-            hints.put(DecodeHintType.CHARACTER_SET, characterSet);
-        }
-        hints.put(DecodeHintType.NEED_RESULT_POINT_CALLBACK,
-                resultPointCallback);
     }
 
     Handler getDecodeHandler() {
@@ -113,7 +78,9 @@ final class DecodeThread extends Thread {
     @Override
     public void run() {
         Looper.prepare();
-        decodeHandler = new DecodeHandler(captureActivityHandler, hints);
+        DecodeHandler handler = new DecodeHandler(pool, index, decoderEngine);
+        handler.setRotateStrategy(rotateStrategy);
+        decodeHandler = handler;
         handlerInitLatch.countDown();
         Looper.loop();
     }
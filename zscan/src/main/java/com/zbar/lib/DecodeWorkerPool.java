@@ -0,0 +1,378 @@
+package com.zbar.lib;
+
+import android.content.SharedPreferences;
+import android.os.Message;
+import android.os.SystemClock;
+import android.preference.PreferenceManager;
+
+import com.github.jeterlee.zscan.R;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.ResultPointCallback;
+import com.zxing.Config;
+import com.zxing.camera.CameraManager;
+import com.zxing.camera.FrameMailbox;
+import com.zxing.camera.PreviewFrame;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+
+/**
+ * <pre>
+ * Title: DecodeWorkerPool
+ * Description: 解码线程池。每个 {@link DecodeThread} 拥有自己的 {@link DecodeHandler}
+ * （即自己的 zbar/zxing 解码器），预览帧按轮询的方式分给空闲的线程，一个线程拿到预览帧后
+ * 立即为下一个空闲线程请求新的一帧，多个核心可以同时解码。
+ * 一次扫码中只有第一个成功的结果会发给 {@link CaptureActivityHandler}，之后还在路上的帧都会被丢弃。
+ * 连续扫码（{@link DecodeOptions#setBulkMode(boolean)}）时解码不会停止，每个新的结果都会发出，重复的条码由
+ * {@link DuplicateFilter} 过滤。
+ * 在 {@link DecodeOptions.DispatchMode#LATEST_FRAME} 模式下，相机持续把预览帧放入 {@link FrameMailbox}，
+ * 每个解码线程循环地从信箱中取最新的一帧，不再逐帧请求。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+final class DecodeWorkerPool {
+    private final CaptureActivityHandler captureActivityHandler;
+    private final DecodeThread[] workers;
+    private final boolean streaming;
+    /**
+     * 所有线程共用的自适应解码窗口，未开启时为 null
+     */
+    private final RoiTracker roiTracker;
+    /**
+     * 所有解码线程共用，未开启时为 null
+     */
+    private final SharpnessGate sharpnessGate;
+    private final boolean bulkMode;
+    /**
+     * 连续扫码时过滤重复的条码，不过滤时为 null
+     */
+    private final DuplicateFilter duplicateFilter;
+    private final DecodeMetrics metrics = new DecodeMetrics();
+    /**
+     * 连续取帧模式下的预览帧信箱
+     */
+    private volatile FrameMailbox frameMailbox;
+    /**
+     * 以下状态都由 this 保护
+     */
+    private final boolean[] busy;
+    /**
+     * 每个线程手上的帧属于哪一次扫码
+     */
+    private final int[] workerGeneration;
+    private int generation;
+    private boolean decoding;
+    private int nextWorker;
+    /**
+     * 已经向相机请求、但还没有到达的帧属于哪个线程，-1 表示没有
+     */
+    private int pendingWorker = -1;
+    /**
+     * 已经计入 {@link #metrics} 的信箱丢帧数
+     */
+    private long reportedMailboxDrops;
+
+    DecodeWorkerPool(CaptureActivityHandler captureActivityHandler,
+                     Collection<BarcodeFormat> decodeFormats,
+                     Map<DecodeHintType, ?> baseHints,
+                     String characterSet,
+                     ResultPointCallback resultPointCallback,
+                     DecodeOptions options) {
+        this.captureActivityHandler = captureActivityHandler;
+        Map<DecodeHintType, Object> hints = buildHints(decodeFormats, baseHints,
+                characterSet, resultPointCallback);
+        streaming = options.getDispatchMode() == DecodeOptions.DispatchMode.LATEST_FRAME;
+        roiTracker = options.isRoiTrackingEnabled() ? new RoiTracker(options.getRoiMissLimit()) : null;
+        sharpnessGate = options.isSharpnessGateEnabled()
+                ? new SharpnessGate(options.getSharpnessRatio(), options.getSharpnessMaxSkips())
+                : null;
+        bulkMode = options.isBulkMode();
+        duplicateFilter = bulkMode && options.getDuplicateWindowMillis() > 0
+                ? new DuplicateFilter(options.getDuplicateCapacity(), options.getDuplicateWindowMillis())
+                : null;
+        int workerCount = options.getWorkerCount();
+        workers = new DecodeThread[workerCount];
+        busy = new boolean[workerCount];
+        workerGeneration = new int[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new DecodeThread(this, i,
+                    options.getDecoderEngineFactory().create(hints),
+                    options.getRotateStrategyFactory().create());
+        }
+    }
+
+    private static Map<DecodeHintType, Object> buildHints(Collection<BarcodeFormat> decodeFormats,
+                                                          Map<DecodeHintType, ?> baseHints,
+                                                          String characterSet,
+                                                          ResultPointCallback resultPointCallback) {
+        Map<DecodeHintType, Object> hints = new EnumMap<>(DecodeHintType.class);
+        if (baseHints != null) {
+            hints.putAll(baseHints);
+        }
+
+        // The prefs can't change while the thread is running, so pick them up
+        // once here.
+        if (decodeFormats == null || decodeFormats.isEmpty()) {
+            SharedPreferences prefs = PreferenceManager
+                    .getDefaultSharedPreferences(CameraManager.get().getContext());
+            decodeFormats = EnumSet.noneOf(BarcodeFormat.class);
+            if (prefs.getBoolean(Config.KEY_DECODE_1D, false)) {
+                decodeFormats.addAll(DecodeFormatManager.ONE_D_FORMATS);
+            }
+            if (prefs.getBoolean(Config.KEY_DECODE_QR, false)) {
+                decodeFormats.addAll(DecodeFormatManager.QR_CODE_FORMATS);
+            }
+            if (prefs.getBoolean(Config.KEY_DECODE_DATA_MATRIX,
+                    false)) {
+                decodeFormats.addAll(DecodeFormatManager.DATA_MATRIX_FORMATS);
+            }
+        }
+        hints.put(DecodeHintType.POSSIBLE_FORMATS, decodeFormats);
+
+        if (characterSet != null) {
+            hints.put(DecodeHintType.CHARACTER_SET, characterSet);
+        }
+        hints.put(DecodeHintType.NEED_RESULT_POINT_CALLBACK,
+                resultPointCallback);
+        return hints;
+    }
+
+    void start() {
+        for (DecodeThread worker : workers) {
+            worker.start();
+        }
+    }
+
+    /**
+     * 开始新的一次扫码，之前还在解码的帧都作废
+     */
+    synchronized void startDecode() {
+        generation++;
+        decoding = true;
+        if (roiTracker != null) {
+            // 新的一次扫码，条码可能在任何位置
+            roiTracker.reset();
+        }
+        if (streaming) {
+            startStreaming();
+            return;
+        }
+        if (pendingWorker >= 0) {
+            // 已经请求的帧还没有到达，直接算作这一次扫码的帧
+            workerGeneration[pendingWorker] = generation;
+        }
+        dispatch();
+    }
+
+    private void startStreaming() {
+        FrameMailbox mailbox = frameMailbox;
+        if (mailbox == null || mailbox.isClosed()) {
+            mailbox = CameraManager.get().startFrameStreaming();
+            if (mailbox == null) {
+                return;
+            }
+            frameMailbox = mailbox;
+            // 每个解码线程开始循环取帧
+            for (DecodeThread worker : workers) {
+                worker.getDecodeHandler().sendEmptyMessage(R.id.decode_next_frame);
+            }
+        }
+        mailbox.resume();
+    }
+
+    /**
+     * 停止解码，已经分配出去的帧解码完成后会被丢弃。连续取帧模式下暂停信箱，解码线程阻塞在取帧上
+     */
+    synchronized void stopDecode() {
+        decoding = false;
+        generation++;
+        FrameMailbox mailbox = frameMailbox;
+        if (mailbox != null) {
+            mailbox.pause();
+        }
+    }
+
+    /**
+     * 连续取帧模式下，从信箱中取出最新的一帧，没有新帧时阻塞
+     *
+     * @param worker 解码线程序号
+     * @param out    用于接收预览帧
+     * @return 信箱已关闭（停止扫码）时返回 false
+     */
+    boolean takeFrame(int worker, PreviewFrame out) {
+        FrameMailbox mailbox = frameMailbox;
+        if (mailbox == null) {
+            return false;
+        }
+        try {
+            if (!mailbox.take(out)) {
+                return false;
+            }
+        } catch (InterruptedException e) {
+            return false;
+        }
+        synchronized (this) {
+            busy[worker] = true;
+            workerGeneration[worker] = generation;
+            long drops = mailbox.getDroppedFrameCount();
+            if (drops < reportedMailboxDrops) {
+                // 重新开始扫码时创建了新的信箱
+                reportedMailboxDrops = 0;
+            }
+            metrics.onFramesDropped(drops - reportedMailboxDrops);
+            reportedMailboxDrops = drops;
+        }
+        return true;
+    }
+
+    /**
+     * 连续取帧模式下，检查刚取出的帧是否已经过期（扫码已经成功或停止），过期的帧不需要解码
+     */
+    synchronized boolean isTakenFrameStale(int worker) {
+        boolean stale = isStale(worker);
+        if (stale) {
+            busy[worker] = false;
+        }
+        return stale;
+    }
+
+    /**
+     * 被更新的帧顶替而没有解码的帧数，只在连续取帧模式下统计
+     */
+    long getDroppedFrameCount() {
+        FrameMailbox mailbox = frameMailbox;
+        return mailbox == null ? 0 : mailbox.getDroppedFrameCount();
+    }
+
+    /**
+     * 为下一个空闲的线程向相机请求一帧。相机同一时间只能有一个未完成的请求
+     */
+    private void dispatch() {
+        if (streaming || !decoding || pendingWorker >= 0) {
+            return;
+        }
+        int count = workers.length;
+        for (int i = 0; i < count; i++) {
+            int index = (nextWorker + i) % count;
+            if (!busy[index]) {
+                busy[index] = true;
+                workerGeneration[index] = generation;
+                pendingWorker = index;
+                nextWorker = (index + 1) % count;
+                CameraManager.get().requestPreviewFrame(workers[index].getDecodeHandler(),
+                        R.id.decode);
+                return;
+            }
+        }
+    }
+
+    /**
+     * 线程收到了预览帧，可以为下一个线程请求新的一帧了
+     *
+     * @return 这一帧是否已经过期（扫码已经成功或停止），过期的帧不需要解码
+     */
+    synchronized boolean onFrameReceived(int worker) {
+        if (pendingWorker == worker) {
+            pendingWorker = -1;
+        }
+        boolean stale = isStale(worker);
+        if (stale) {
+            busy[worker] = false;
+        }
+        dispatch();
+        return stale;
+    }
+
+    synchronized void onDecodeFailed(int worker) {
+        busy[worker] = false;
+        dispatch();
+    }
+
+    /**
+     * 解码成功，只有本次扫码中第一个成功的结果会发给 {@link CaptureActivityHandler}。
+     * 连续扫码时继续解码，只有不重复的条码会发出
+     *
+     * @param result 解码线程复用的结果，发出的是一份拷贝
+     * @return 是否有新的条码。帧已经过期（属于之前的扫码）或连续扫码时全部重复返回 false
+     */
+    boolean onDecodeSucceeded(int worker, DecodeResult result) {
+        synchronized (this) {
+            busy[worker] = false;
+            if (isStale(worker)) {
+                dispatch();
+                return false;
+            }
+            if (bulkMode) {
+                dispatch();
+            } else {
+                // 不再需要新的帧，连续取帧模式下同时暂停信箱
+                stopDecode();
+            }
+        }
+        DecodeResult delivered;
+        if (duplicateFilter != null) {
+            delivered = duplicateFilter.filter(result, SystemClock.elapsedRealtime());
+            if (delivered == null) {
+                return false;
+            }
+        } else {
+            delivered = result.copy();
+        }
+        Message message = Message.obtain(captureActivityHandler, R.id.decode_succeeded, delivered);
+        message.sendToTarget();
+        return true;
+    }
+
+    private boolean isStale(int worker) {
+        return !decoding || workerGeneration[worker] != generation;
+    }
+
+    boolean isBulkMode() {
+        return bulkMode;
+    }
+
+    DecodeMetrics getMetrics() {
+        return metrics;
+    }
+
+    RoiTracker getRoiTracker() {
+        return roiTracker;
+    }
+
+    SharpnessGate getSharpnessGate() {
+        return sharpnessGate;
+    }
+
+    int getWorkerCount() {
+        return workers.length;
+    }
+
+    /**
+     * 结束所有解码线程并等待它们退出
+     */
+    void quitSynchronously() {
+        stopDecode();
+        FrameMailbox mailbox = frameMailbox;
+        if (mailbox != null) {
+            // 唤醒阻塞在取帧上的线程
+            mailbox.close();
+        }
+        for (DecodeThread worker : workers) {
+            Message quit = Message.obtain(worker.getDecodeHandler(), R.id.quit);
+            quit.sendToTarget();
+        }
+        for (DecodeThread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                // continue
+            }
+        }
+    }
+
+}
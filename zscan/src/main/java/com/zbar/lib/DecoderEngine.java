@@ -0,0 +1,68 @@
+package com.zbar.lib;
+
+import com.google.zxing.DecodeHintType;
+
+import java.util.Map;
+
+/**
+ * <pre>
+ * Title: DecoderEngine
+ * Description: 解码引擎，对旋转（裁剪）后的预览帧进行解码。不同的码制在不同的引擎上解码速度差别很大，
+ * 可以通过 {@link DecodeOptions#setDecoderEngineFactory(Factory)} 为每个扫码界面选择引擎。
+ * 引擎实例只在一个解码线程中使用，不需要考虑线程安全。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public interface DecoderEngine {
+
+    /**
+     * 解码
+     *
+     * @param frame  旋转后的预览帧
+     * @param result 用于接收解码结果，解码前会被清空
+     * @return 是否识别到条码
+     */
+    boolean decode(RotatedFrame frame, DecodeResult result);
+
+    /**
+     * 每个解码线程通过工厂创建自己的引擎实例
+     */
+    interface Factory {
+
+        /**
+         * zbar（默认）
+         */
+        Factory ZBAR = new Factory() {
+            @Override
+            public DecoderEngine create(Map<DecodeHintType, Object> hints) {
+                return new ZbarDecoderEngine();
+            }
+        };
+
+        /**
+         * zxing
+         */
+        Factory ZXING = new Factory() {
+            @Override
+            public DecoderEngine create(Map<DecodeHintType, Object> hints) {
+                return new ZxingDecoderEngine(hints);
+            }
+        };
+
+        /**
+         * zbar 优先，zbar 识别失败的帧再交给 zxing
+         */
+        Factory HYBRID = HybridDecoderEngine.factory(1);
+
+        /**
+         * 创建引擎
+         *
+         * @param hints 解码参数（码制、字符集等）
+         * @return 解码引擎
+         */
+        DecoderEngine create(Map<DecodeHintType, Object> hints);
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.zbar.lib;
+
+import com.google.zxing.BarcodeFormat;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <pre>
+ * Title: DuplicateFilter
+ * Description: 连续扫码时过滤重复的条码。记住最近出现过的内容（码制 + 文本），同一内容距离上一次出现
+ * 不超过 windowMillis 时视为重复；条码一直留在画面中时会不断刷新时间，不会被重复报告。
+ * 最多记住 capacity 个内容，超出时淘汰最久没有出现的，内存占用有上限。线程安全。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public final class DuplicateFilter {
+    private final long windowMillis;
+    /**
+     * 内容 -> 最后一次出现的时间，按访问顺序排列
+     */
+    private final LinkedHashMap<String, Long> lastSeen;
+
+    /**
+     * @param capacity     最多记住的内容个数
+     * @param windowMillis 时间窗口（毫秒）
+     */
+    public DuplicateFilter(final int capacity, long windowMillis) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity < 1");
+        }
+        this.windowMillis = windowMillis;
+        this.lastSeen = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * 记录一次出现，并判断是否重复
+     *
+     * @param format    码制，可以为 null
+     * @param text      内容
+     * @param nowMillis 当前时间，使用单调时钟（例如 SystemClock.elapsedRealtime()）
+     * @return 时间窗口内出现过时返回 true
+     */
+    public synchronized boolean isDuplicate(BarcodeFormat format, String text, long nowMillis) {
+        String key = format == null ? "\u0000" + text : format.name() + '\u0000' + text;
+        Long last = lastSeen.put(key, nowMillis);
+        return last != null && nowMillis - last <= windowMillis;
+    }
+
+    /**
+     * 过滤一帧的解码结果
+     *
+     * @param result    解码结果，不会被修改
+     * @param nowMillis 当前时间
+     * @return 只包含新条码的拷贝，全部重复时返回 null
+     */
+    public DecodeResult filter(DecodeResult result, long nowMillis) {
+        DecodeResult fresh = null;
+        for (int i = 0; i < result.getSymbolCount(); i++) {
+            DecodeResult.Symbol symbol = result.getSymbol(i);
+            if (isDuplicate(symbol.getFormat(), symbol.getText(), nowMillis)) {
+                continue;
+            }
+            if (fresh == null) {
+                fresh = new DecodeResult();
+            }
+            fresh.addCopyOf(symbol);
+        }
+        return fresh;
+    }
+
+    /**
+     * 忘记所有记住的内容
+     */
+    public synchronized void clear() {
+        lastSeen.clear();
+    }
+
+}
@@ -0,0 +1,205 @@
+package com.zbar.lib;
+
+import com.google.zxing.BarcodeFormat;
+import com.zxing.camera.FrameRecordReader;
+import com.zxing.camera.RecordedFrame;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <pre>
+ * Title: FrameReplayer
+ * Description: 离线回放录制的预览帧（参考 {@link com.zxing.camera.FrameRecorder}），按照解码线程
+ * （{@link DecodeHandler#decode(byte[], int, int)}）相同的步骤旋转裁剪后交给 {@link DecoderEngine}，
+ * 统计解码速度、每帧耗时的分位数，以及每种码制的识别率。不依赖 Android，可以在 JVM 上运行。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public final class FrameReplayer {
+
+    /**
+     * 没有标注码制、也没有识别到条码的帧在报告中的分组。
+     * 没有标注但识别到条码的帧按识别到的码制分组（例如现场录制的素材）
+     */
+    public static final String UNLABELED = "UNLABELED";
+
+    private final RotateStrategy rotateStrategy;
+    private final DecoderEngine decoderEngine;
+    private final RotatedFrame rotatedFrame = new RotatedFrame();
+    private final DecodeResult decodeResult = new DecodeResult();
+
+    public FrameReplayer(RotateStrategy rotateStrategy, DecoderEngine decoderEngine) {
+        this.rotateStrategy = rotateStrategy;
+        this.decoderEngine = decoderEngine;
+    }
+
+    /**
+     * 回放文件中的所有帧
+     */
+    public Report replay(FrameRecordReader reader) throws IOException {
+        Report report = new Report();
+        RecordedFrame frame;
+        while ((frame = reader.next()) != null) {
+            replay(frame, report);
+        }
+        return report;
+    }
+
+    /**
+     * 回放一帧，结果计入 report
+     *
+     * @return 是否识别到期望的条码（没有标注时为是否识别到任意条码）
+     */
+    public boolean replay(RecordedFrame frame, Report report) {
+        long start = System.nanoTime();
+        rotateStrategy.rotate(frame.getLuminance(), frame.getWidth(), frame.getHeight(),
+                frame.getCropLeft(), frame.getCropTop(), frame.getCropWidth(), frame.getCropHeight(),
+                rotatedFrame);
+        boolean decoded = decoderEngine.decode(rotatedFrame, decodeResult);
+        long elapsed = System.nanoTime() - start;
+
+        boolean success = decoded && matchesExpected(frame, decodeResult);
+        report.add(reportFormat(frame, decoded, decodeResult), elapsed, decoded, success);
+        return success;
+    }
+
+    /**
+     * 报告中的分组：标注的码制，没有标注时为识别到的第一个条码的码制
+     */
+    private static String reportFormat(RecordedFrame frame, boolean decoded, DecodeResult result) {
+        if (frame.getExpectedFormat() != null) {
+            return frame.getExpectedFormat();
+        }
+        if (decoded && result.getSymbolCount() > 0) {
+            BarcodeFormat format = result.getSymbol(0).getFormat();
+            if (format != null) {
+                return format.name();
+            }
+        }
+        return UNLABELED;
+    }
+
+    private static boolean matchesExpected(RecordedFrame frame, DecodeResult result) {
+        String expectedFormat = frame.getExpectedFormat();
+        String expectedText = frame.getExpectedText();
+        for (int i = 0; i < result.getSymbolCount(); i++) {
+            DecodeResult.Symbol symbol = result.getSymbol(i);
+            BarcodeFormat format = symbol.getFormat();
+            if (expectedFormat != null && (format == null || !expectedFormat.equals(format.name()))) {
+                continue;
+            }
+            if (expectedText != null && !expectedText.equals(symbol.getText())) {
+                continue;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 回放结果
+     */
+    public static final class Report {
+        private int frameCount;
+        private int decodedCount;
+        private long totalNanos;
+        private long[] latencies = new long[64];
+        private final Map<String, int[]> formats = new LinkedHashMap<>();
+
+        void add(String format, long elapsedNanos, boolean decoded, boolean success) {
+            if (frameCount == latencies.length) {
+                latencies = Arrays.copyOf(latencies, frameCount * 2);
+            }
+            latencies[frameCount++] = elapsedNanos;
+            totalNanos += elapsedNanos;
+            if (decoded) {
+                decodedCount++;
+            }
+            int[] counts = formats.get(format);
+            if (counts == null) {
+                counts = new int[2];
+                formats.put(format, counts);
+            }
+            counts[0]++;
+            if (success) {
+                counts[1]++;
+            }
+        }
+
+        public int getFrameCount() {
+            return frameCount;
+        }
+
+        /**
+         * 识别到任意条码的帧数
+         */
+        public int getDecodedCount() {
+            return decodedCount;
+        }
+
+        /**
+         * 每秒处理的帧数（只计算旋转与解码的时间）
+         */
+        public double getFramesPerSecond() {
+            return totalNanos == 0 ? 0 : frameCount * 1e9 / totalNanos;
+        }
+
+        /**
+         * 每帧耗时的分位数
+         *
+         * @param percentile 0 ~ 100
+         * @return 纳秒，没有帧时返回 0
+         */
+        public long getLatencyPercentileNanos(double percentile) {
+            if (frameCount == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(latencies, frameCount);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(percentile / 100 * frameCount);
+            return sorted[Math.max(0, Math.min(frameCount - 1, rank - 1))];
+        }
+
+        /**
+         * 参与统计的码制（标注的或识别到的码制，或 {@link #UNLABELED}）
+         */
+        public Set<String> getFormats() {
+            return Collections.unmodifiableSet(formats.keySet());
+        }
+
+        /**
+         * 某种码制的识别率，没有该码制的帧时返回 0
+         *
+         * @param format BarcodeFormat 的名字，或 {@link #UNLABELED}
+         */
+        public double getSuccessRatio(String format) {
+            int[] counts = formats.get(format);
+            return counts == null || counts[0] == 0 ? 0 : (double) counts[1] / counts[0];
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format(Locale.US, "frames: %d, decoded: %d, %.1f frames/s%n",
+                    frameCount, decodedCount, getFramesPerSecond()));
+            sb.append(String.format(Locale.US, "latency ms: p50 %.2f, p90 %.2f, p99 %.2f, max %.2f%n",
+                    getLatencyPercentileNanos(50) / 1e6, getLatencyPercentileNanos(90) / 1e6,
+                    getLatencyPercentileNanos(99) / 1e6, getLatencyPercentileNanos(100) / 1e6));
+            for (Map.Entry<String, int[]> entry : formats.entrySet()) {
+                int[] counts = entry.getValue();
+                sb.append(String.format(Locale.US, "%s: %d/%d (%.1f%%)%n", entry.getKey(),
+                        counts[1], counts[0], 100.0 * counts[1] / counts[0]));
+            }
+            return sb.toString();
+        }
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.zbar.lib;
+
+/**
+ * <pre>
+ * Title: FullFrameRotateStrategy
+ * Description: 旋转整帧图像，裁剪交给 zbar 完成（原有的解码方式）。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public final class FullFrameRotateStrategy implements RotateStrategy {
+    private byte[] buffer;
+
+    @Override
+    public void rotate(byte[] data, int width, int height,
+                       int left, int top, int cropWidth, int cropHeight,
+                       RotatedFrame out) {
+        int area = width * height;
+        if (buffer == null || buffer.length < area) {
+            buffer = new byte[area];
+        }
+        byte[] rotatedData = buffer;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                rotatedData[x * height + height - y - 1] = data[x + y * width];
+            }
+        }
+        // Here we are swapping, that's the difference to #11
+        out.set(rotatedData, height, width, left, top, cropWidth, cropHeight);
+    }
+
+}
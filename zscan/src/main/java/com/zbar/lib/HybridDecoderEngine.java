@@ -0,0 +1,68 @@
+package com.zbar.lib;
+
+import com.google.zxing.DecodeHintType;
+
+import java.util.Map;
+
+/**
+ * <pre>
+ * Title: HybridDecoderEngine
+ * Description: zbar 优先的混合引擎。zbar 识别失败时才使用 zxing，
+ * 并且可以设置为每 N 个失败帧才交给 zxing 一次，避免 zxing 拖慢整体的帧率。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public final class HybridDecoderEngine implements DecoderEngine {
+    private final DecoderEngine zbar;
+    private final DecoderEngine zxing;
+    private final int zxingInterval;
+    private int rejectedFrames;
+
+    /**
+     * @param zbar          首选引擎
+     * @param zxing         备选引擎
+     * @param zxingInterval zbar 每识别失败多少帧使用一次 zxing，1 表示每个失败帧都使用
+     */
+    public HybridDecoderEngine(DecoderEngine zbar, DecoderEngine zxing, int zxingInterval) {
+        if (zxingInterval < 1) {
+            throw new IllegalArgumentException("zxingInterval must be at least 1");
+        }
+        this.zbar = zbar;
+        this.zxing = zxing;
+        this.zxingInterval = zxingInterval;
+    }
+
+    /**
+     * 创建混合引擎的工厂
+     *
+     * @param zxingInterval zbar 每识别失败多少帧使用一次 zxing，1 表示每个失败帧都使用
+     */
+    public static Factory factory(final int zxingInterval) {
+        if (zxingInterval < 1) {
+            throw new IllegalArgumentException("zxingInterval must be at least 1");
+        }
+        return new Factory() {
+            @Override
+            public DecoderEngine create(Map<DecodeHintType, Object> hints) {
+                return new HybridDecoderEngine(new ZbarDecoderEngine(),
+                        new ZxingDecoderEngine(hints), zxingInterval);
+            }
+        };
+    }
+
+    @Override
+    public boolean decode(RotatedFrame frame, DecodeResult result) {
+        if (zbar.decode(frame, result)) {
+            return true;
+        }
+        rejectedFrames++;
+        if (rejectedFrames < zxingInterval) {
+            return false;
+        }
+        rejectedFrames = 0;
+        return zxing.decode(frame, result);
+    }
+
+}
@@ -0,0 +1,190 @@
+package com.zbar.lib;
+
+import android.graphics.Rect;
+
+/**
+ * <pre>
+ * Title: RoiTracker
+ * Description: 自适应解码窗口（region of interest）。某一帧识别到条码，或者 zxing 找到了可能的定位点后，
+ * 之后的帧只解码该位置周围的一小块区域；连续 missLimit 帧没有识别到条码后，恢复解码整个扫描框。
+ * 解码耗时与像素数成正比，连续扫码时可以把每一帧的工作量降低数倍。
+ * 所有解码线程共用一个实例，坐标均为旋转后的预览帧坐标。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+final class RoiTracker {
+    /**
+     * 条码四周至少保留的边距，相对扫描框较短一边的比例
+     */
+    private static final float MIN_MARGIN_RATIO = 1 / 6f;
+    /**
+     * 解码窗口超过扫描框面积的这个比例时，直接解码整个扫描框
+     */
+    private static final float MAX_AREA_RATIO = 0.8f;
+
+    private final int missLimit;
+    /**
+     * 以下状态都由 this 保护
+     */
+    private boolean tracking;
+    /**
+     * 最近一次条码（或定位点）的位置：left, top, right, bottom
+     */
+    private final int[] location = new int[4];
+    private int misses;
+    /**
+     * {@link #getWindow(Rect, Rect)} 计算时使用
+     */
+    private final int[] window = new int[4];
+
+    /**
+     * @param missLimit 连续多少帧没有识别到条码后恢复解码整个扫描框
+     */
+    RoiTracker(int missLimit) {
+        this.missLimit = Math.max(1, missLimit);
+    }
+
+    /**
+     * 计算这一帧的解码窗口
+     *
+     * @param framingRect 旋转后的预览帧中的扫描框
+     * @param out         用于接收解码窗口，一定位于扫描框内
+     * @return 是否只解码扫描框的一部分
+     */
+    synchronized boolean getWindow(Rect framingRect, Rect out) {
+        boolean partial = getWindow(framingRect.left, framingRect.top, framingRect.right,
+                framingRect.bottom, window);
+        out.set(window[0], window[1], window[2], window[3]);
+        return partial;
+    }
+
+    /**
+     * 与 {@link #getWindow(Rect, Rect)} 相同，扫描框以坐标表示
+     *
+     * @param out 依次接收解码窗口的 left, top, right, bottom
+     */
+    synchronized boolean getWindow(int left, int top, int right, int bottom, int[] out) {
+        setWindow(out, left, top, right, bottom);
+        if (!tracking) {
+            return false;
+        }
+        // 边距取条码尺寸的一半，条码移动时仍然落在窗口内；一维码的定位点可能在一条线上，按较长的一边计算
+        int width = right - left;
+        int height = bottom - top;
+        int size = Math.max(location[2] - location[0], location[3] - location[1]);
+        int minMargin = (int) (Math.min(width, height) * MIN_MARGIN_RATIO);
+        int margin = Math.max(minMargin, size / 2);
+        int centerX = (location[0] + location[2]) >> 1;
+        int centerY = (location[1] + location[3]) >> 1;
+        int half = size / 2 + margin;
+        int windowLeft = Math.max(left, centerX - half);
+        int windowTop = Math.max(top, centerY - half);
+        int windowRight = Math.min(right, centerX + half);
+        int windowBottom = Math.min(bottom, centerY + half);
+        if (windowLeft >= windowRight || windowTop >= windowBottom) {
+            // 条码已经不在扫描框内
+            tracking = false;
+            return false;
+        }
+        long area = (long) (windowRight - windowLeft) * (windowBottom - windowTop);
+        long framingArea = (long) width * height;
+        if (area >= framingArea * MAX_AREA_RATIO) {
+            return false;
+        }
+        setWindow(out, windowLeft, windowTop, windowRight, windowBottom);
+        return true;
+    }
+
+    /**
+     * 一帧解码完成
+     *
+     * @param window  这一帧的解码窗口（{@link #getWindow(Rect, Rect)} 的结果）
+     * @param result  解码结果，坐标相对于解码窗口
+     * @param decoded 是否识别到条码
+     */
+    void onDecoded(Rect window, DecodeResult result, boolean decoded) {
+        onDecoded(window.left, window.top, result, decoded);
+    }
+
+    /**
+     * 与 {@link #onDecoded(Rect, DecodeResult, boolean)} 相同，只需要解码窗口左上角的位置
+     */
+    synchronized void onDecoded(int windowLeft, int windowTop, DecodeResult result,
+                                boolean decoded) {
+        if (decoded) {
+            // 识别成功但没有坐标（例如旧版本的 libzbar.so）时保持当前的窗口
+            if (updateLocation(windowLeft, windowTop, result) || tracking) {
+                misses = 0;
+                tracking = true;
+            }
+            return;
+        }
+        // 只找到定位点时也跟踪该位置，但仍然算作一次未识别，避免一直停留在无法识别的区域
+        if (updateLocationFromPossiblePoints(windowLeft, windowTop, result) && !tracking) {
+            tracking = true;
+            misses = 0;
+        }
+        if (tracking && ++misses >= missLimit) {
+            tracking = false;
+            misses = 0;
+        }
+    }
+
+    synchronized void reset() {
+        tracking = false;
+        misses = 0;
+    }
+
+    private boolean updateLocation(int windowLeft, int windowTop, DecodeResult result) {
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < result.getSymbolCount(); i++) {
+            DecodeResult.Symbol symbol = result.getSymbol(i);
+            for (int j = 0; j < symbol.getPointCount(); j++) {
+                minX = Math.min(minX, symbol.getPointX(j));
+                minY = Math.min(minY, symbol.getPointY(j));
+                maxX = Math.max(maxX, symbol.getPointX(j));
+                maxY = Math.max(maxY, symbol.getPointY(j));
+            }
+        }
+        return setLocation(windowLeft, windowTop, minX, minY, maxX, maxY);
+    }
+
+    private boolean updateLocationFromPossiblePoints(int windowLeft, int windowTop,
+                                                     DecodeResult result) {
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < result.getPossiblePointCount(); i++) {
+            minX = Math.min(minX, result.getPossiblePointX(i));
+            minY = Math.min(minY, result.getPossiblePointY(i));
+            maxX = Math.max(maxX, result.getPossiblePointX(i));
+            maxY = Math.max(maxY, result.getPossiblePointY(i));
+        }
+        return setLocation(windowLeft, windowTop, minX, minY, maxX, maxY);
+    }
+
+    private boolean setLocation(int windowLeft, int windowTop, int minX, int minY,
+                                int maxX, int maxY) {
+        if (minX > maxX) {
+            // 没有坐标
+            return false;
+        }
+        setWindow(location, windowLeft + minX, windowTop + minY,
+                windowLeft + maxX + 1, windowTop + maxY + 1);
+        return true;
+    }
+
+    private static void setWindow(int[] out, int left, int top, int right, int bottom) {
+        out[0] = left;
+        out[1] = top;
+        out[2] = right;
+        out[3] = bottom;
+    }
+
+}
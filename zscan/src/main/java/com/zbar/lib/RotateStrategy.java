@@ -0,0 +1,69 @@
+package com.zbar.lib;
+
+/**
+ * <pre>
+ * Title: RotateStrategy
+ * Description: 预览帧旋转策略。相机输出的是横屏的 NV21 数据，竖屏扫码时需要先顺时针旋转 90 度，
+ * 再按扫描框裁剪后交给解码器。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public interface RotateStrategy {
+
+    /**
+     * 旋转预览帧，裁剪窗口的坐标是旋转后（宽高互换后）图像中的坐标，必须位于图像内部
+     *
+     * @param data       预览帧（NV21，只使用 Y 分量）
+     * @param width      预览帧宽度
+     * @param height     预览帧高度
+     * @param left       裁剪窗口左边界
+     * @param top        裁剪窗口上边界
+     * @param cropWidth  裁剪窗口宽度
+     * @param cropHeight 裁剪窗口高度
+     * @param out        旋转结果
+     */
+    void rotate(byte[] data, int width, int height,
+                int left, int top, int cropWidth, int cropHeight,
+                RotatedFrame out);
+
+    /**
+     * 策略实例持有复用的缓冲区，不能在线程之间共享，每个解码线程通过工厂创建自己的实例
+     */
+    interface Factory {
+
+        /**
+         * 只旋转扫描框内的数据
+         */
+        Factory CROP = new Factory() {
+            @Override
+            public RotateStrategy create() {
+                return new CropRotateStrategy();
+            }
+        };
+
+        /**
+         * 只旋转扫描框内的数据，结果写入 direct buffer，zbar 解码时不再复制
+         */
+        Factory CROP_DIRECT = new Factory() {
+            @Override
+            public RotateStrategy create() {
+                return new CropRotateStrategy(true);
+            }
+        };
+
+        /**
+         * 旋转整帧，由 zbar 裁剪
+         */
+        Factory FULL_FRAME = new Factory() {
+            @Override
+            public RotateStrategy create() {
+                return new FullFrameRotateStrategy();
+            }
+        };
+
+        RotateStrategy create();
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.zbar.lib;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <pre>
+ * Title: RotatedFrame
+ * Description: 旋转后交给解码器的图像（只包含 Y 分量），由 {@link RotateStrategy} 写入，
+ * 在整个扫码会话中复用，避免每一帧都分配新的对象。图像可以保存在 java 数组中，也可以保存在
+ * direct buffer 中（参考 {@link CropRotateStrategy#CropRotateStrategy(boolean)}），后者可以不经复制直接交给 zbar。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public final class RotatedFrame {
+    private byte[] data;
+    private ByteBuffer directData;
+    /**
+     * direct buffer 不能当作数组使用时，{@link #getData()} 复制出来的数据
+     */
+    private byte[] heapCopy;
+    private int width;
+    private int height;
+    private int cropLeft;
+    private int cropTop;
+    private int cropWidth;
+    private int cropHeight;
+    /**
+     * 解码窗口相对扫描框的偏移，只解码扫描框的一部分时（参考 {@link RoiTracker}）不为 0
+     */
+    private int windowOffsetX;
+    private int windowOffsetY;
+
+    void set(byte[] data, int width, int height,
+             int cropLeft, int cropTop, int cropWidth, int cropHeight) {
+        this.data = data;
+        this.directData = null;
+        setSize(width, height, cropLeft, cropTop, cropWidth, cropHeight);
+    }
+
+    void setDirect(ByteBuffer directData, int width, int height,
+                   int cropLeft, int cropTop, int cropWidth, int cropHeight) {
+        this.data = null;
+        this.directData = directData;
+        setSize(width, height, cropLeft, cropTop, cropWidth, cropHeight);
+    }
+
+    private void setSize(int width, int height,
+                         int cropLeft, int cropTop, int cropWidth, int cropHeight) {
+        this.width = width;
+        this.height = height;
+        this.cropLeft = cropLeft;
+        this.cropTop = cropTop;
+        this.cropWidth = cropWidth;
+        this.cropHeight = cropHeight;
+        this.windowOffsetX = 0;
+        this.windowOffsetY = 0;
+    }
+
+    void setWindowOffset(int windowOffsetX, int windowOffsetY) {
+        this.windowOffsetX = windowOffsetX;
+        this.windowOffsetY = windowOffsetY;
+    }
+
+    /**
+     * 图像数据，长度可能大于 width * height（缓冲区会被复用）。图像保存在 direct buffer 中时，
+     * Android 上直接返回 buffer 背后的数组，其他情况下复制一份
+     */
+    public byte[] getData() {
+        if (data == null && directData != null) {
+            if (directData.hasArray() && directData.arrayOffset() == 0) {
+                data = directData.array();
+            } else {
+                int size = width * height;
+                if (heapCopy == null || heapCopy.length < size) {
+                    heapCopy = new byte[size];
+                }
+                ByteBuffer source = directData.duplicate();
+                source.clear();
+                source.get(heapCopy, 0, size);
+                data = heapCopy;
+            }
+        }
+        return data;
+    }
+
+    /**
+     * 保存图像的 direct buffer（从位置 0 开始），图像保存在 java 数组中时返回 null
+     */
+    public ByteBuffer getDirectData() {
+        return directData;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getCropLeft() {
+        return cropLeft;
+    }
+
+    public int getCropTop() {
+        return cropTop;
+    }
+
+    public int getCropWidth() {
+        return cropWidth;
+    }
+
+    public int getCropHeight() {
+        return cropHeight;
+    }
+
+    /**
+     * 解码窗口左上角相对扫描框左上角的 x 偏移，把识别到的坐标换算到扫描框中时使用
+     */
+    public int getWindowOffsetX() {
+        return windowOffsetX;
+    }
+
+    public int getWindowOffsetY() {
+        return windowOffsetY;
+    }
+
+    /**
+     * 解码时是否还需要再裁剪（即 data 中不只包含扫描框内的数据）
+     */
+    public boolean isCropRequired() {
+        return cropLeft != 0 || cropTop != 0 || cropWidth != width || cropHeight != height;
+    }
+
+}
@@ -0,0 +1,154 @@
+package com.zbar.lib;
+
+/**
+ * <pre>
+ * Title: SharpnessGate
+ * Description: 解码前的清晰度检查，跳过移动中拍到的模糊帧，省去注定失败的解码。
+ * 在解码窗口内按固定步长取约 4096 个点，计算拉普拉斯算子的方差作为清晰度（模糊的帧边缘平缓，方差小），
+ * 直接读取原始的 NV21 数据，不需要先旋转。阈值随场景自适应：清晰度低于最近清晰度的指数平均值乘以 ratio 时跳过，
+ * 内容本身缺少纹理时平均值随之降低，不会一直跳过；连续跳过 maxSkips 帧后强制解码一帧。
+ * 所有解码线程共用一个实例，线程安全。最近的清晰度可以用于判断是否需要重新对焦。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public final class SharpnessGate {
+    /**
+     * 每帧最多采样的点数
+     */
+    private static final int TARGET_SAMPLES = 4096;
+    /**
+     * 开始时先解码的帧数，用于建立平均值
+     */
+    private static final int WARMUP_FRAMES = 4;
+    /**
+     * 指数平均的权重
+     */
+    private static final float ALPHA = 0.1f;
+
+    private final float ratio;
+    private final int maxSkips;
+    /**
+     * 以下状态由 this 保护
+     */
+    private float averageScore;
+    private float lastScore;
+    private int frames;
+    private int consecutiveSkips;
+
+    /**
+     * @param ratio    清晰度低于平均值的多少倍时跳过，例如 0.5
+     * @param maxSkips 最多连续跳过的帧数
+     */
+    public SharpnessGate(float ratio, int maxSkips) {
+        if (!(ratio > 0 && ratio < 1)) {
+            throw new IllegalArgumentException("ratio must be in (0, 1): " + ratio);
+        }
+        this.ratio = ratio;
+        this.maxSkips = Math.max(1, maxSkips);
+    }
+
+    /**
+     * 检查预览帧中即将解码的窗口
+     *
+     * @param data   NV21 预览帧（横屏）
+     * @param width  预览帧宽度
+     * @param height 预览帧高度
+     * @param left   窗口在旋转（顺时针 90 度）后的图像中的位置
+     * @param top    窗口在旋转后的图像中的位置
+     * @param windowWidth  窗口在旋转后的宽度
+     * @param windowHeight 窗口在旋转后的高度
+     * @return 是否需要解码
+     */
+    boolean accept(byte[] data, int width, int height, int left, int top,
+                   int windowWidth, int windowHeight) {
+        // 旋转后的 (left + c, top + r) 对应原图的 (top + r, height - 1 - left - c)，方差与方向无关
+        float score = laplacianVariance(data, width, top, height - left - windowWidth,
+                windowHeight, windowWidth);
+        return onScore(score);
+    }
+
+    /**
+     * 根据清晰度决定是否解码，并更新平均值
+     */
+    synchronized boolean onScore(float score) {
+        lastScore = score;
+        if (frames < WARMUP_FRAMES) {
+            averageScore = frames == 0 ? score : averageScore + ALPHA * (score - averageScore);
+            frames++;
+            consecutiveSkips = 0;
+            return true;
+        }
+        boolean decode = score >= averageScore * ratio || consecutiveSkips >= maxSkips;
+        // 跳过的帧也计入平均值，场景变化后阈值随之调整
+        averageScore += ALPHA * (score - averageScore);
+        consecutiveSkips = decode ? 0 : consecutiveSkips + 1;
+        return decode;
+    }
+
+    /**
+     * 区域内拉普拉斯算子（4 邻域）的方差，按步长采样
+     *
+     * @param data  亮度数据，按行存放
+     * @param width 每行的长度
+     * @return 方差，区域太小时为 0
+     */
+    static float laplacianVariance(byte[] data, int width, int left, int top,
+                                   int regionWidth, int regionHeight) {
+        if (regionWidth < 3 || regionHeight < 3) {
+            return 0;
+        }
+        int step = Math.max(1,
+                (int) Math.sqrt((double) regionWidth * regionHeight / TARGET_SAMPLES));
+        long sum = 0;
+        long sumSquares = 0;
+        int count = 0;
+        for (int y = top + 1; y < top + regionHeight - 1; y += step) {
+            int row = y * width;
+            for (int x = left + 1; x < left + regionWidth - 1; x += step) {
+                int offset = row + x;
+                int laplacian = 4 * (data[offset] & 0xff)
+                        - (data[offset - 1] & 0xff) - (data[offset + 1] & 0xff)
+                        - (data[offset - width] & 0xff) - (data[offset + width] & 0xff);
+                sum += laplacian;
+                sumSquares += laplacian * laplacian;
+                count++;
+            }
+        }
+        float mean = (float) sum / count;
+        return (float) sumSquares / count - mean * mean;
+    }
+
+    /**
+     * 最近一帧的清晰度
+     */
+    public synchronized float getLastScore() {
+        return lastScore;
+    }
+
+    /**
+     * 最近清晰度的指数平均值
+     */
+    public synchronized float getAverageScore() {
+        return averageScore;
+    }
+
+    /**
+     * 连续跳过的帧数，一直增加说明画面持续模糊（可能需要重新对焦）
+     */
+    public synchronized int getConsecutiveSkips() {
+        return consecutiveSkips;
+    }
+
+    /**
+     * 重新建立平均值（例如切换相机后）
+     */
+    public synchronized void reset() {
+        frames = 0;
+        averageScore = 0;
+        lastScore = 0;
+        consecutiveSkips = 0;
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.zbar.lib;
+
+import android.util.Log;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <pre>
+ * Title: ZbarDecoderEngine
+ * Description: 使用 zbar（{@link ZbarManager}）解码，一次 JNI 调用取回帧中所有的条码。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public final class ZbarDecoderEngine implements DecoderEngine {
+    private static final String TAG = ZbarDecoderEngine.class.getSimpleName();
+    private static final int INITIAL_BUFFER_SIZE = 4 * 1024;
+
+    private ZbarManager manager;
+    private ByteBuffer symbolBuffer;
+    /**
+     * 旧版本的 libzbar.so 中没有 decodeSymbols，只能使用 decode
+     */
+    private boolean symbolsUnsupported;
+    /**
+     * libzbar.so 中没有 decodeSymbolsDirect 时，direct buffer 中的图像按数组解码
+     */
+    private boolean directUnsupported;
+
+    @Override
+    public boolean decode(RotatedFrame frame, DecodeResult result) {
+        if (manager == null) {
+            manager = new ZbarManager();
+            symbolBuffer = ByteBuffer.allocateDirect(INITIAL_BUFFER_SIZE);
+        }
+        result.clear();
+        if (symbolsUnsupported) {
+            return decodeText(frame, result);
+        }
+        int count;
+        try {
+            count = decodeSymbols(frame);
+            if (count < 0) {
+                // 结果放不下，扩大 buffer 后重新解码（很少发生）
+                symbolBuffer = ByteBuffer.allocateDirect(-count);
+                count = decodeSymbols(frame);
+            }
+        } catch (UnsatisfiedLinkError e) {
+            Log.w(TAG, "libzbar.so does not support decodeSymbols, falling back to decode");
+            symbolsUnsupported = true;
+            return decodeText(frame, result);
+        }
+        if (count <= 0) {
+            return false;
+        }
+        result.readZbarSymbols(symbolBuffer, count);
+        return true;
+    }
+
+    private int decodeSymbols(RotatedFrame frame) {
+        ByteBuffer directData = frame.getDirectData();
+        if (directData != null && !directUnsupported) {
+            try {
+                return manager.decodeSymbolsDirect(directData, frame.getWidth(), frame.getHeight(),
+                        frame.isCropRequired(), frame.getCropLeft(), frame.getCropTop(),
+                        frame.getCropWidth(), frame.getCropHeight(), symbolBuffer);
+            } catch (UnsatisfiedLinkError e) {
+                Log.w(TAG, "libzbar.so does not support decodeSymbolsDirect, "
+                        + "falling back to arrays");
+                directUnsupported = true;
+            }
+        }
+        return manager.decodeSymbols(frame.getData(), frame.getWidth(), frame.getHeight(),
+                frame.isCropRequired(), frame.getCropLeft(), frame.getCropTop(),
+                frame.getCropWidth(), frame.getCropHeight(), symbolBuffer);
+    }
+
+    private boolean decodeText(RotatedFrame frame, DecodeResult result) {
+        String text = manager.decode(frame.getData(), frame.getWidth(), frame.getHeight(),
+                frame.isCropRequired(), frame.getCropLeft(), frame.getCropTop(),
+                frame.getCropWidth(), frame.getCropHeight());
+        if (text == null) {
+            return false;
+        }
+        result.addSymbol().set(DecodeResult.Symbol.ZBAR_NONE, null, 0, text);
+        return true;
+    }
+
+}
@@ -1,5 +1,7 @@
 package com.zbar.lib;
 
+import java.nio.ByteBuffer;
+
 public class ZbarManager {
 
     static {
@@ -23,4 +25,60 @@ public class ZbarManager {
      * @return
      */
     public native String decode(byte[] data, int width, int height, boolean isCrop, int x, int y, int cwidth, int cheight);
+
+    /**
+     * 一次 JNI 调用返回帧中识别到的所有条码，结果按本地字节序写入 out（direct buffer，可复用），
+     * 每个条码依次为：类型（zbar_symbol_type_t）、质量、顶点个数、顶点坐标（x, y）、数据长度，
+     * 之后是数据本身并按 4 字节对齐，参考 {@link DecodeResult}。
+     *
+     * @param data    灰度图像
+     * @param width   图像宽度
+     * @param height  图像高度
+     * @param isCrop  是否裁剪
+     * @param x       裁剪区域左边界
+     * @param y       裁剪区域上边界
+     * @param cwidth  裁剪区域宽度
+     * @param cheight 裁剪区域高度
+     * @param out     用于接收结果的 direct buffer
+     * @return 识别到的条码个数；out 空间不足时返回所需字节数的相反数
+     */
+    public native int decodeSymbols(byte[] data, int width, int height, boolean isCrop, int x, int y,
+                                    int cwidth, int cheight, ByteBuffer out);
+
+    /**
+     * 与 {@link #decode(byte[], int, int, boolean, int, int, int, int)} 相同，但图像保存在 direct buffer 中
+     * （从位置 0 开始），本地代码直接读取 buffer 的内存，不需要锁定或复制 java 数组。
+     * 需要使用 zbarbuildproject 重新编译的 libzbar.so，旧版本中没有这个方法，调用时抛出 UnsatisfiedLinkError
+     * （方法名与 decode 不同，不会被绑定到旧版本的 byte[] 实现上）
+     *
+     * @param data    保存灰度图像的 direct buffer
+     * @param width   图像宽度
+     * @param height  图像高度
+     * @param isCrop  是否裁剪
+     * @param x       裁剪区域左边界
+     * @param y       裁剪区域上边界
+     * @param cwidth  裁剪区域宽度
+     * @param cheight 裁剪区域高度
+     * @return 第一个条码的内容，没有识别到时返回 null
+     */
+    public native String decodeDirect(ByteBuffer data, int width, int height, boolean isCrop,
+                                      int x, int y, int cwidth, int cheight);
+
+    /**
+     * 与 {@link #decodeSymbols(byte[], int, int, boolean, int, int, int, int, ByteBuffer)} 相同，
+     * 但图像保存在 direct buffer 中（从位置 0 开始），同样需要重新编译的 libzbar.so
+     *
+     * @param data    保存灰度图像的 direct buffer
+     * @param width   图像宽度
+     * @param height  图像高度
+     * @param isCrop  是否裁剪
+     * @param x       裁剪区域左边界
+     * @param y       裁剪区域上边界
+     * @param cwidth  裁剪区域宽度
+     * @param cheight 裁剪区域高度
+     * @param out     用于接收结果的 direct buffer
+     * @return 识别到的条码个数；out 空间不足时返回所需字节数的相反数
+     */
+    public native int decodeSymbolsDirect(ByteBuffer data, int width, int height, boolean isCrop,
+                                          int x, int y, int cwidth, int cheight, ByteBuffer out);
 }
@@ -0,0 +1,98 @@
+package com.zbar.lib;
+
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.PlanarYUVLuminanceSource;
+import com.google.zxing.ReaderException;
+import com.google.zxing.Result;
+import com.google.zxing.ResultPoint;
+import com.google.zxing.ResultPointCallback;
+import com.google.zxing.common.HybridBinarizer;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * <pre>
+ * Title: ZxingDecoderEngine
+ * Description: 使用 zxing（{@link MultiFormatReader}）解码，同一个 reader 在每一帧之间复用。
+ * 解码过程中找到的可能的定位点会记入 {@link DecodeResult#getPossiblePointCount()}，
+ * 同时转发给 hints 中的 {@link DecodeHintType#NEED_RESULT_POINT_CALLBACK}（换算到扫描框坐标）。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public final class ZxingDecoderEngine implements DecoderEngine {
+    private final MultiFormatReader multiFormatReader;
+    private final ResultPointCallback resultPointCallback;
+    /**
+     * 正在解码的帧和结果，只在 {@link #decode(RotatedFrame, DecodeResult)} 中有效
+     */
+    private RotatedFrame currentFrame;
+    private DecodeResult currentResult;
+
+    public ZxingDecoderEngine(Map<DecodeHintType, Object> hints) {
+        Map<DecodeHintType, Object> engineHints = new EnumMap<>(DecodeHintType.class);
+        if (hints != null) {
+            engineHints.putAll(hints);
+        }
+        resultPointCallback = (ResultPointCallback) engineHints.get(DecodeHintType.NEED_RESULT_POINT_CALLBACK);
+        engineHints.put(DecodeHintType.NEED_RESULT_POINT_CALLBACK, new ResultPointCallback() {
+            @Override
+            public void foundPossibleResultPoint(ResultPoint point) {
+                onPossibleResultPoint(point);
+            }
+        });
+        multiFormatReader = new MultiFormatReader();
+        multiFormatReader.setHints(engineHints);
+    }
+
+    private void onPossibleResultPoint(ResultPoint point) {
+        DecodeResult result = currentResult;
+        if (result == null || point == null) {
+            return;
+        }
+        result.addPossiblePoint((int) point.getX(), (int) point.getY());
+        if (resultPointCallback != null) {
+            RotatedFrame frame = currentFrame;
+            resultPointCallback.foundPossibleResultPoint(new ResultPoint(
+                    point.getX() + frame.getWindowOffsetX(), point.getY() + frame.getWindowOffsetY()));
+        }
+    }
+
+    @Override
+    public boolean decode(RotatedFrame frame, DecodeResult result) {
+        result.clear();
+        currentFrame = frame;
+        currentResult = result;
+        PlanarYUVLuminanceSource source = new PlanarYUVLuminanceSource(frame.getData(),
+                frame.getWidth(), frame.getHeight(), frame.getCropLeft(), frame.getCropTop(),
+                frame.getCropWidth(), frame.getCropHeight(), false);
+        BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
+        try {
+            Result rawResult = multiFormatReader.decodeWithState(bitmap);
+            DecodeResult.Symbol symbol = result.addSymbol();
+            symbol.set(DecodeResult.Symbol.ZBAR_NONE, rawResult.getBarcodeFormat(), 1,
+                    rawResult.getText());
+            ResultPoint[] points = rawResult.getResultPoints();
+            if (points != null) {
+                for (ResultPoint point : points) {
+                    if (point != null) {
+                        symbol.addPoint((int) point.getX(), (int) point.getY());
+                    }
+                }
+            }
+            return true;
+        } catch (ReaderException re) {
+            // continue
+            return false;
+        } finally {
+            currentFrame = null;
+            currentResult = null;
+            multiFormatReader.reset();
+        }
+    }
+
+}
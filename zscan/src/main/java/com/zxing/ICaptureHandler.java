@@ -3,6 +3,7 @@ package com.zxing;
 import android.content.Intent;
 import android.graphics.Bitmap;
 
+import com.zbar.lib.DecodeResult;
 import com.zxing.view.ViewfinderView;
 
 /**
@@ -49,6 +50,19 @@ public interface ICaptureHandler {
      */
     void launchQueryByUrl(String url);
 
+    /**
+     * 需要完整解码结果（码制、质量、位置、同一帧中的多个条码）时，扫码界面实现此接口，
+     * 实现后扫码成功时只回调 {@link #handleDecodeResult(DecodeResult)}，不再回调 {@link #handleDecode(String)}
+     */
+    interface DecodeResultHandler {
+        /**
+         * 扫码结果处理，成功扫码才会执行
+         *
+         * @param result 扫码结果
+         */
+        void handleDecodeResult(DecodeResult result);
+    }
+
     /**
      * 解析二维码结果接口
      */
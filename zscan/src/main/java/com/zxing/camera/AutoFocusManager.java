@@ -18,8 +18,11 @@ package com.zxing.camera;
 
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.graphics.Rect;
 import android.hardware.Camera;
-import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.preference.PreferenceManager;
 import android.util.Log;
 
@@ -27,14 +30,27 @@ import com.zxing.Config;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * 由于对焦不是一次性完成的任务（手抖），而系统提供的对焦仅有 Camera.autoFocus() 方法，
- * 因此需要一个线程来不断调用 Camera.autoFocus() 直到用户满意按下快门为止
+ * 因此需要不断调用 Camera.autoFocus()。对焦由主线程的 Handler 调度，不占用线程等待：
+ * 连续多帧解码失败或画面持续模糊（{@link com.zbar.lib.SharpnessGate}）时立即对焦，
+ * 识别成功后推迟对焦（对焦过程中画面会变模糊），没有这些事件时仍然定期对焦（见 {@link FocusScheduler}）。
+ * 解码线程只更新 {@link FocusScheduler} 并向 Handler 发消息，相机的调用都在主线程中进行，不持有任何锁。
+ * 对焦和测光区域设置为扫描框
  */
 final class AutoFocusManager implements Camera.AutoFocusCallback {
     private static final String TAG = AutoFocusManager.class.getSimpleName();
-    private static final long AUTO_FOCUS_INTERVAL_MS = 2000L;
+    /**
+     * 有的设备不回调 onAutoFocus，超过这个时间认为对焦已经结束
+     */
+    private static final long FOCUS_TIMEOUT_MS = 3000L;
+    /**
+     * 对焦和测光区域的权重（1 ~ 1000）
+     */
+    private static final int AREA_WEIGHT = 1000;
     private static final Collection<String> FOCUS_MODES_CALLING_AF;
 
     static {
@@ -43,13 +59,36 @@ final class AutoFocusManager implements Camera.AutoFocusCallback {
         FOCUS_MODES_CALLING_AF.add(Camera.Parameters.FOCUS_MODE_MACRO);
     }
 
-    private boolean active;
     private final boolean useAutoFocus;
     private final Camera camera;
-    private AsyncTask<?, ?, ?> outstandingTask;
+    private final CameraManager cameraManager;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final FocusScheduler scheduler = new FocusScheduler();
+    /**
+     * 设置对焦区域时使用的扫描框，扫描框改变后重新设置。只在主线程中访问
+     */
+    private FramingGeometry areaGeometry;
 
-    AutoFocusManager(Context context, Camera camera) {
+    private final Runnable focusRunnable = new Runnable() {
+        @Override
+        public void run() {
+            focus();
+        }
+    };
+
+    private final Runnable timeoutRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (scheduler.isFocusing()) {
+                Log.w(TAG, "Auto focus timed out");
+                onFocusFinished();
+            }
+        }
+    };
+
+    AutoFocusManager(Context context, Camera camera, CameraManager cameraManager) {
         this.camera = camera;
+        this.cameraManager = cameraManager;
         SharedPreferences sharedPrefs = PreferenceManager
                 .getDefaultSharedPreferences(context);
         String currentFocusMode = camera.getParameters().getFocusMode();
@@ -61,27 +100,22 @@ final class AutoFocusManager implements Camera.AutoFocusCallback {
     }
 
     @Override
-    public synchronized void onAutoFocus(boolean success, Camera theCamera) {
-        if (active) {
-            outstandingTask = new AutoFocusTask();
-            com.zxing.Runnable.execAsync(outstandingTask);
-        }
+    public void onAutoFocus(boolean success, Camera theCamera) {
+        handler.removeCallbacks(timeoutRunnable);
+        onFocusFinished();
     }
 
-    synchronized void start() {
+    void start() {
         if (useAutoFocus) {
-            active = true;
-            try {
-                camera.autoFocus(this);
-            } catch (RuntimeException re) {
-                // Have heard RuntimeException reported in Android 4.0.x+;
-                // continue?
-                Log.w(TAG, "Unexpected exception while focusing", re);
-            }
+            scheduler.start();
+            postFocus(0);
         }
     }
 
-    synchronized void stop() {
+    void stop() {
+        scheduler.stop();
+        handler.removeCallbacks(focusRunnable);
+        handler.removeCallbacks(timeoutRunnable);
         if (useAutoFocus) {
             try {
                 camera.cancelAutoFocus();
@@ -91,28 +125,143 @@ final class AutoFocusManager implements Camera.AutoFocusCallback {
                 Log.w(TAG, "Unexpected exception while cancelling focusing", re);
             }
         }
-        if (outstandingTask != null) {
-            outstandingTask.cancel(true);
-            outstandingTask = null;
+    }
+
+    /**
+     * 识别到条码：对焦正常，推迟下一次对焦。在解码线程中调用
+     */
+    void onFrameDecoded() {
+        long delay = scheduler.onFrameDecoded(SystemClock.uptimeMillis());
+        if (delay >= 0) {
+            postFocus(delay);
         }
-        active = false;
     }
 
-    private final class AutoFocusTask extends AsyncTask<Object, Object, Object> {
-        @Override
-        protected Object doInBackground(Object... voids) {
-            try {
-                Thread.sleep(AUTO_FOCUS_INTERVAL_MS);
-            } catch (InterruptedException e) {
-                // continue
+    /**
+     * 解码了但没有识别到条码，连续多帧失败时对焦。在解码线程中调用
+     */
+    void onFrameFailed() {
+        if (scheduler.onFrameFailed(SystemClock.uptimeMillis())) {
+            postFocus(0);
+        }
+    }
+
+    /**
+     * 画面模糊，没有解码，持续模糊时对焦。在解码线程中调用
+     */
+    void onFrameBlurry() {
+        if (scheduler.onFrameBlurry()) {
+            postFocus(0);
+        }
+    }
+
+    private void onFocusFinished() {
+        long delay = scheduler.onFocusFinished(SystemClock.uptimeMillis());
+        if (delay >= 0) {
+            postFocus(delay);
+        }
+    }
+
+    /**
+     * 在主线程中对焦，取代之前安排的对焦
+     */
+    private void postFocus(long delayMillis) {
+        handler.removeCallbacks(focusRunnable);
+        handler.postDelayed(focusRunnable, delayMillis);
+    }
+
+    /**
+     * 在主线程中调用，距离上一次对焦太近时推迟
+     */
+    private void focus() {
+        long wait = scheduler.tryStartFocus(SystemClock.uptimeMillis());
+        if (wait != 0) {
+            if (wait > 0) {
+                postFocus(wait);
             }
-            synchronized (AutoFocusManager.this) {
-                if (active) {
-                    start();
-                }
+            return;
+        }
+        updateAreas();
+        try {
+            camera.autoFocus(this);
+            handler.postDelayed(timeoutRunnable, FOCUS_TIMEOUT_MS);
+        } catch (RuntimeException re) {
+            // Have heard RuntimeException reported in Android 4.0.x+;
+            // continue?
+            Log.w(TAG, "Unexpected exception while focusing", re);
+            onFocusFinished();
+        }
+    }
+
+    /**
+     * 把对焦和测光区域设置为扫描框，扫描框没有改变时不重复设置
+     */
+    private void updateAreas() {
+        FramingGeometry geometry = cameraManager.getFramingGeometry();
+        if (geometry == null || geometry == areaGeometry) {
+            return;
+        }
+        areaGeometry = geometry;
+        try {
+            Camera.Parameters parameters = camera.getParameters();
+            boolean focusAreas = parameters.getMaxNumFocusAreas() > 0;
+            boolean meteringAreas = parameters.getMaxNumMeteringAreas() > 0;
+            Rect area = toCameraArea(geometry.getCropRect(),
+                    geometry.getPreviewWidth(), geometry.getPreviewHeight());
+            if (area == null || !(focusAreas || meteringAreas)) {
+                return;
             }
+            List<Camera.Area> areas = Collections.singletonList(new Camera.Area(area, AREA_WEIGHT));
+            if (focusAreas) {
+                parameters.setFocusAreas(areas);
+            }
+            if (meteringAreas) {
+                parameters.setMeteringAreas(areas);
+            }
+            camera.setParameters(parameters);
+        } catch (RuntimeException re) {
+            Log.w(TAG, "Unexpected exception while setting focus areas", re);
+        }
+    }
+
+    /**
+     * 旋转后的预览帧中的扫描框转换为相机区域的坐标（横屏的预览帧映射到 -1000 ~ 1000）
+     *
+     * @param cropRect      旋转（顺时针 90 度）后的预览帧中的扫描框
+     * @param previewWidth  预览帧宽度（横屏）
+     * @param previewHeight 预览帧高度（横屏）
+     * @return 扫描框为空时返回 null
+     */
+    static Rect toCameraArea(Rect cropRect, int previewWidth, int previewHeight) {
+        int[] area = new int[4];
+        if (!toCameraArea(cropRect.left, cropRect.top, cropRect.right, cropRect.bottom,
+                previewWidth, previewHeight, area)) {
             return null;
         }
+        return new Rect(area[0], area[1], area[2], area[3]);
+    }
+
+    /**
+     * 同 {@link #toCameraArea(Rect, int, int)}，扫描框与结果都是 left、top、right、bottom
+     *
+     * @param out 相机区域，长度为 4
+     * @return 扫描框为空时返回 false
+     */
+    static boolean toCameraArea(int left, int top, int right, int bottom,
+                                int previewWidth, int previewHeight, int[] out) {
+        if (left >= right || top >= bottom || previewWidth <= 0 || previewHeight <= 0) {
+            return false;
+        }
+        // 旋转后的 (x, y) 对应原图的 (y, previewHeight - x)
+        out[0] = toAreaCoordinate(top, previewWidth);
+        out[1] = toAreaCoordinate(previewHeight - right, previewHeight);
+        out[2] = toAreaCoordinate(bottom, previewWidth);
+        out[3] = toAreaCoordinate(previewHeight - left, previewHeight);
+        return true;
+    }
+
+    private static int toAreaCoordinate(int value, int length) {
+        return Math.max(-1000, Math.min(1000, value * 2000 / length - 1000));
     }
 
 }
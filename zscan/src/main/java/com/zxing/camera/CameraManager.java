@@ -17,6 +17,7 @@
 package com.zxing.camera;
 
 import android.content.Context;
+import android.graphics.ImageFormat;
 import android.graphics.Point;
 import android.graphics.Rect;
 import android.hardware.Camera;
@@ -26,6 +27,7 @@ import android.view.SurfaceHolder;
 
 import com.google.zxing.PlanarYUVLuminanceSource;
 
+import java.io.File;
 import java.io.IOException;
 
 /**
@@ -46,6 +48,18 @@ public final class CameraManager {
 
     private static final int MAX_FRAME_WIDTH = 1200; // = 5/8 * 1920
 
+    /**
+     * 缓冲池模式下预览缓冲区的个数范围
+     */
+    private static final int MIN_PREVIEW_BUFFERS = 2;
+
+    private static final int MAX_PREVIEW_BUFFERS = 4;
+
+    /**
+     * 连续取帧模式下，没有设置缓冲区个数时使用的缓冲区个数
+     */
+    private static final int DEFAULT_STREAMING_BUFFERS = 3;
+
     private static CameraManager cameraManager;
 
     private final Context context;
@@ -54,11 +68,27 @@ public final class CameraManager {
 
     private Camera camera;
 
-    private AutoFocusManager autoFocusManager;
+    /**
+     * 解码线程不加锁读取，用于报告解码结果
+     */
+    private volatile AutoFocusManager autoFocusManager;
 
-    private Rect framingRect;
+    /**
+     * 扫描框的几何信息，需要时重新计算，解码线程不加锁读取
+     */
+    private volatile FramingGeometry framingGeometry;
+
+    /**
+     * 通过 {@link #setManualFramingRect(int, int)} 指定的扫描框尺寸，0 表示未指定
+     */
+    private int manualFramingWidth;
 
-    private Rect framingRectInPreview;
+    private int manualFramingHeight;
+
+    /**
+     * 当前的缩放值，改变时重新计算扫描框
+     */
+    private volatile int zoom;
 
     private boolean initialized;
 
@@ -68,6 +98,17 @@ public final class CameraManager {
 
     private int requestedFramingRectHeight;
 
+    /**
+     * 预览缓冲区个数，0 表示不使用缓冲池（每次通过 setOneShotPreviewCallback 获取一帧）
+     */
+    private int previewBufferCount;
+
+    private final PreviewBufferPool previewBufferPool;
+
+    private FrameMailbox frameMailbox;
+
+    private FrameRecorder frameRecorder;
+
     /**
      * Preview frames are delivered here, which we pass on to the registered
      * handler. Make sure to clear the handler so it will only receive one
@@ -78,7 +119,8 @@ public final class CameraManager {
     private CameraManager(Context context) {
         this.context = context;
         this.configManager = new CameraConfigurationManager(context);
-        previewCallback = new PreviewCallback(configManager);
+        previewBufferPool = new PreviewBufferPool();
+        previewCallback = new PreviewCallback(configManager, previewBufferPool);
     }
 
     /**
@@ -126,6 +168,8 @@ public final class CameraManager {
         if (!initialized) {
             initialized = true;
             configManager.initFromCameraParameters(theCamera);
+            // 分辨率已经确定，之前计算的扫描框作废
+            framingGeometry = null;
             if (requestedFramingRectWidth > 0 && requestedFramingRectHeight > 0) {
                 setManualFramingRect(requestedFramingRectWidth,
                         requestedFramingRectHeight);
@@ -172,14 +216,17 @@ public final class CameraManager {
      * Closes the camera driver if still in use.
      */
     public synchronized void closeDriver() {
+        stopFrameRecording();
         if (camera != null) {
+            previewBufferPool.detach();
             camera.release();
             camera = null;
             // Make sure to clear these each time we close the camera, so that
             // any scanning rect
             // requested by intent is forgotten.
-            framingRect = null;
-            framingRectInPreview = null;
+            framingGeometry = null;
+            manualFramingWidth = 0;
+            manualFramingHeight = 0;
         }
     }
 
@@ -193,10 +240,13 @@ public final class CameraManager {
             // Preview will not actually start until a surface is supplied with
             // setPreviewDisplay(SurfaceHolder) or
             // setPreviewTexture(SurfaceTexture).
+            if (previewBufferCount > 0) {
+                startBufferedPreviewCallback(theCamera, previewBufferCount);
+            }
             theCamera.startPreview();
 
             previewing = true;
-            autoFocusManager = new AutoFocusManager(context, camera);
+            autoFocusManager = new AutoFocusManager(context, camera, this);
         }
     }
 
@@ -208,13 +258,147 @@ public final class CameraManager {
             autoFocusManager.stop();
             autoFocusManager = null;
         }
+        if (frameMailbox != null) {
+            previewCallback.setFrameMailbox(null);
+            frameMailbox.close();
+            frameMailbox = null;
+        }
         if (camera != null && previewing) {
+            if (previewBufferPool.isAttached()) {
+                camera.setPreviewCallbackWithBuffer(null);
+                previewBufferPool.detach();
+            }
             camera.stopPreview();
             previewCallback.setHandler(null, 0);
             previewing = false;
         }
     }
 
+    /**
+     * 按照相机分辨率分配预览缓冲区，之后相机会持续把预览帧写入这些缓冲区
+     */
+    private void startBufferedPreviewCallback(Camera theCamera, int bufferCount) {
+        Point cameraResolution = configManager.getCameraResolution();
+        Camera.Parameters parameters = theCamera.getParameters();
+        if (cameraResolution == null || parameters == null) {
+            return;
+        }
+        int bitsPerPixel = ImageFormat.getBitsPerPixel(parameters.getPreviewFormat());
+        if (bitsPerPixel <= 0) {
+            bitsPerPixel = ImageFormat.getBitsPerPixel(ImageFormat.NV21);
+        }
+        int bufferSize = cameraResolution.x * cameraResolution.y * bitsPerPixel / 8;
+        previewBufferPool.attach(theCamera, bufferSize, bufferCount);
+        theCamera.setPreviewCallbackWithBuffer(previewCallback);
+    }
+
+    /**
+     * 开始连续取帧：相机通过缓冲池持续输出预览帧，每一帧都放入返回的信箱，
+     * 解码线程直接从信箱中取最新的一帧，不再需要 {@link #requestPreviewFrame(Handler, int)}。
+     * 停止预览时信箱会被关闭。
+     *
+     * @return 预览帧信箱，相机未打开或未开始预览时返回 null
+     */
+    public synchronized FrameMailbox startFrameStreaming() {
+        Camera theCamera = camera;
+        if (theCamera == null || !previewing) {
+            return null;
+        }
+        if (frameMailbox == null) {
+            frameMailbox = new FrameMailbox(previewBufferPool);
+            previewCallback.setFrameMailbox(frameMailbox);
+        }
+        if (!previewBufferPool.isAttached()) {
+            startBufferedPreviewCallback(theCamera, previewBufferCount > 0
+                    ? previewBufferCount : DEFAULT_STREAMING_BUFFERS);
+        }
+        return frameMailbox;
+    }
+
+    /**
+     * 开始把预览帧录制到文件中，用于离线回放（参考 {@link FrameRecordReader}）。
+     * 录制相机回调的每一帧，同时记录当时的扫描框；录制不会阻塞相机，写文件跟不上时会丢帧。
+     *
+     * @param file      录制文件，已存在时会被覆盖
+     * @param maxFrames 最多录制的帧数
+     * @return 录制器，可以查询丢帧数
+     */
+    public synchronized FrameRecorder startFrameRecording(File file, int maxFrames) {
+        stopFrameRecording();
+        frameRecorder = new FrameRecorder(this, file, maxFrames);
+        previewCallback.setFrameRecorder(frameRecorder);
+        return frameRecorder;
+    }
+
+    /**
+     * 停止录制，关闭相机时会自动停止
+     */
+    public synchronized void stopFrameRecording() {
+        if (frameRecorder != null) {
+            previewCallback.setFrameRecorder(null);
+            frameRecorder.stop();
+            frameRecorder = null;
+        }
+    }
+
+    /**
+     * 设置预览缓冲区的个数，在 {@link #startPreview()} 之前调用才会生效。
+     * 使用缓冲池后相机不再为每一帧分配新的数组，也不需要每帧重新注册回调，
+     * 解码完成后需要调用 {@link #releasePreviewBuffer(byte[])} 归还缓冲区。
+     *
+     * @param count 缓冲区个数（2 ~ 4），0 表示关闭缓冲池
+     */
+    public synchronized void setPreviewBufferCount(int count) {
+        if (count <= 0) {
+            previewBufferCount = 0;
+        } else {
+            previewBufferCount = Math.max(MIN_PREVIEW_BUFFERS, Math.min(MAX_PREVIEW_BUFFERS, count));
+        }
+    }
+
+    public synchronized int getPreviewBufferCount() {
+        return previewBufferCount;
+    }
+
+    /**
+     * 预览帧使用完毕后还给相机，未使用缓冲池时什么都不做
+     *
+     * @param data 通过 {@link #requestPreviewFrame(Handler, int)} 拿到的预览帧
+     */
+    public void releasePreviewBuffer(byte[] data) {
+        previewBufferPool.recycle(data);
+    }
+
+    /**
+     * 解码线程报告识别到条码，之后一段时间内推迟对焦（对焦过程中画面会变模糊）
+     */
+    public void onFrameDecoded() {
+        AutoFocusManager manager = autoFocusManager;
+        if (manager != null) {
+            manager.onFrameDecoded();
+        }
+    }
+
+    /**
+     * 解码线程报告没有识别到条码，连续多帧失败时重新对焦
+     */
+    public void onFrameFailed() {
+        AutoFocusManager manager = autoFocusManager;
+        if (manager != null) {
+            manager.onFrameFailed();
+        }
+    }
+
+    /**
+     * 解码线程报告画面模糊、没有解码（{@link com.zbar.lib.SharpnessGate}），持续模糊时立即对焦
+     */
+    public void onFrameBlurry() {
+        AutoFocusManager manager = autoFocusManager;
+        if (manager != null) {
+            manager.onFrameBlurry();
+        }
+    }
+
     /**
      * Convenience method for
      * {@link }
@@ -251,8 +435,11 @@ public final class CameraManager {
         if (theCamera != null && previewing) {
             previewCallback.setHandler(handler, message);
 
-            // 绑定相机回调函数，当预览界面准备就绪后会回调Camera.PreviewCallback.onPreviewFrame
-            theCamera.setOneShotPreviewCallback(previewCallback);
+            // 缓冲池模式下相机一直在回调，不需要重新注册
+            if (!previewBufferPool.isAttached()) {
+                // 绑定相机回调函数，当预览界面准备就绪后会回调Camera.PreviewCallback.onPreviewFrame
+                theCamera.setOneShotPreviewCallback(previewCallback);
+            }
         }
     }
 
@@ -266,38 +453,80 @@ public final class CameraManager {
      * forces the user to hold the device far enough away to ensure the image
      * will be in focus.
      *
-     * @return The rectangle to draw on screen in window coordinates.
+     * @return The rectangle to draw on screen in window coordinates.（不要修改返回的对象）
      */
-    public synchronized Rect getFramingRect() {
-        // if (framingRect == null) {
+    public Rect getFramingRect() {
+        FramingGeometry geometry = getFramingGeometry();
+        return geometry == null ? null : geometry.getScreenRect();
+    }
+
+    /**
+     * 扫描框的几何信息。{@link #FRAME_WIDTH}、{@link #FRAME_HEIGHT}、{@link #FRAME_MARGINTOP}、
+     * 分辨率或缩放没有改变时直接返回之前计算的结果，不加锁、不分配对象，可以在解码线程中每一帧调用
+     *
+     * @return 相机没有打开时返回 null
+     */
+    public FramingGeometry getFramingGeometry() {
+        FramingGeometry geometry = framingGeometry;
+        if (geometry != null && geometry.matches(FRAME_WIDTH, FRAME_HEIGHT, FRAME_MARGINTOP, zoom)) {
+            return geometry;
+        }
+        return updateFramingGeometry();
+    }
+
+    private synchronized FramingGeometry updateFramingGeometry() {
         if (camera == null) {
             return null;
         }
         Point screenResolution = configManager.getScreenResolution();
-        if (screenResolution == null) {
+        Point cameraResolution = configManager.getCameraResolution();
+        if (screenResolution == null || cameraResolution == null) {
             // Called early, before init even finished
             return null;
         }
+        int frameWidth = FRAME_WIDTH;
+        int frameHeight = FRAME_HEIGHT;
+        int frameMarginTop = FRAME_MARGINTOP;
+        int currentZoom = zoom;
+        FramingGeometry geometry = framingGeometry;
+        if (geometry != null && geometry.matches(frameWidth, frameHeight, frameMarginTop, currentZoom)) {
+            // 其他线程已经计算过了
+            return geometry;
+        }
 
-        // int width = findDesiredDimensionInRange(screenResolution.x,
-        //         MIN_FRAME_WIDTH, MAX_FRAME_WIDTH);
-        // // 将扫描框设置成一个正方形
-        // int height = width;
-
-        int leftOffset = (screenResolution.x - FRAME_WIDTH) / 2;
-        int topOffset = 0;
-        if (FRAME_MARGINTOP != -1) {
-            topOffset = FRAME_MARGINTOP;
+        Rect screenRect;
+        if (manualFramingWidth > 0 && manualFramingHeight > 0) {
+            int leftOffset = (screenResolution.x - manualFramingWidth) / 2;
+            int topOffset = (screenResolution.y - manualFramingHeight) / 2;
+            screenRect = new Rect(leftOffset, topOffset, leftOffset + manualFramingWidth,
+                    topOffset + manualFramingHeight);
         } else {
-            topOffset = (screenResolution.y - FRAME_HEIGHT) / 2;
+            int width = frameWidth;
+            int height = frameHeight;
+            if (width <= 0) {
+                // 没有设置扫描框尺寸（没有使用 ViewfinderView）
+                width = findDesiredDimensionInRange(screenResolution.x,
+                        MIN_FRAME_WIDTH, MAX_FRAME_WIDTH);
+            }
+            if (height <= 0) {
+                // 将扫描框设置成一个正方形
+                height = width;
+            }
+            int leftOffset = (screenResolution.x - width) / 2;
+            int topOffset;
+            if (frameMarginTop != -1) {
+                topOffset = frameMarginTop;
+            } else {
+                topOffset = (screenResolution.y - height) / 2;
+            }
+            screenRect = new Rect(leftOffset, topOffset, leftOffset + width, topOffset + height);
         }
-        framingRect = new Rect(leftOffset, topOffset, leftOffset + FRAME_WIDTH,
-                topOffset + FRAME_HEIGHT);
-
-        Log.d(TAG, "Calculated framing rect: " + framingRect);
-        // }
+        geometry = FramingGeometry.create(screenResolution, cameraResolution, screenRect,
+                frameWidth, frameHeight, frameMarginTop, currentZoom);
+        framingGeometry = geometry;
 
-        return framingRect;
+        Log.d(TAG, "Calculated framing geometry: " + geometry);
+        return geometry;
     }
 
     /**
@@ -323,34 +552,11 @@ public final class CameraManager {
 
     /**
      * Like {@link #getFramingRect} but coordinates are in terms of the preview
-     * frame, not UI / screen.
+     * frame, not UI / screen.（不要修改返回的对象）
      */
-    public synchronized Rect getFramingRectInPreview() {
-        if (framingRectInPreview == null) {
-            Rect framingRect = getFramingRect();
-            if (framingRect == null) {
-                return null;
-            }
-            Rect rect = new Rect(framingRect);
-            Point cameraResolution = configManager.getCameraResolution();
-            Point screenResolution = configManager.getScreenResolution();
-            if (cameraResolution == null || screenResolution == null) {
-                // Called early, before init even finished
-                return null;
-            }
-            rect.left = rect.left * cameraResolution.y / screenResolution.x;
-            rect.right = rect.right * cameraResolution.y / screenResolution.x;
-            rect.top = rect.top * cameraResolution.x / screenResolution.y;
-            rect.bottom = rect.bottom * cameraResolution.x / screenResolution.y;
-            framingRectInPreview = rect;
-
-            Log.d(TAG, "Calculated framingRectInPreview rect: "
-                    + framingRectInPreview);
-            Log.d(TAG, "cameraResolution: " + cameraResolution);
-            Log.d(TAG, "screenResolution: " + screenResolution);
-        }
-
-        return framingRectInPreview;
+    public Rect getFramingRectInPreview() {
+        FramingGeometry geometry = getFramingGeometry();
+        return geometry == null ? null : geometry.getPreviewRect();
     }
 
     /**
@@ -369,12 +575,10 @@ public final class CameraManager {
             if (height > screenResolution.y) {
                 height = screenResolution.y;
             }
-            int leftOffset = (screenResolution.x - width) / 2;
-            int topOffset = (screenResolution.y - height) / 2;
-            framingRect = new Rect(leftOffset, topOffset, leftOffset + width,
-                    topOffset + height);
-            Log.d(TAG, "Calculated manual framing rect: " + framingRect);
-            framingRectInPreview = null;
+            manualFramingWidth = width;
+            manualFramingHeight = height;
+            framingGeometry = null;
+            Log.d(TAG, "Manual framing rect size: " + width + "x" + height);
         } else {
             requestedFramingRectWidth = width;
             requestedFramingRectHeight = height;
@@ -414,6 +618,7 @@ public final class CameraManager {
 
             parameters.setZoom(parameters.getZoom() - 1);
             camera.setParameters(parameters);
+            zoom = parameters.getZoom();
 
         }
     }
@@ -431,6 +636,7 @@ public final class CameraManager {
 
             parameters.setZoom(parameters.getZoom() + 1);
             camera.setParameters(parameters);
+            zoom = parameters.getZoom();
 
         }
     }
@@ -448,6 +654,7 @@ public final class CameraManager {
 
             parameters.setZoom(scale);
             camera.setParameters(parameters);
+            zoom = scale;
 
         }
     }
@@ -0,0 +1,176 @@
+package com.zxing.camera;
+
+/**
+ * <pre>
+ * Title: FocusScheduler
+ * Description: {@link AutoFocusManager} 的对焦时机，不依赖相机，时间由调用者传入。
+ * 解码线程报告每一帧的结果，连续多帧识别失败或画面持续模糊时立即对焦：失败的帧只从上一次对焦结束后开始计数，
+ * 一次连续失败最多触发一次对焦，直到识别成功或画面再次变模糊（对焦后仍然识别不了时，再次对焦通常也没有用）。
+ * 没有这些事件时按间隔定期对焦，每次定期对焦后间隔加倍，画面变模糊后恢复。
+ * 只做计算，方法都很快，可以在解码线程中调用；对焦等相机操作由调用者在锁外进行。线程安全。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+final class FocusScheduler {
+    /**
+     * 没有其他事件时定期对焦的初始间隔
+     */
+    static final long AUTO_FOCUS_INTERVAL_MS = 2000L;
+    /**
+     * 定期对焦的间隔逐渐加倍，最长为这个值
+     */
+    static final long MAX_AUTO_FOCUS_INTERVAL_MS = 8000L;
+    /**
+     * 上一次对焦结束后，至少间隔这段时间才再次对焦
+     */
+    static final long MIN_FOCUS_INTERVAL_MS = 500L;
+    /**
+     * 识别成功后，这段时间内解码失败不触发对焦
+     */
+    static final long SUCCESS_BACKOFF_MS = 1500L;
+    /**
+     * 连续多少帧解码失败后对焦
+     */
+    static final int FAILURE_STREAK = 8;
+    /**
+     * 连续多少帧因为模糊被跳过后对焦
+     */
+    static final int BLURRY_STREAK = 2;
+
+    private boolean active;
+    private boolean focusing;
+    /**
+     * 下一次对焦是由事件触发的（不是定期对焦），不加倍间隔
+     */
+    private boolean triggered;
+    /**
+     * 这一次连续失败已经触发过对焦
+     */
+    private boolean failureStreakSpent;
+    private long lastFocusEndMillis = Long.MIN_VALUE / 2;
+    private long backoffUntilMillis = Long.MIN_VALUE / 2;
+    private long intervalMillis = AUTO_FOCUS_INTERVAL_MS;
+    private int failureStreak;
+    private int blurryStreak;
+
+    /**
+     * 开始对焦，之后应该立即尝试对焦
+     */
+    synchronized void start() {
+        active = true;
+        focusing = false;
+        triggered = true;
+        failureStreakSpent = false;
+        intervalMillis = AUTO_FOCUS_INTERVAL_MS;
+        failureStreak = 0;
+        blurryStreak = 0;
+    }
+
+    synchronized void stop() {
+        active = false;
+        focusing = false;
+    }
+
+    /**
+     * 尝试开始一次对焦
+     *
+     * @return 0 表示可以对焦（已经记为正在对焦），大于 0 表示需要再等待的时间，-1 表示不需要对焦
+     */
+    synchronized long tryStartFocus(long now) {
+        if (!active || focusing) {
+            return -1;
+        }
+        long wait = lastFocusEndMillis + MIN_FOCUS_INTERVAL_MS - now;
+        if (wait > 0) {
+            return wait;
+        }
+        focusing = true;
+        if (!triggered) {
+            intervalMillis = Math.min(MAX_AUTO_FOCUS_INTERVAL_MS, intervalMillis * 2);
+        }
+        triggered = false;
+        return 0;
+    }
+
+    /**
+     * 对焦结束（完成、超时或失败），之前的失败与模糊的帧不再计数
+     *
+     * @return 下一次定期对焦的延迟，-1 表示已经停止
+     */
+    synchronized long onFocusFinished(long now) {
+        if (!focusing) {
+            return -1;
+        }
+        focusing = false;
+        lastFocusEndMillis = now;
+        failureStreak = 0;
+        blurryStreak = 0;
+        return active ? intervalMillis : -1;
+    }
+
+    /**
+     * 识别到条码：对焦正常，推迟下一次对焦
+     *
+     * @return 下一次定期对焦的延迟，-1 表示不需要重新安排（正在对焦或已经停止）
+     */
+    synchronized long onFrameDecoded(long now) {
+        failureStreak = 0;
+        blurryStreak = 0;
+        failureStreakSpent = false;
+        backoffUntilMillis = now + SUCCESS_BACKOFF_MS;
+        intervalMillis = Math.min(MAX_AUTO_FOCUS_INTERVAL_MS, intervalMillis * 2);
+        return active && !focusing ? intervalMillis : -1;
+    }
+
+    /**
+     * 解码了但没有识别到条码
+     *
+     * @return 是否应该立即对焦
+     */
+    synchronized boolean onFrameFailed(long now) {
+        if (!active || focusing) {
+            return false;
+        }
+        blurryStreak = 0;
+        if (++failureStreak < FAILURE_STREAK || failureStreakSpent
+                || now < backoffUntilMillis) {
+            return false;
+        }
+        failureStreak = 0;
+        failureStreakSpent = true;
+        triggered = true;
+        return true;
+    }
+
+    /**
+     * 画面模糊，没有解码。设备移动后通常会连续出现，不受识别成功后的推迟限制
+     *
+     * @return 是否应该立即对焦
+     */
+    synchronized boolean onFrameBlurry() {
+        if (!active || focusing) {
+            return false;
+        }
+        if (++blurryStreak < BLURRY_STREAK) {
+            return false;
+        }
+        // 画面变化了，重新允许连续失败触发对焦，定期对焦恢复初始间隔
+        blurryStreak = 0;
+        failureStreak = 0;
+        failureStreakSpent = false;
+        intervalMillis = AUTO_FOCUS_INTERVAL_MS;
+        triggered = true;
+        return true;
+    }
+
+    synchronized boolean isFocusing() {
+        return focusing;
+    }
+
+    synchronized long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+}
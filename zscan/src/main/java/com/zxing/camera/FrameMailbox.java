@@ -0,0 +1,129 @@
+package com.zxing.camera;
+
+/**
+ * <pre>
+ * Title: FrameMailbox
+ * Description: 只有一个位置的预览帧信箱。相机持续把预览帧放进来，新的帧会顶替还没有被取走的旧帧
+ * （旧帧直接还给相机并计入丢帧数），解码线程每次取到的都是最新的一帧，
+ * 解码慢的时候不会积压，也不需要经过 UI 线程重新请求预览帧。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public final class FrameMailbox {
+    private final PreviewBufferPool bufferPool;
+
+    private byte[] data;
+    private int width;
+    private int height;
+    private long timestamp;
+
+    private boolean paused = true;
+    private boolean closed;
+
+    private long receivedFrames;
+    private long droppedFrames;
+    private long takenFrames;
+
+    FrameMailbox(PreviewBufferPool bufferPool) {
+        this.bufferPool = bufferPool;
+    }
+
+    /**
+     * 相机回调中放入一帧，暂停或关闭时直接还给相机
+     */
+    synchronized void offer(byte[] data, int width, int height) {
+        if (closed || paused) {
+            bufferPool.recycle(data);
+            return;
+        }
+        receivedFrames++;
+        if (this.data != null) {
+            droppedFrames++;
+            bufferPool.recycle(this.data);
+        }
+        this.data = data;
+        this.width = width;
+        this.height = height;
+        this.timestamp = System.nanoTime();
+        notify();
+    }
+
+    /**
+     * 取出最新的一帧，没有新帧时阻塞等待
+     *
+     * @param out 用于接收预览帧
+     * @return 信箱已经关闭时返回 false
+     * @throws InterruptedException 等待时被中断
+     */
+    public synchronized boolean take(PreviewFrame out) throws InterruptedException {
+        while (data == null && !closed) {
+            wait();
+        }
+        if (closed) {
+            return false;
+        }
+        out.set(data, width, height, timestamp);
+        data = null;
+        takenFrames++;
+        return true;
+    }
+
+    /**
+     * 开始接收预览帧
+     */
+    public synchronized void resume() {
+        paused = false;
+    }
+
+    /**
+     * 暂停接收预览帧（例如扫码成功后），还没有被取走的帧会还给相机
+     */
+    public synchronized void pause() {
+        paused = true;
+        discard();
+    }
+
+    /**
+     * 关闭信箱，唤醒所有等待的解码线程
+     */
+    public synchronized void close() {
+        closed = true;
+        discard();
+        notifyAll();
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    private void discard() {
+        if (data != null) {
+            bufferPool.recycle(data);
+            data = null;
+        }
+    }
+
+    /**
+     * 收到的预览帧总数（不包括暂停期间的帧）
+     */
+    public synchronized long getReceivedFrameCount() {
+        return receivedFrames;
+    }
+
+    /**
+     * 被更新的帧顶替、没有解码就丢弃的帧数
+     */
+    public synchronized long getDroppedFrameCount() {
+        return droppedFrames;
+    }
+
+    /**
+     * 被解码线程取走的帧数
+     */
+    public synchronized long getTakenFrameCount() {
+        return takenFrames;
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.zxing.camera;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * <pre>
+ * Title: FrameRecordReader
+ * Description: 读取 {@link FrameRecordWriter} 写入的录制文件，不依赖 Android，可以在 JVM 上回放。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public final class FrameRecordReader implements Closeable {
+    private final DataInputStream in;
+    private final Inflater inflater = new Inflater();
+    private byte[] compressed = new byte[0];
+
+    /**
+     * @param in 输入流，关闭 reader 时一起关闭
+     * @throws IOException 不是录制文件或版本不支持
+     */
+    public FrameRecordReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in));
+        if (this.in.readInt() != FrameRecordWriter.MAGIC) {
+            throw new IOException("Not a frame record file");
+        }
+        int version = this.in.readInt();
+        if (version != FrameRecordWriter.VERSION) {
+            throw new IOException("Unsupported frame record version: " + version);
+        }
+    }
+
+    /**
+     * 读取下一帧
+     *
+     * @return 已经读完时返回 null
+     */
+    public RecordedFrame next() throws IOException {
+        int width;
+        try {
+            width = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        int height = in.readInt();
+        int cropLeft = in.readInt();
+        int cropTop = in.readInt();
+        int cropWidth = in.readInt();
+        int cropHeight = in.readInt();
+        long timestampNanos = in.readLong();
+        String expectedFormat = in.readUTF();
+        String expectedText = in.readUTF();
+        int length = in.readInt();
+        if (width <= 0 || height <= 0 || length < 0) {
+            throw new IOException("Corrupt frame record");
+        }
+        if (compressed.length < length) {
+            compressed = new byte[length];
+        }
+        in.readFully(compressed, 0, length);
+
+        byte[] luminance = new byte[width * height];
+        inflater.reset();
+        inflater.setInput(compressed, 0, length);
+        try {
+            int offset = 0;
+            while (offset < luminance.length && !inflater.finished()) {
+                int count = inflater.inflate(luminance, offset, luminance.length - offset);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                offset += count;
+            }
+            if (offset != luminance.length) {
+                throw new IOException("Truncated frame data");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt frame data", e);
+        }
+        return new RecordedFrame(luminance, width, height, cropLeft, cropTop, cropWidth, cropHeight,
+                timestampNanos, expectedFormat.isEmpty() ? null : expectedFormat,
+                expectedText.isEmpty() ? null : expectedText);
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        in.close();
+    }
+
+}
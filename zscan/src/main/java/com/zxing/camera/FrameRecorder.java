@@ -0,0 +1,164 @@
+package com.zxing.camera;
+
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <pre>
+ * Title: FrameRecorder
+ * Description: 把相机的预览帧录制到文件中（{@link FrameRecordWriter} 格式），用于在 JVM 上离线回放、调试解码流程。
+ * 预览回调中只复制 Y 分量，压缩与写文件在单独的线程中进行；写文件跟不上时丢弃新的帧，不会阻塞相机。
+ * 通过 {@link CameraManager#startFrameRecording(File, int)} 开始录制。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public final class FrameRecorder {
+    private static final String TAG = FrameRecorder.class.getSimpleName();
+
+    /**
+     * 等待写入的帧数上限
+     */
+    private static final int MAX_PENDING_FRAMES = 4;
+
+    private final CameraManager cameraManager;
+    private final File file;
+    private final int maxFrames;
+    private final HandlerThread thread;
+    private final Handler handler;
+    private final AtomicInteger pendingFrames = new AtomicInteger();
+    private final AtomicInteger acceptedFrames = new AtomicInteger();
+    private final AtomicInteger droppedFrames = new AtomicInteger();
+    private FrameRecordWriter writer;
+    private volatile boolean stopped;
+
+    /**
+     * @param cameraManager 用于取得扫描框
+     * @param file          录制文件，已存在时会被覆盖
+     * @param maxFrames     最多录制的帧数
+     */
+    FrameRecorder(CameraManager cameraManager, File file, int maxFrames) {
+        this.cameraManager = cameraManager;
+        this.file = file;
+        this.maxFrames = maxFrames;
+        thread = new HandlerThread(TAG);
+        thread.start();
+        handler = new Handler(thread.getLooper());
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                openWriter();
+            }
+        });
+    }
+
+    private void openWriter() {
+        try {
+            writer = new FrameRecordWriter(new FileOutputStream(file));
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to open " + file, e);
+            stopped = true;
+        }
+    }
+
+    /**
+     * 在预览回调中调用，录制一帧
+     *
+     * @param data   预览帧（NV21）
+     * @param width  预览帧宽度
+     * @param height 预览帧高度
+     */
+    void record(byte[] data, int width, int height) {
+        if (stopped || acceptedFrames.get() >= maxFrames) {
+            return;
+        }
+        if (pendingFrames.get() >= MAX_PENDING_FRAMES) {
+            droppedFrames.incrementAndGet();
+            return;
+        }
+        FramingGeometry geometry = cameraManager.getFramingGeometry();
+        if (geometry == null) {
+            return;
+        }
+        // 与解码线程相同，扫描框限制在旋转后（宽高互换）的图像内
+        Rect rect = geometry.getCropRect();
+        if (!geometry.isPreviewSize(width, height)) {
+            rect = new Rect(geometry.getScreenRect());
+            if (!rect.intersect(0, 0, height, width)) {
+                return;
+            }
+        } else if (rect.isEmpty()) {
+            return;
+        }
+        acceptedFrames.incrementAndGet();
+        pendingFrames.incrementAndGet();
+        // 预览缓冲区会被相机复用，只复制 Y 分量
+        final RecordedFrame frame = new RecordedFrame(Arrays.copyOf(data, width * height), width, height,
+                rect.left, rect.top, rect.width(), rect.height(),
+                SystemClock.elapsedRealtimeNanos(), null, null);
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                write(frame);
+            }
+        });
+    }
+
+    private void write(RecordedFrame frame) {
+        try {
+            if (writer != null) {
+                writer.write(frame);
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to write frame", e);
+            stopped = true;
+        } finally {
+            pendingFrames.decrementAndGet();
+        }
+    }
+
+    /**
+     * 停止录制，等待已经接收的帧写入文件后关闭文件
+     */
+    void stop() {
+        stopped = true;
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (writer != null) {
+                    Log.d(TAG, "Recorded " + writer.getFrameCount() + " frames to " + file
+                            + ", dropped " + droppedFrames.get());
+                    try {
+                        writer.close();
+                    } catch (IOException e) {
+                        Log.w(TAG, "Unable to close " + file, e);
+                    }
+                    writer = null;
+                }
+            }
+        });
+        thread.quitSafely();
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * 因为写文件跟不上而丢弃的帧数
+     */
+    public int getDroppedFrameCount() {
+        return droppedFrames.get();
+    }
+
+}
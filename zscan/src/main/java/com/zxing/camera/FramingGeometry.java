@@ -0,0 +1,124 @@
+package com.zxing.camera;
+
+import android.graphics.Point;
+import android.graphics.Rect;
+
+/**
+ * <pre>
+ * Title: FramingGeometry
+ * Description: 扫描框的几何信息，创建后不再改变：屏幕上的扫描框、预览帧（横屏）坐标中的扫描框，
+ * 以及旋转后的预览帧中需要裁剪解码的区域。由 {@link CameraManager#getFramingGeometry()} 计算，
+ * 只有扫描框尺寸（{@link CameraManager#FRAME_WIDTH} 等）、分辨率或缩放改变时才重新计算，
+ * 解码线程每一帧读取时不需要加锁，也不会分配对象。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public final class FramingGeometry {
+    /**
+     * 计算时使用的参数，用于判断是否需要重新计算
+     */
+    private final int frameWidth;
+    private final int frameHeight;
+    private final int frameMarginTop;
+    private final int zoom;
+
+    private final Rect screenRect;
+    private final Rect previewRect;
+    private final Rect cropRect;
+    private final int previewWidth;
+    private final int previewHeight;
+
+    private FramingGeometry(int frameWidth, int frameHeight, int frameMarginTop, int zoom,
+                            Rect screenRect, Rect previewRect, Rect cropRect,
+                            int previewWidth, int previewHeight) {
+        this.frameWidth = frameWidth;
+        this.frameHeight = frameHeight;
+        this.frameMarginTop = frameMarginTop;
+        this.zoom = zoom;
+        this.screenRect = screenRect;
+        this.previewRect = previewRect;
+        this.cropRect = cropRect;
+        this.previewWidth = previewWidth;
+        this.previewHeight = previewHeight;
+    }
+
+    /**
+     * @param screenResolution 屏幕分辨率
+     * @param cameraResolution 预览分辨率（横屏）
+     * @param screenRect       屏幕上的扫描框
+     * @param frameWidth       计算扫描框时使用的参数，原样保存
+     * @param frameHeight      同上
+     * @param frameMarginTop   同上
+     * @param zoom             当前的缩放值
+     */
+    static FramingGeometry create(Point screenResolution, Point cameraResolution, Rect screenRect,
+                                  int frameWidth, int frameHeight, int frameMarginTop, int zoom) {
+        Rect previewRect = new Rect(screenRect);
+        previewRect.left = previewRect.left * cameraResolution.y / screenResolution.x;
+        previewRect.right = previewRect.right * cameraResolution.y / screenResolution.x;
+        previewRect.top = previewRect.top * cameraResolution.x / screenResolution.y;
+        previewRect.bottom = previewRect.bottom * cameraResolution.x / screenResolution.y;
+
+        // 解码线程按屏幕上的扫描框裁剪旋转后（宽高互换）的预览帧，需要限制在图像内
+        Rect cropRect = new Rect(screenRect);
+        if (!cropRect.intersect(0, 0, cameraResolution.y, cameraResolution.x)) {
+            cropRect.setEmpty();
+        }
+        return new FramingGeometry(frameWidth, frameHeight, frameMarginTop, zoom,
+                screenRect, previewRect, cropRect, cameraResolution.x, cameraResolution.y);
+    }
+
+    boolean matches(int frameWidth, int frameHeight, int frameMarginTop, int zoom) {
+        return this.frameWidth == frameWidth && this.frameHeight == frameHeight
+                && this.frameMarginTop == frameMarginTop && this.zoom == zoom;
+    }
+
+    /**
+     * 屏幕（窗口）坐标中的扫描框，不要修改返回的对象
+     */
+    public Rect getScreenRect() {
+        return screenRect;
+    }
+
+    /**
+     * 预览帧（横屏）坐标中的扫描框，不要修改返回的对象
+     */
+    public Rect getPreviewRect() {
+        return previewRect;
+    }
+
+    /**
+     * 旋转后的预览帧中需要裁剪解码的区域，已经限制在图像内，不在图像内时为空。不要修改返回的对象
+     */
+    public Rect getCropRect() {
+        return cropRect;
+    }
+
+    /**
+     * 计算时使用的预览帧宽度（横屏）
+     */
+    public int getPreviewWidth() {
+        return previewWidth;
+    }
+
+    public int getPreviewHeight() {
+        return previewHeight;
+    }
+
+    /**
+     * 预览帧的尺寸是否与计算时使用的预览分辨率一致，不一致时 {@link #getCropRect()} 不可用
+     */
+    public boolean isPreviewSize(int width, int height) {
+        return previewWidth == width && previewHeight == height;
+    }
+
+    @Override
+    public String toString() {
+        return "FramingGeometry{screen=" + screenRect + ", preview=" + previewRect
+                + ", crop=" + cropRect + ", previewSize=" + previewWidth + "x" + previewHeight
+                + ", zoom=" + zoom + '}';
+    }
+
+}
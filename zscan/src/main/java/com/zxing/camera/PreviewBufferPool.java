@@ -0,0 +1,80 @@
+package com.zxing.camera;
+
+import android.hardware.Camera;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <pre>
+ * Title: PreviewBufferPool
+ * Description: 预览帧缓冲池，配合 {@link Camera#setPreviewCallbackWithBuffer} 使用。
+ * 相机只会把预览帧写入通过 {@link Camera#addCallbackBuffer} 交给它的缓冲区，
+ * 解码完成后再把缓冲区还给相机，整个预览过程中不再为每一帧分配新的数组。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+final class PreviewBufferPool {
+    private static final String TAG = PreviewBufferPool.class.getSimpleName();
+
+    private final List<byte[]> buffers = new ArrayList<>(4);
+    private Camera camera;
+
+    /**
+     * 分配缓冲区并全部交给相机
+     *
+     * @param camera     相机
+     * @param bufferSize 每个缓冲区的大小（一帧预览数据的大小）
+     * @param count      缓冲区个数
+     */
+    synchronized void attach(Camera camera, int bufferSize, int count) {
+        detach();
+        this.camera = camera;
+        for (int i = 0; i < count; i++) {
+            byte[] buffer = new byte[bufferSize];
+            buffers.add(buffer);
+            camera.addCallbackBuffer(buffer);
+        }
+        Log.i(TAG, "Allocated " + count + " preview buffers of " + bufferSize + " bytes");
+    }
+
+    synchronized void detach() {
+        camera = null;
+        buffers.clear();
+    }
+
+    synchronized boolean isAttached() {
+        return camera != null;
+    }
+
+    /**
+     * 把缓冲区还给相机。不属于当前缓冲池的数组（例如停止预览之前分配的）会被忽略。
+     *
+     * @param data 预览帧
+     */
+    synchronized void recycle(byte[] data) {
+        Camera theCamera = camera;
+        if (theCamera == null || data == null || !contains(data)) {
+            return;
+        }
+        try {
+            theCamera.addCallbackBuffer(data);
+        } catch (RuntimeException re) {
+            // 相机已经被释放
+            Log.w(TAG, "Unexpected exception while recycling preview buffer", re);
+        }
+    }
+
+    private boolean contains(byte[] data) {
+        for (int i = 0, size = buffers.size(); i < size; i++) {
+            if (buffers.get(i) == data) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
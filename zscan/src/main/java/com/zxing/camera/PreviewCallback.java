@@ -30,11 +30,18 @@ final class PreviewCallback implements Camera.PreviewCallback {
     private static final String TAG = PreviewCallback.class.getSimpleName();
 
     private final CameraConfigurationManager configManager;
+    private final PreviewBufferPool bufferPool;
+    /**
+     * 以下两个字段由 this 保护：解码线程请求下一帧，相机线程取出请求
+     */
     private Handler previewHandler;
     private int previewMessage;
+    private volatile FrameMailbox frameMailbox;
+    private volatile FrameRecorder frameRecorder;
 
-    PreviewCallback(CameraConfigurationManager configManager) {
+    PreviewCallback(CameraConfigurationManager configManager, PreviewBufferPool bufferPool) {
         this.configManager = configManager;
+        this.bufferPool = bufferPool;
     }
 
     /**
@@ -43,23 +50,66 @@ final class PreviewCallback implements Camera.PreviewCallback {
      * @param previewHandler
      * @param previewMessage
      */
-    void setHandler(Handler previewHandler, int previewMessage) {
+    synchronized void setHandler(Handler previewHandler, int previewMessage) {
         this.previewHandler = previewHandler;
         this.previewMessage = previewMessage;
     }
 
+    /**
+     * 设置预览帧信箱，设置后所有的预览帧都放入信箱，不再发消息
+     *
+     * @param frameMailbox 为 null 时恢复按请求发消息的方式
+     */
+    void setFrameMailbox(FrameMailbox frameMailbox) {
+        this.frameMailbox = frameMailbox;
+    }
+
+    /**
+     * 设置预览帧录制器，设置后每一帧在交给解码线程之前先录制
+     *
+     * @param frameRecorder 为 null 时停止录制
+     */
+    void setFrameRecorder(FrameRecorder frameRecorder) {
+        this.frameRecorder = frameRecorder;
+    }
+
     @Override
     public void onPreviewFrame(byte[] data, Camera camera) {
         Point cameraResolution = configManager.getCameraResolution();
-        Handler thePreviewHandler = previewHandler;
-        if (cameraResolution != null && thePreviewHandler != null) {
-            Message message = thePreviewHandler.obtainMessage(previewMessage, cameraResolution.x, cameraResolution.y,
-                    data);
+        FrameRecorder theFrameRecorder = frameRecorder;
+        if (theFrameRecorder != null && cameraResolution != null) {
+            theFrameRecorder.record(data, cameraResolution.x, cameraResolution.y);
+        }
+        FrameMailbox theFrameMailbox = frameMailbox;
+        if (theFrameMailbox != null && cameraResolution != null) {
+            theFrameMailbox.offer(data, cameraResolution.x, cameraResolution.y);
+            return;
+        }
+        Message message = cameraResolution == null ? null
+                : takeRequest(cameraResolution.x, cameraResolution.y, data);
+        if (message != null) {
             message.sendToTarget();
-            previewHandler = null;
         } else {
-            Log.d(TAG, "Got preview callback, but no handler or resolution available");
+            // 使用缓冲池时相机会持续回调，没有人等待的帧直接还给相机
+            bufferPool.recycle(data);
+            if (!bufferPool.isAttached()) {
+                Log.d(TAG, "Got preview callback, but no handler or resolution available");
+            }
+        }
+    }
+
+    /**
+     * 取出并清除请求，之后才发消息：收到消息的解码线程可能立即请求下一帧，不能被这里清除
+     *
+     * @return 没有请求时为 null
+     */
+    private synchronized Message takeRequest(int width, int height, byte[] data) {
+        Handler thePreviewHandler = previewHandler;
+        if (thePreviewHandler == null) {
+            return null;
         }
+        previewHandler = null;
+        return thePreviewHandler.obtainMessage(previewMessage, width, height, data);
     }
 
 }
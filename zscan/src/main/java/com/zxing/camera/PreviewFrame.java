@@ -0,0 +1,47 @@
+package com.zxing.camera;
+
+/**
+ * <pre>
+ * Title: PreviewFrame
+ * Description: 从 {@link FrameMailbox} 取出的一帧预览数据，由解码线程持有并复用。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public final class PreviewFrame {
+    private byte[] data;
+    private int width;
+    private int height;
+    private long timestamp;
+
+    void set(byte[] data, int width, int height, long timestamp) {
+        this.data = data;
+        this.width = width;
+        this.height = height;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * 预览帧（NV21），使用完毕后需要调用 {@link CameraManager#releasePreviewBuffer(byte[])}
+     */
+    public byte[] getData() {
+        return data;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * 预览帧到达的时间，{@link System#nanoTime()}
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+}
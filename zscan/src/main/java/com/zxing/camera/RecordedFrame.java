@@ -0,0 +1,103 @@
+package com.zxing.camera;
+
+/**
+ * <pre>
+ * Title: RecordedFrame
+ * Description: 录制下来的一帧预览数据（只保存 Y 分量），以及解码时使用的扫描框，
+ * 参考 {@link FrameRecordWriter}、{@link FrameRecordReader}。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public final class RecordedFrame {
+    private final byte[] luminance;
+    private final int width;
+    private final int height;
+    private final int cropLeft;
+    private final int cropTop;
+    private final int cropWidth;
+    private final int cropHeight;
+    private final long timestampNanos;
+    private final String expectedFormat;
+    private final String expectedText;
+
+    /**
+     * @param luminance      预览帧的 Y 分量（横屏，width * height）
+     * @param width          预览帧宽度
+     * @param height         预览帧高度
+     * @param cropLeft       扫描框左边界（旋转后图像中的坐标，与 DecodeHandler 相同）
+     * @param cropTop        扫描框上边界
+     * @param cropWidth      扫描框宽度
+     * @param cropHeight     扫描框高度
+     * @param timestampNanos 录制时间
+     * @param expectedFormat 帧中条码的码制（BarcodeFormat 的名字），未知时为 null
+     * @param expectedText   帧中条码的内容，未知时为 null
+     */
+    public RecordedFrame(byte[] luminance, int width, int height,
+                         int cropLeft, int cropTop, int cropWidth, int cropHeight,
+                         long timestampNanos, String expectedFormat, String expectedText) {
+        if (luminance.length < width * height) {
+            throw new IllegalArgumentException("Luminance data is smaller than the frame.");
+        }
+        this.luminance = luminance;
+        this.width = width;
+        this.height = height;
+        this.cropLeft = cropLeft;
+        this.cropTop = cropTop;
+        this.cropWidth = cropWidth;
+        this.cropHeight = cropHeight;
+        this.timestampNanos = timestampNanos;
+        this.expectedFormat = expectedFormat;
+        this.expectedText = expectedText;
+    }
+
+    /**
+     * 返回一份带有标注（码制与内容）的拷贝，用于离线整理录制的素材
+     */
+    public RecordedFrame withExpected(String expectedFormat, String expectedText) {
+        return new RecordedFrame(luminance, width, height, cropLeft, cropTop, cropWidth, cropHeight,
+                timestampNanos, expectedFormat, expectedText);
+    }
+
+    public byte[] getLuminance() {
+        return luminance;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getCropLeft() {
+        return cropLeft;
+    }
+
+    public int getCropTop() {
+        return cropTop;
+    }
+
+    public int getCropWidth() {
+        return cropWidth;
+    }
+
+    public int getCropHeight() {
+        return cropHeight;
+    }
+
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    public String getExpectedFormat() {
+        return expectedFormat;
+    }
+
+    public String getExpectedText() {
+        return expectedText;
+    }
+
+}
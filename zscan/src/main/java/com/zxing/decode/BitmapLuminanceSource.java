@@ -4,34 +4,244 @@ import android.graphics.Bitmap;
 
 import com.google.zxing.LuminanceSource;
 
+/**
+ * <pre>
+ * Title: BitmapLuminanceSource
+ * Description: 图片（ARGB_8888 或 RGB_565 的 Bitmap）的亮度。按 BT.601 把 RGB 转换为亮度（透明的部分按白色背景处理），
+ * 每次只读取几行像素，转换结果写入调用者提供的、可以复用的缓冲区，不需要整张图片大小的 int 数组。
+ * 支持 {@link #crop(int, int, int, int)} 与 {@link #rotateCounterClockwise()}，两者都只改变坐标，不复制数据。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
 public class BitmapLuminanceSource extends LuminanceSource {
+    /**
+     * 每次从 Bitmap 读取的行数
+     */
+    private static final int STRIP_ROWS = 16;
 
-    private byte bitmapPixels[];
+    private final byte[] luminances;
+    private final int dataWidth;
+    private final int dataHeight;
+    /**
+     * 在数据（未旋转）坐标中的区域
+     */
+    private final int left;
+    private final int top;
+    private final int regionWidth;
+    private final int regionHeight;
+    /**
+     * 逆时针旋转的次数（每次 90 度），0 ~ 3
+     */
+    private final int rotation;
 
     public BitmapLuminanceSource(Bitmap bitmap) {
-        super(bitmap.getWidth(), bitmap.getHeight());
+        this(bitmap, null);
+    }
+
+    /**
+     * @param bitmap 图片
+     * @param buffer 用于保存亮度的缓冲区，长度不小于 width * height 时直接使用（可以在图片之间复用），
+     *               否则重新分配
+     */
+    public BitmapLuminanceSource(Bitmap bitmap, byte[] buffer) {
+        this(convert(bitmap, buffer), bitmap.getWidth(), bitmap.getHeight(),
+                0, 0, bitmap.getWidth(), bitmap.getHeight(), 0);
+    }
 
-        // 首先，要取得该图片的像素数组内容
-        int[] data = new int[bitmap.getWidth() * bitmap.getHeight()];
-        this.bitmapPixels = new byte[bitmap.getWidth() * bitmap.getHeight()];
-        bitmap.getPixels(data, 0, getWidth(), 0, 0, getWidth(), getHeight());
+    /**
+     * @param width  图片宽度
+     * @param height 图片高度
+     * @param pixels 图片的 ARGB 像素（与 {@link Bitmap#getPixels} 的结果相同）
+     */
+    public BitmapLuminanceSource(int width, int height, int[] pixels) {
+        this(convert(width, height, pixels), width, height, 0, 0, width, height, 0);
+    }
+
+    /**
+     * 已经转换好的亮度
+     *
+     * @param luminances 亮度，按行存放，长度可以大于 width * height（只使用前 width * height 个）
+     * @param width      图片宽度
+     * @param height     图片高度
+     */
+    public BitmapLuminanceSource(byte[] luminances, int width, int height) {
+        this(luminances, width, height, 0, 0, width, height, 0);
+    }
 
-        // 将int数组转换为byte数组，也就是取像素值中蓝色值部分作为辨析内容
-        for (int i = 0; i < data.length; i++) {
-            this.bitmapPixels[i] = (byte) data[i];
+    private BitmapLuminanceSource(byte[] luminances, int dataWidth, int dataHeight,
+                                  int left, int top, int regionWidth, int regionHeight, int rotation) {
+        super((rotation & 1) == 0 ? regionWidth : regionHeight,
+                (rotation & 1) == 0 ? regionHeight : regionWidth);
+        if (left + regionWidth > dataWidth || top + regionHeight > dataHeight) {
+            throw new IllegalArgumentException("Crop rectangle does not fit within image data.");
         }
+        this.luminances = luminances;
+        this.dataWidth = dataWidth;
+        this.dataHeight = dataHeight;
+        this.left = left;
+        this.top = top;
+        this.regionWidth = regionWidth;
+        this.regionHeight = regionHeight;
+        this.rotation = rotation;
     }
 
-    @Override
-    public byte[] getMatrix() {
-        // 返回我们生成好的像素数据
-        return bitmapPixels;
+    private static byte[] convert(Bitmap bitmap, byte[] buffer) {
+        int width = bitmap.getWidth();
+        int height = bitmap.getHeight();
+        byte[] luminances = buffer != null && buffer.length >= width * height
+                ? buffer : new byte[width * height];
+        int stripRows = Math.min(STRIP_ROWS, height);
+        int[] strip = new int[width * stripRows];
+        for (int y = 0; y < height; y += stripRows) {
+            int rows = Math.min(stripRows, height - y);
+            bitmap.getPixels(strip, 0, width, 0, y, width, rows);
+            toLuma(strip, 0, luminances, y * width, width * rows);
+        }
+        return luminances;
+    }
+
+    private static byte[] convert(int width, int height, int[] pixels) {
+        byte[] luminances = new byte[width * height];
+        toLuma(pixels, 0, luminances, 0, width * height);
+        return luminances;
+    }
+
+    private static void toLuma(int[] pixels, int offset, byte[] out, int outOffset, int count) {
+        for (int i = 0; i < count; i++) {
+            out[outOffset + i] = (byte) luma(pixels[offset + i]);
+        }
+    }
+
+    /**
+     * ARGB 像素的亮度（BT.601），透明的部分按白色背景处理
+     *
+     * @return 0 ~ 255
+     */
+    static int luma(int pixel) {
+        int r = (pixel >> 16) & 0xff;
+        int g = (pixel >> 8) & 0xff;
+        int b = pixel & 0xff;
+        int luma = (77 * r + 150 * g + 29 * b + 128) >> 8;
+        int alpha = pixel >>> 24;
+        if (alpha != 0xff) {
+            // 与白色混合
+            luma = (luma * alpha + 255 * (255 - alpha) + 127) / 255;
+        }
+        return luma;
     }
 
     @Override
     public byte[] getRow(int y, byte[] row) {
-        // 这里要得到指定行的像素数据
-        System.arraycopy(bitmapPixels, y * getWidth(), row, 0, getWidth());
+        if (y < 0 || y >= getHeight()) {
+            throw new IllegalArgumentException("Requested row is outside the image: " + y);
+        }
+        int width = getWidth();
+        if (row == null || row.length < width) {
+            row = new byte[width];
+        }
+        switch (rotation) {
+            case 0:
+                System.arraycopy(luminances, (top + y) * dataWidth + left, row, 0, width);
+                break;
+            case 1: {
+                // 逆时针旋转 90 度：结果的第 y 行是原图从右数第 y 列，从上到下
+                int offset = top * dataWidth + left + regionWidth - 1 - y;
+                for (int x = 0; x < width; x++) {
+                    row[x] = luminances[offset + x * dataWidth];
+                }
+                break;
+            }
+            case 2: {
+                int offset = (top + regionHeight - 1 - y) * dataWidth + left + regionWidth - 1;
+                for (int x = 0; x < width; x++) {
+                    row[x] = luminances[offset - x];
+                }
+                break;
+            }
+            default: {
+                // 顺时针旋转 90 度：结果的第 y 行是原图第 y 列，从下到上
+                int offset = (top + regionHeight - 1) * dataWidth + left + y;
+                for (int x = 0; x < width; x++) {
+                    row[x] = luminances[offset - x * dataWidth];
+                }
+                break;
+            }
+        }
         return row;
     }
-}
\ No newline at end of file
+
+    @Override
+    public byte[] getMatrix() {
+        int width = getWidth();
+        int height = getHeight();
+        int area = width * height;
+        if (rotation == 0 && left == 0 && top == 0 && width == dataWidth
+                && height == dataHeight && luminances.length == area) {
+            return luminances;
+        }
+        byte[] matrix = new byte[area];
+        if (rotation == 0) {
+            for (int y = 0; y < height; y++) {
+                System.arraycopy(luminances, (top + y) * dataWidth + left, matrix, y * width, width);
+            }
+            return matrix;
+        }
+        byte[] row = new byte[width];
+        for (int y = 0; y < height; y++) {
+            getRow(y, row);
+            System.arraycopy(row, 0, matrix, y * width, width);
+        }
+        return matrix;
+    }
+
+    @Override
+    public boolean isCropSupported() {
+        return true;
+    }
+
+    @Override
+    public LuminanceSource crop(int left, int top, int width, int height) {
+        if (left < 0 || top < 0 || left + width > getWidth() || top + height > getHeight()) {
+            throw new IllegalArgumentException("Crop rectangle does not fit within image data.");
+        }
+        // 把旋转后坐标中的区域换算到数据坐标
+        int regionLeft;
+        int regionTop;
+        switch (rotation) {
+            case 0:
+                regionLeft = left;
+                regionTop = top;
+                break;
+            case 1:
+                regionLeft = regionWidth - top - height;
+                regionTop = left;
+                break;
+            case 2:
+                regionLeft = regionWidth - left - width;
+                regionTop = regionHeight - top - height;
+                break;
+            default:
+                regionLeft = top;
+                regionTop = regionHeight - left - width;
+                break;
+        }
+        boolean transposed = (rotation & 1) != 0;
+        return new BitmapLuminanceSource(luminances, dataWidth, dataHeight,
+                this.left + regionLeft, this.top + regionTop,
+                transposed ? height : width, transposed ? width : height, rotation);
+    }
+
+    @Override
+    public boolean isRotateSupported() {
+        return true;
+    }
+
+    @Override
+    public LuminanceSource rotateCounterClockwise() {
+        return new BitmapLuminanceSource(luminances, dataWidth, dataHeight,
+                left, top, regionWidth, regionHeight, (rotation + 1) & 3);
+    }
+
+}
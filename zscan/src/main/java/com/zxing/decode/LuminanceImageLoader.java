@@ -0,0 +1,514 @@
+package com.zxing.decode;
+
+import android.content.ContentResolver;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Matrix;
+import android.graphics.Rect;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.os.Build;
+import android.util.Log;
+
+import com.google.zxing.LuminanceSource;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * <pre>
+ * Title: LuminanceImageLoader
+ * Description: 为解码读取图片的亮度（Y 分量），内存占用有上限。使用 {@link BitmapRegionDecoder}
+ * 按 2 的幂次缩小（长边不超过 maxDimension），一次只解码一条横向的条带（RGB_565，条带 Bitmap 复用），
+ * 直接转换为亮度写入结果，不保留整张 ARGB 图片；同时按照 EXIF 方向旋转。
+ * 4800 万像素（8000 * 6000）的照片按默认参数缩小 8 倍，峰值内存约为 亮度数组（约 0.75 MB）+ 一条条带（约 0.25 MB）。
+ * 不支持区域解码的格式（例如 GIF、BMP）退回到 BitmapFactory 整张解码。
+ * 同一个实例会复用条带与亮度缓冲区（返回的 LuminanceSource 只在下一次读取之前有效），
+ * 不是线程安全的，每个线程使用各自的实例。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public final class LuminanceImageLoader {
+    private static final String TAG = LuminanceImageLoader.class.getSimpleName();
+
+    /**
+     * 默认的最大边长，足够识别一张照片中的几个条码
+     */
+    public static final int DEFAULT_MAX_DIMENSION = 1600;
+    /**
+     * 每条条带输出的行数
+     */
+    private static final int STRIP_ROWS = 128;
+
+    private int maxDimension;
+    private Bitmap stripBitmap;
+    private int[] rowPixels;
+    private byte[] luminanceBuffer;
+    /**
+     * 最近一次读取的图片的原始尺寸
+     */
+    private int sourceWidth;
+    private int sourceHeight;
+
+    public LuminanceImageLoader() {
+        this(DEFAULT_MAX_DIMENSION);
+    }
+
+    /**
+     * @param maxDimension 缩小后的最大边长（实际结果可能更小，缩小比例为 2 的幂次）
+     */
+    public LuminanceImageLoader(int maxDimension) {
+        setMaxDimension(maxDimension);
+    }
+
+    /**
+     * 修改缩小后的最大边长，之后的读取生效（例如逐级提高分辨率重试时）
+     */
+    public void setMaxDimension(int maxDimension) {
+        if (maxDimension < 1) {
+            throw new IllegalArgumentException("maxDimension < 1");
+        }
+        this.maxDimension = maxDimension;
+    }
+
+    /**
+     * 最近一次读取的图片的原始宽度（未缩小、未旋转），没有读取过时为 0
+     */
+    public int getSourceWidth() {
+        return sourceWidth;
+    }
+
+    public int getSourceHeight() {
+        return sourceHeight;
+    }
+
+    /**
+     * 打开图片的输入流，不支持区域解码时需要重新打开一次
+     */
+    private interface StreamOpener {
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * 读取本地图片
+     */
+    public LuminanceSource load(final String path) throws IOException {
+        int orientation = readOrientation(path);
+        return load(new StreamOpener() {
+            @Override
+            public InputStream open() throws IOException {
+                return new FileInputStream(path);
+            }
+        }, orientation);
+    }
+
+    /**
+     * 读取一张用于显示的本地图片：RGB_565，按 2 的幂次缩小（长边不超过 maxDimension）后只解码一次，
+     * 并按照 EXIF 方向旋转
+     *
+     * @return 无法解码时为 null
+     */
+    public static Bitmap loadBitmap(String path, int maxDimension) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(path, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = computeSampleSize(options.outWidth, options.outHeight, maxDimension);
+        options.inPreferredConfig = Bitmap.Config.RGB_565;
+        Bitmap bitmap = BitmapFactory.decodeFile(path, options);
+        if (bitmap == null) {
+            return null;
+        }
+        Matrix matrix = orientationMatrix(readOrientation(path));
+        if (matrix == null) {
+            return bitmap;
+        }
+        Bitmap oriented = Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(),
+                matrix, true);
+        if (oriented != bitmap) {
+            bitmap.recycle();
+        }
+        return oriented;
+    }
+
+    private static int readOrientation(String path) {
+        try {
+            return new ExifInterface(path).getAttributeInt(
+                    ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to read EXIF of " + path, e);
+            return ExifInterface.ORIENTATION_NORMAL;
+        }
+    }
+
+    /**
+     * EXIF 方向对应的变换，不需要变换时为 null
+     */
+    private static Matrix orientationMatrix(int orientation) {
+        Matrix matrix = new Matrix();
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_FLIP_HORIZONTAL:
+                matrix.setScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                matrix.setRotate(180);
+                break;
+            case ExifInterface.ORIENTATION_FLIP_VERTICAL:
+                matrix.setRotate(180);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_TRANSPOSE:
+                matrix.setRotate(90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                matrix.setRotate(90);
+                break;
+            case ExifInterface.ORIENTATION_TRANSVERSE:
+                matrix.setRotate(-90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                matrix.setRotate(-90);
+                break;
+            default:
+                return null;
+        }
+        return matrix;
+    }
+
+    /**
+     * 读取 file 或 content Uri 指向的图片
+     */
+    public LuminanceSource load(final ContentResolver resolver, final Uri uri) throws IOException {
+        if (ContentResolver.SCHEME_FILE.equals(uri.getScheme()) && uri.getPath() != null) {
+            return load(uri.getPath());
+        }
+        StreamOpener opener = new StreamOpener() {
+            @Override
+            public InputStream open() throws IOException {
+                InputStream in = resolver.openInputStream(uri);
+                if (in == null) {
+                    throw new IOException("Unable to open " + uri);
+                }
+                return in;
+            }
+        };
+        int orientation = ExifInterface.ORIENTATION_NORMAL;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            InputStream in = opener.open();
+            try {
+                orientation = new ExifInterface(in).getAttributeInt(
+                        ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+            } catch (IOException e) {
+                Log.w(TAG, "Unable to read EXIF of " + uri, e);
+            } finally {
+                in.close();
+            }
+        }
+        return load(opener, orientation);
+    }
+
+    /**
+     * 读取本地图片 EXIF 中的缩略图（通常只有 160 * 120 左右，读取很快），用于先做一次低成本的尝试。
+     * 缩略图不按 EXIF 方向旋转（二维码的识别与方向无关）
+     *
+     * @return 没有缩略图或无法解码时返回 null
+     */
+    public LuminanceSource loadThumbnail(String path) {
+        try {
+            return decodeThumbnail(new ExifInterface(path));
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to read EXIF of " + path, e);
+            return null;
+        }
+    }
+
+    /**
+     * 读取 file 或 content Uri 指向的图片 EXIF 中的缩略图，content Uri 需要 Android 7.0 以上
+     *
+     * @return 没有缩略图或无法解码时返回 null
+     */
+    public LuminanceSource loadThumbnail(ContentResolver resolver, Uri uri) {
+        if (ContentResolver.SCHEME_FILE.equals(uri.getScheme()) && uri.getPath() != null) {
+            return loadThumbnail(uri.getPath());
+        }
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.N) {
+            return null;
+        }
+        InputStream in = null;
+        try {
+            in = resolver.openInputStream(uri);
+            return in == null ? null : decodeThumbnail(new ExifInterface(in));
+        } catch (IOException | SecurityException e) {
+            Log.w(TAG, "Unable to read EXIF of " + uri, e);
+            return null;
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private LuminanceSource decodeThumbnail(ExifInterface exif) {
+        byte[] thumbnail = exif.getThumbnail();
+        if (thumbnail == null) {
+            return null;
+        }
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inPreferredConfig = Bitmap.Config.RGB_565;
+        Bitmap bitmap = BitmapFactory.decodeByteArray(thumbnail, 0, thumbnail.length, options);
+        if (bitmap == null) {
+            return null;
+        }
+        try {
+            // 与完整图片共用亮度缓冲区
+            return new BitmapLuminanceSource(bitmap,
+                    luminanceBuffer(bitmap.getWidth() * bitmap.getHeight()));
+        } finally {
+            bitmap.recycle();
+        }
+    }
+
+    private LuminanceSource load(StreamOpener opener, int orientation) throws IOException {
+        BitmapRegionDecoder decoder = null;
+        InputStream in = opener.open();
+        try {
+            decoder = BitmapRegionDecoder.newInstance(in, false);
+        } catch (IOException e) {
+            Log.d(TAG, "Region decoding not supported, decoding the whole image", e);
+        } finally {
+            in.close();
+        }
+        if (decoder == null) {
+            return decodeWhole(opener, orientation);
+        }
+        try {
+            return decodeStrips(decoder, orientation);
+        } finally {
+            decoder.recycle();
+        }
+    }
+
+    /**
+     * 不支持区域解码时整张解码（已经按照 2 的幂次缩小，使用 RGB_565）
+     */
+    private LuminanceSource decodeWhole(StreamOpener opener, int orientation) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        InputStream in = opener.open();
+        try {
+            BitmapFactory.decodeStream(in, null, options);
+        } finally {
+            in.close();
+        }
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            throw new IOException("Unsupported image format");
+        }
+        sourceWidth = options.outWidth;
+        sourceHeight = options.outHeight;
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = computeSampleSize(options.outWidth, options.outHeight, maxDimension);
+        options.inPreferredConfig = Bitmap.Config.RGB_565;
+        Bitmap bitmap;
+        in = opener.open();
+        try {
+            bitmap = BitmapFactory.decodeStream(in, null, options);
+        } finally {
+            in.close();
+        }
+        if (bitmap == null) {
+            throw new IOException("Unable to decode image");
+        }
+        try {
+            int outWidth = bitmap.getWidth();
+            int outHeight = bitmap.getHeight();
+            byte[] luminance = luminanceBuffer(outWidth * outHeight);
+            int dstWidth = isTransposed(orientation) ? outHeight : outWidth;
+            ensureRowPixels(outWidth);
+            for (int y = 0; y < outHeight; y++) {
+                convertRow(bitmap, y, y, outWidth, outWidth, outHeight, dstWidth, orientation, luminance);
+            }
+            return newSource(luminance, dstWidth, outWidth * outHeight / dstWidth);
+        } finally {
+            bitmap.recycle();
+        }
+    }
+
+    private LuminanceSource decodeStrips(BitmapRegionDecoder decoder, int orientation)
+            throws IOException {
+        int width = decoder.getWidth();
+        int height = decoder.getHeight();
+        sourceWidth = width;
+        sourceHeight = height;
+        int sampleSize = computeSampleSize(width, height, maxDimension);
+        int outWidth = Math.max(1, width / sampleSize);
+        int outHeight = Math.max(1, height / sampleSize);
+
+        int dstWidth = isTransposed(orientation) ? outHeight : outWidth;
+        byte[] luminance = luminanceBuffer(outWidth * outHeight);
+        ensureRowPixels(outWidth);
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize;
+        options.inPreferredConfig = Bitmap.Config.RGB_565;
+        Rect region = new Rect();
+        int stripSourceRows = STRIP_ROWS * sampleSize;
+        int outY = 0;
+        for (int top = 0; top < height && outY < outHeight; top += stripSourceRows) {
+            region.set(0, top, width, Math.min(height, top + stripSourceRows));
+            options.inBitmap = reusableStrip(outWidth);
+            Bitmap strip = decoder.decodeRegion(region, options);
+            if (strip == null) {
+                throw new IOException("Unable to decode region " + region);
+            }
+            stripBitmap = strip;
+            // 复用的条带比解码的区域大，解码结果位于左上角
+            int rows = Math.min(Math.min(strip.getHeight(), region.height() / sampleSize),
+                    outHeight - outY);
+            int columns = Math.min(strip.getWidth(), outWidth);
+            for (int y = 0; y < rows; y++, outY++) {
+                convertRow(strip, y, outY, columns, outWidth, outHeight, dstWidth, orientation, luminance);
+            }
+        }
+        return newSource(luminance, dstWidth, outWidth * outHeight / dstWidth);
+    }
+
+    /**
+     * 把 bitmap 的第 y 行转换为亮度，写入结果的第 outY 行（按 EXIF 方向旋转）
+     */
+    private void convertRow(Bitmap bitmap, int y, int outY, int columns, int outWidth, int outHeight,
+                            int dstWidth, int orientation, byte[] luminance) {
+        int[] pixels = rowPixels;
+        bitmap.getPixels(pixels, 0, outWidth, 0, y, columns, 1);
+        if (orientation == ExifInterface.ORIENTATION_NORMAL
+                || orientation == ExifInterface.ORIENTATION_UNDEFINED) {
+            int offset = outY * outWidth;
+            for (int x = 0; x < columns; x++) {
+                luminance[offset + x] = (byte) BitmapLuminanceSource.luma(pixels[x]);
+            }
+            return;
+        }
+        for (int x = 0; x < columns; x++) {
+            luminance[destIndex(orientation, x, outY, outWidth, outHeight, dstWidth)] =
+                    (byte) BitmapLuminanceSource.luma(pixels[x]);
+        }
+    }
+
+    private void ensureRowPixels(int width) {
+        if (rowPixels == null || rowPixels.length < width) {
+            rowPixels = new int[width];
+        }
+    }
+
+    private static LuminanceSource newSource(byte[] luminance, int width, int height) {
+        // 缓冲区可能比图片大，BitmapLuminanceSource 只使用其中的 width * height
+        return new BitmapLuminanceSource(luminance, width, height);
+    }
+
+    private byte[] luminanceBuffer(int size) {
+        if (luminanceBuffer == null || luminanceBuffer.length < size) {
+            luminanceBuffer = new byte[size];
+        }
+        return luminanceBuffer;
+    }
+
+    /**
+     * 旋转 90 度的方向需要交换宽高
+     */
+    private static boolean isTransposed(int orientation) {
+        return orientation >= ExifInterface.ORIENTATION_TRANSPOSE
+                && orientation <= ExifInterface.ORIENTATION_ROTATE_270;
+    }
+
+    private Bitmap reusableStrip(int outWidth) {
+        Bitmap strip = stripBitmap;
+        if (strip != null && !strip.isRecycled() && strip.isMutable()
+                && strip.getWidth() >= outWidth && strip.getHeight() >= STRIP_ROWS
+                && strip.getConfig() == Bitmap.Config.RGB_565) {
+            return strip;
+        }
+        if (strip != null) {
+            strip.recycle();
+        }
+        stripBitmap = Bitmap.createBitmap(outWidth, STRIP_ROWS, Bitmap.Config.RGB_565);
+        return stripBitmap;
+    }
+
+    /**
+     * 释放复用的条带
+     */
+    public void release() {
+        if (stripBitmap != null) {
+            stripBitmap.recycle();
+            stripBitmap = null;
+        }
+        rowPixels = null;
+        luminanceBuffer = null;
+    }
+
+    /**
+     * 缩小比例：2 的幂次，使长边不超过 maxDimension
+     */
+    public static int computeSampleSize(int width, int height, int maxDimension) {
+        int longSide = Math.max(width, height);
+        int sampleSize = 1;
+        while (longSide / sampleSize > maxDimension) {
+            sampleSize <<= 1;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * 缩小后图片中的 (x, y) 按 EXIF 方向旋转后在结果中的位置
+     */
+    static int destIndex(int orientation, int x, int y, int width, int height, int dstWidth) {
+        int dx;
+        int dy;
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_FLIP_HORIZONTAL:
+                dx = width - 1 - x;
+                dy = y;
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                dx = width - 1 - x;
+                dy = height - 1 - y;
+                break;
+            case ExifInterface.ORIENTATION_FLIP_VERTICAL:
+                dx = x;
+                dy = height - 1 - y;
+                break;
+            case ExifInterface.ORIENTATION_TRANSPOSE:
+                dx = y;
+                dy = x;
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                dx = height - 1 - y;
+                dy = x;
+                break;
+            case ExifInterface.ORIENTATION_TRANSVERSE:
+                dx = height - 1 - y;
+                dy = width - 1 - x;
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                dx = y;
+                dy = width - 1 - x;
+                break;
+            default:
+                dx = x;
+                dy = y;
+                break;
+        }
+        return dy * dstWidth + dx;
+    }
+
+}
@@ -69,6 +69,9 @@ public final class ViewfinderView extends View {
     private final int resultColor;
     private final int resultPointColor;
 
+    /**
+     * 解码线程添加、onDraw 取出，都在 this 的锁中
+     */
     private Collection<ResultPoint> possibleResultPoints;
     private Collection<ResultPoint> lastPossibleResultPoints;
 
@@ -146,12 +149,19 @@ public final class ViewfinderView extends View {
             drawScanLight(canvas, frame);
             drawTradeMark(canvas, frame);
 
-            Collection<ResultPoint> currentPossible = possibleResultPoints;
+            Collection<ResultPoint> currentPossible;
+            synchronized (this) {
+                // 解码线程会同时添加可能的结果点，取出当前的集合后换一个新的。
+                // 不换的话每一帧的点都会留在集合中，集合一直变大，画出的也是之前的帧的点
+                currentPossible = possibleResultPoints;
+                if (!currentPossible.isEmpty()) {
+                    possibleResultPoints = new HashSet<>(5);
+                }
+            }
             Collection<ResultPoint> currentLast = lastPossibleResultPoints;
             if (currentPossible.isEmpty()) {
                 lastPossibleResultPoints = null;
             } else {
-                // possibleResultPoints = new HashSet<>(5);
                 lastPossibleResultPoints = currentPossible;
                 paint.setAlpha(OPAQUE);
                 paint.setColor(resultPointColor);
@@ -294,7 +304,11 @@ public final class ViewfinderView extends View {
         invalidate();
     }
 
-    public void addPossibleResultPoint(ResultPoint point) {
+    /**
+     * 在解码线程中回调（{@link com.zbar.lib.ZxingDecoderEngine} 与
+     * {@link com.zbar.lib.HybridDecoderEngine}），可能有多个解码线程同时调用
+     */
+    public synchronized void addPossibleResultPoint(ResultPoint point) {
         possibleResultPoints.add(point);
     }
 
@@ -0,0 +1,154 @@
+package com.github.jeterlee.zscan;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 二维码图片缓存的淘汰、复用池与过大的图片（{@link PooledLruCache}）
+ */
+public class PooledLruCacheTest {
+
+    @Test
+    public void put_evictsLeastRecentlyUsed() {
+        PooledLruCache<Object, Image> cache = newCache(300, 0);
+        Image a = new Image(10, 100);
+        Image b = new Image(10, 100);
+        cache.put("a", a);
+        cache.put("b", b);
+        cache.put("c", new Image(10, 100));
+        assertSame(a, cache.get("a"));
+        // b 最久没有使用
+        cache.put("d", new Image(10, 100));
+        assertNull(cache.get("b"));
+        assertSame(a, cache.get("a"));
+        assertEquals(300, cache.getSizeBytes());
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void evicted_reusedFromPool() {
+        PooledLruCache<Object, Image> cache = newCache(200, 200);
+        Image a = new Image(10, 100);
+        cache.put("a", a);
+        cache.put("b", new Image(20, 100));
+        cache.put("c", new Image(10, 100));
+        assertEquals(100, cache.getPoolBytes());
+        // 大小不同的不能复用
+        assertNull(cache.take(20));
+        assertSame(a, cache.take(10));
+        assertEquals(0, cache.getPoolBytes());
+        assertNull(cache.take(10));
+    }
+
+    @Test
+    public void tooLarge_notCachedOrPooled() {
+        PooledLruCache<Object, Image> cache = newCache(200, 1000);
+        Image small = new Image(10, 100);
+        cache.put("small", small);
+        Image large = new Image(30, 300);
+        assertFalse(cache.put("large", large));
+        assertNull(cache.get("large"));
+        // 过大的图片不会挤掉已经缓存的，调用者仍在显示它，不能进入复用池
+        assertSame(small, cache.get("small"));
+        assertEquals(100, cache.getSizeBytes());
+        assertEquals(0, cache.getEvictionCount());
+        assertEquals(0, cache.getPoolBytes());
+        assertNull(cache.take(30));
+    }
+
+    @Test
+    public void replaced_notPooled() {
+        PooledLruCache<Object, Image> cache = newCache(200, 200);
+        cache.put("a", new Image(10, 100));
+        Image second = new Image(10, 100);
+        cache.put("a", second);
+        // 被替换的旧图片可能仍在显示
+        assertEquals(100, cache.getSizeBytes());
+        assertEquals(0, cache.getPoolBytes());
+        assertSame(second, cache.get("a"));
+    }
+
+    @Test
+    public void recycle_respectsPoolLimitAndReusability() {
+        PooledLruCache<Object, Image> cache = newCache(1000, 250);
+        Image first = new Image(10, 100);
+        cache.recycle(first);
+        cache.recycle(new Image(10, 100));
+        // 放不下时丢弃最早放入的
+        cache.recycle(new Image(10, 100));
+        assertEquals(200, cache.getPoolBytes());
+        assertTrue(cache.take(10) != first);
+        assertTrue(cache.take(10) != first);
+        assertNull(cache.take(10));
+
+        Image immutable = new Image(10, 100);
+        immutable.reusable = false;
+        cache.recycle(immutable);
+        cache.recycle(new Image(20, 300));
+        assertEquals(0, cache.getPoolBytes());
+
+        PooledLruCache<Object, Image> noPool = newCache(1000, 0);
+        noPool.recycle(new Image(10, 100));
+        assertEquals(0, noPool.getPoolBytes());
+    }
+
+    @Test
+    public void clear_emptiesCacheAndPool() {
+        PooledLruCache<Object, Image> cache = newCache(100, 100);
+        cache.put("a", new Image(10, 100));
+        cache.put("b", new Image(10, 100));
+        cache.clear();
+        assertEquals(0, cache.getSizeBytes());
+        assertEquals(0, cache.getPoolBytes());
+        assertNull(cache.get("b"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroMaxBytes_rejected() {
+        newCache(0, 0);
+    }
+
+    /**
+     * 代替 Bitmap：边长、占用的字节数、是否可以复用
+     */
+    private static final class Image {
+        final int size;
+        final int bytes;
+        boolean reusable = true;
+
+        Image(int size, int bytes) {
+            this.size = size;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * key 为文字，复用池中边长等于 take 的参数的图片可以复用
+     */
+    private static PooledLruCache<Object, Image> newCache(int maxBytes, int poolMaxBytes) {
+        return new PooledLruCache<Object, Image>(maxBytes, poolMaxBytes) {
+            @Override
+            int sizeOf(Image value) {
+                return value.bytes;
+            }
+
+            @Override
+            boolean isReusable(Image value) {
+                return value.reusable;
+            }
+
+            @Override
+            boolean fits(Image value, Object key) {
+                return key instanceof Integer && value.size == (Integer) key;
+            }
+        };
+    }
+
+}
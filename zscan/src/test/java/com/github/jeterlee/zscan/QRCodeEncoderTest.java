@@ -0,0 +1,67 @@
+package com.github.jeterlee.zscan;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+
+import org.junit.Test;
+
+import java.util.Hashtable;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 按模块编码后放大的排版、逐行合并的矩形与 QRCodeWriter 逐像素相同
+ */
+public class QRCodeEncoderTest {
+
+    @Test
+    public void scaledModules_matchQRCodeWriter() throws Exception {
+        String text = "https://github.com/jeterlee/zscan";
+        BitMatrix modules = QRCodeEncoder.encodeModules(text, ErrorCorrectionLevel.L);
+        Hashtable<EncodeHintType, Object> hints = new Hashtable<>();
+        hints.put(EncodeHintType.CHARACTER_SET, "utf-8");
+        for (int size : new int[]{100, 250, 333, 500}) {
+            BitMatrix expected = new QRCodeWriter().encode(text, BarcodeFormat.QR_CODE, size, size, hints);
+            int count = modules.getWidth();
+            int scale = QRCodeEncoder.moduleScale(count, size);
+            int offset = QRCodeEncoder.moduleOffset(count, size);
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x++) {
+                    boolean dark = x >= offset && y >= offset
+                            && x < offset + count * scale && y < offset + count * scale
+                            && modules.get((x - offset) / scale, (y - offset) / scale);
+                    assertEquals("size " + size + " at " + x + "," + y, expected.get(x, y), dark);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void runs_matchQRCodeWriter() throws Exception {
+        String text = "https://github.com/jeterlee/zscan";
+        BitMatrix modules = QRCodeEncoder.encodeModules(text, ErrorCorrectionLevel.L);
+        Hashtable<EncodeHintType, Object> hints = new Hashtable<>();
+        hints.put(EncodeHintType.CHARACTER_SET, "utf-8");
+        for (int size : new int[]{100, 333}) {
+            BitMatrix expected = new QRCodeWriter().encode(text, BarcodeFormat.QR_CODE, size, size, hints);
+            final BitMatrix actual = new BitMatrix(size, size);
+            final int[] finderRuns = new int[1];
+            QRCodeEncoder.forEachRun(modules, 0, 0, size, new QRCodeEncoder.RunCallback() {
+                @Override
+                public void onRun(int left, int top, int right, int bottom, boolean finder) {
+                    actual.setRegion(left, top, right - left, bottom - top);
+                    if (finder) {
+                        finderRuns[0]++;
+                    }
+                }
+            });
+            assertEquals("size " + size, expected, actual);
+            // 每个定位图案的 7 行依次为 1、2、3、3、3、2、1 段（定位图案外的白边分隔了相邻的模块）
+            assertEquals(3 * 15, finderRuns[0]);
+        }
+    }
+
+}
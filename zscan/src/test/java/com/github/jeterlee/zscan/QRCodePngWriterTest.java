@@ -0,0 +1,52 @@
+package com.github.jeterlee.zscan;
+
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 逐行写出的 1 位 PNG 可以被标准的解码器读取，像素与模块排版一致
+ */
+public class QRCodePngWriterTest {
+
+    @Test
+    public void png_matchesModuleLayout() throws Exception {
+        BitMatrix modules = QRCodeEncoder.encodeModules("https://github.com/jeterlee/zscan",
+                ErrorCorrectionLevel.M);
+        QRCodePngWriter writer = new QRCodePngWriter();
+        try {
+            // 宽度不是 8 的倍数，同一个 writer 连续写两张
+            for (int size : new int[]{333, 1203}) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                writer.write(modules, size, out);
+                BufferedImage image = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+                assertEquals(size, image.getWidth());
+                assertEquals(size, image.getHeight());
+                int count = modules.getWidth();
+                int scale = QRCodeEncoder.moduleScale(count, size);
+                int offset = QRCodeEncoder.moduleOffset(count, size);
+                for (int y = 0; y < size; y++) {
+                    for (int x = 0; x < size; x++) {
+                        boolean dark = x >= offset && y >= offset
+                                && x < offset + count * scale && y < offset + count * scale
+                                && modules.get((x - offset) / scale, (y - offset) / scale);
+                        assertEquals("size " + size + " at " + x + "," + y,
+                                dark ? 0xff000000 : 0xffffffff, image.getRGB(x, y));
+                    }
+                }
+            }
+        } finally {
+            writer.release();
+        }
+    }
+
+}
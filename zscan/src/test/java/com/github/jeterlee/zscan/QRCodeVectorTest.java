@@ -0,0 +1,36 @@
+package com.github.jeterlee.zscan;
+
+import com.google.zxing.common.BitMatrix;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 矢量输出：每一行中连续的深色模块合并为一个矩形，坐标包括四周的空白
+ */
+public class QRCodeVectorTest {
+
+    @Test
+    public void runs_areMerged() {
+        BitMatrix modules = new BitMatrix(4, 2);
+        // 第一行：XX.X，第二行：.XXX
+        modules.set(0, 0);
+        modules.set(1, 0);
+        modules.set(3, 0);
+        modules.setRegion(1, 1, 3, 1);
+        assertEquals("M4 4h2v1h-2zM7 4h1v1h-1zM5 5h3v1h-3z", QRCodeVector.toPathData(modules));
+    }
+
+    @Test
+    public void svg_usesModuleViewBox() {
+        BitMatrix modules = new BitMatrix(21, 21);
+        modules.set(0, 0);
+        String svg = QRCodeVector.toSvg(modules, "40mm");
+        assertTrue(svg, svg.contains("viewBox=\"0 0 29 29\""));
+        assertTrue(svg, svg.contains("width=\"40mm\""));
+        assertTrue(svg, svg.contains("d=\"M4 4h1v1h-1z\""));
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.zbar.lib;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * {@link CropRotateStrategy} 的结果必须与整帧旋转后再裁剪的结果逐字节一致
+ */
+public class CropRotateStrategyTest {
+
+    @Test
+    public void fullFrameRotation_matchesLegacyLoop() {
+        int width = 37;
+        int height = 23;
+        byte[] data = randomFrame(width, height, 1);
+
+        RotatedFrame frame = new RotatedFrame();
+        new FullFrameRotateStrategy().rotate(data, width, height, 0, 0, height, width, frame);
+
+        // 原有实现分配的是 data.length 大小的数组，但只有 Y 分量部分会被写入
+        byte[] expected = new byte[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                expected[x * height + height - y - 1] = data[x + y * width];
+            }
+        }
+        assertEquals(height, frame.getWidth());
+        assertEquals(width, frame.getHeight());
+        byte[] actual = new byte[width * height];
+        System.arraycopy(frame.getData(), 0, actual, 0, actual.length);
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void cropRotation_matchesFullFrameRotation() {
+        int width = 64;
+        int height = 48;
+        byte[] data = randomFrame(width, height, 2);
+        // 旋转后的图像为 48 * 64
+        int[][] crops = {
+                {0, 0, 48, 64},
+                {0, 0, 1, 1},
+                {47, 63, 1, 1},
+                {5, 7, 30, 40},
+                {10, 0, 38, 64},
+                {0, 20, 48, 44},
+                {13, 17, 17, 13},
+        };
+        for (int[] crop : crops) {
+            assertCropMatches(data, width, height, crop[0], crop[1], crop[2], crop[3]);
+        }
+    }
+
+    @Test
+    public void cropRotation_matchesFullFrameRotationForPreviewSizes() {
+        int width = 640;
+        int height = 480;
+        byte[] data = randomFrame(width, height, 3);
+        assertCropMatches(data, width, height, 90, 170, 300, 300);
+        // 扫描框横向铺满
+        assertCropMatches(data, width, height, 0, 100, 480, 360);
+    }
+
+    @Test
+    public void cropRotation_reusesBuffer() {
+        int width = 64;
+        int height = 48;
+        CropRotateStrategy strategy = new CropRotateStrategy();
+        RotatedFrame frame = new RotatedFrame();
+
+        strategy.rotate(randomFrame(width, height, 4), width, height, 4, 4, 40, 40, frame);
+        byte[] first = frame.getData();
+        strategy.rotate(randomFrame(width, height, 5), width, height, 8, 8, 20, 20, frame);
+        assertSame(first, frame.getData());
+        assertEquals(false, frame.isCropRequired());
+    }
+
+    @Test
+    public void directCropRotation_matchesHeapCropRotation() {
+        int width = 64;
+        int height = 48;
+        byte[] data = randomFrame(width, height, 6);
+        RotatedFrame heap = new RotatedFrame();
+        new CropRotateStrategy().rotate(data, width, height, 5, 7, 30, 40, heap);
+
+        RotatedFrame direct = new RotatedFrame();
+        new CropRotateStrategy(true).rotate(data, width, height, 5, 7, 30, 40, direct);
+        ByteBuffer directData = direct.getDirectData();
+        assertNotNull(directData);
+        byte[] actual = new byte[30 * 40];
+        directData.duplicate().get(actual);
+        byte[] expected = new byte[30 * 40];
+        System.arraycopy(heap.getData(), 0, expected, 0, expected.length);
+        assertArrayEquals(expected, actual);
+
+        // 给 zxing 使用的数组与 direct buffer 中的数据一致
+        byte[] fromGetData = new byte[30 * 40];
+        System.arraycopy(direct.getData(), 0, fromGetData, 0, fromGetData.length);
+        assertArrayEquals(expected, fromGetData);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cropRotation_rejectsCropOutsideFrame() {
+        new CropRotateStrategy().rotate(new byte[64 * 48], 64, 48, 10, 0, 48, 64,
+                new RotatedFrame());
+    }
+
+    private static void assertCropMatches(byte[] data, int width, int height,
+                                          int left, int top, int cropWidth, int cropHeight) {
+        RotatedFrame full = new RotatedFrame();
+        new FullFrameRotateStrategy().rotate(data, width, height,
+                left, top, cropWidth, cropHeight, full);
+        byte[] expected = new byte[cropWidth * cropHeight];
+        for (int y = 0; y < cropHeight; y++) {
+            System.arraycopy(full.getData(), (full.getCropTop() + y) * full.getWidth()
+                    + full.getCropLeft(), expected, y * cropWidth, cropWidth);
+        }
+
+        RotatedFrame cropped = new RotatedFrame();
+        new CropRotateStrategy().rotate(data, width, height,
+                left, top, cropWidth, cropHeight, cropped);
+        assertEquals(cropWidth, cropped.getWidth());
+        assertEquals(cropHeight, cropped.getHeight());
+        byte[] actual = new byte[cropWidth * cropHeight];
+        System.arraycopy(cropped.getData(), 0, actual, 0, actual.length);
+        assertArrayEquals(expected, actual);
+    }
+
+    private static byte[] randomFrame(int width, int height, long seed) {
+        // NV21：Y 分量之后还有 width * height / 2 的 UV 分量
+        byte[] data = new byte[width * height * 3 / 2];
+        new Random(seed).nextBytes(data);
+        return data;
+    }
+
+}
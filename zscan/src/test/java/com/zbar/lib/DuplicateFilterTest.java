@@ -0,0 +1,54 @@
+package com.zbar.lib;
+
+import com.google.zxing.BarcodeFormat;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 连续扫码时的重复过滤（{@link DuplicateFilter}）
+ */
+public class DuplicateFilterTest {
+
+    @Test
+    public void repeatWithinWindow_isDuplicate() {
+        DuplicateFilter filter = new DuplicateFilter(8, 1000);
+        assertFalse(filter.isDuplicate(BarcodeFormat.QR_CODE, "a", 0));
+        assertTrue(filter.isDuplicate(BarcodeFormat.QR_CODE, "a", 500));
+        // 每次出现都会刷新时间
+        assertTrue(filter.isDuplicate(BarcodeFormat.QR_CODE, "a", 1400));
+        assertFalse(filter.isDuplicate(BarcodeFormat.QR_CODE, "a", 2401));
+        // 码制不同时不算重复
+        assertFalse(filter.isDuplicate(BarcodeFormat.CODE_128, "a", 2402));
+    }
+
+    @Test
+    public void leastRecentlySeen_isEvicted() {
+        DuplicateFilter filter = new DuplicateFilter(2, 1000);
+        filter.isDuplicate(null, "a", 0);
+        filter.isDuplicate(null, "b", 1);
+        filter.isDuplicate(null, "a", 2);
+        filter.isDuplicate(null, "c", 3);
+        assertTrue(filter.isDuplicate(null, "a", 4));
+        assertFalse(filter.isDuplicate(null, "b", 5));
+    }
+
+    @Test
+    public void filter_keepsOnlyNewSymbols() {
+        DuplicateFilter filter = new DuplicateFilter(8, 1000);
+        DecodeResult result = new DecodeResult();
+        result.addSymbol().set(DecodeResult.Symbol.ZBAR_CODE128, BarcodeFormat.CODE_128, 1, "a");
+        assertEquals(1, filter.filter(result, 0).getSymbolCount());
+
+        result.addSymbol().set(DecodeResult.Symbol.ZBAR_CODE128, BarcodeFormat.CODE_128, 1, "b");
+        DecodeResult fresh = filter.filter(result, 10);
+        assertEquals(1, fresh.getSymbolCount());
+        assertEquals("b", fresh.getText());
+        assertNull(filter.filter(result, 20));
+    }
+
+}
@@ -0,0 +1,145 @@
+package com.zbar.lib;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.DecodeHintType;
+import com.zxing.camera.FrameRecordReader;
+import com.zxing.camera.FrameRecordWriter;
+import com.zxing.camera.RecordedFrame;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 录制文件的读写，以及在 JVM 上回放预览帧（{@link FrameReplayer}）。
+ * 回放手机上录制的现场素材：./gradlew :zscan:testDebugUnitTest -Pzscan.replay.file=录制文件，
+ * 报告写入 build/reports/replay/
+ */
+public class FrameReplayTest {
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 480;
+
+    @Test
+    public void recordFile_roundTrips() throws IOException {
+        RecordedFrame frame = record(SyntheticFrames.render(BarcodeFormat.QR_CODE, "zscan",
+                WIDTH, HEIGHT, 1), 1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FrameRecordWriter writer = new FrameRecordWriter(out);
+        writer.write(frame);
+        writer.write(frame.withExpected(null, null));
+        writer.close();
+
+        FrameRecordReader reader = new FrameRecordReader(new ByteArrayInputStream(out.toByteArray()));
+        RecordedFrame first = reader.next();
+        assertEquals(WIDTH, first.getWidth());
+        assertEquals(HEIGHT, first.getHeight());
+        assertEquals(frame.getCropLeft(), first.getCropLeft());
+        assertEquals(frame.getCropTop(), first.getCropTop());
+        assertEquals(frame.getCropWidth(), first.getCropWidth());
+        assertEquals(frame.getCropHeight(), first.getCropHeight());
+        assertEquals(frame.getTimestampNanos(), first.getTimestampNanos());
+        assertEquals("QR_CODE", first.getExpectedFormat());
+        assertEquals("zscan", first.getExpectedText());
+        assertArrayEquals(frame.getLuminance(), first.getLuminance());
+
+        RecordedFrame second = reader.next();
+        assertNull(second.getExpectedFormat());
+        assertNull(second.getExpectedText());
+        assertNull(reader.next());
+        reader.close();
+    }
+
+    @Test
+    public void replay_decodesSyntheticCorpus() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FrameRecordWriter writer = new FrameRecordWriter(out);
+        long timestamp = 0;
+        // 3 个二维码、Code 128、EAN-13
+        for (SyntheticFrames.Frame frame : SyntheticFrames.corpus(WIDTH, HEIGHT)) {
+            writer.write(record(frame, ++timestamp));
+        }
+        // 没有标注的帧（例如现场录制的素材）按识别到的码制统计
+        writer.write(record(SyntheticFrames.render(BarcodeFormat.CODE_128, "UNLABELED-42",
+                WIDTH, HEIGHT, 6), ++timestamp).withExpected(null, null));
+        // 没有条码的帧
+        SyntheticFrames.Frame first = SyntheticFrames.corpus(WIDTH, HEIGHT).get(0);
+        writer.write(new RecordedFrame(new byte[WIDTH * HEIGHT], WIDTH, HEIGHT, first.cropLeft,
+                first.cropTop, first.cropSize, first.cropSize, ++timestamp, null, null));
+        writer.close();
+
+        FrameRecordReader reader = new FrameRecordReader(new ByteArrayInputStream(out.toByteArray()));
+        FrameReplayer.Report report = newReplayer().replay(reader);
+        reader.close();
+
+        assertEquals(7, report.getFrameCount());
+        assertEquals(6, report.getDecodedCount());
+        assertEquals(1.0, report.getSuccessRatio("QR_CODE"), 0);
+        assertEquals(1.0, report.getSuccessRatio("CODE_128"), 0);
+        assertEquals(1.0, report.getSuccessRatio("EAN_13"), 0);
+        assertEquals(0.0, report.getSuccessRatio(FrameReplayer.UNLABELED), 0);
+        String text = report.toString();
+        assertTrue(text, text.contains("QR_CODE: 3/3"));
+        assertTrue(text, text.contains("CODE_128: 2/2"));
+        assertTrue(text, text.contains(FrameReplayer.UNLABELED + ": 0/1"));
+    }
+
+    @Test
+    public void replay_recordedFile() throws IOException {
+        String path = System.getProperty("zscan.replay.file");
+        Assume.assumeTrue(path != null);
+        FrameReplayer.Report report;
+        FrameRecordReader reader = new FrameRecordReader(new FileInputStream(path));
+        try {
+            report = newReplayer().replay(reader);
+        } finally {
+            reader.close();
+        }
+        assertTrue("no frames in " + path, report.getFrameCount() > 0);
+
+        File dir = new File("build/reports/replay");
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        Writer out = new OutputStreamWriter(new FileOutputStream(
+                new File(dir, new File(path).getName() + ".txt")), "UTF-8");
+        try {
+            out.write(report.toString());
+        } finally {
+            out.close();
+        }
+    }
+
+    private static FrameReplayer newReplayer() {
+        Map<DecodeHintType, Object> hints = new EnumMap<>(DecodeHintType.class);
+        hints.put(DecodeHintType.POSSIBLE_FORMATS, EnumSet.of(BarcodeFormat.QR_CODE,
+                BarcodeFormat.CODE_128, BarcodeFormat.EAN_13, BarcodeFormat.CODE_39));
+        return new FrameReplayer(new CropRotateStrategy(), new ZxingDecoderEngine(hints));
+    }
+
+    /**
+     * 合成的预览帧转换为录制的帧（只保留 Y 分量），标注码制与内容
+     */
+    private static RecordedFrame record(SyntheticFrames.Frame frame, long timestamp) {
+        return new RecordedFrame(Arrays.copyOf(frame.data, frame.width * frame.height),
+                frame.width, frame.height, frame.cropLeft, frame.cropTop,
+                frame.cropSize, frame.cropSize, timestamp, frame.format.name(), frame.text);
+    }
+
+}
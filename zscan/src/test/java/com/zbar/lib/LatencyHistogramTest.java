@@ -0,0 +1,50 @@
+package com.zbar.lib;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 耗时直方图的分桶与百分位数（{@link LatencyHistogram}）
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void buckets_coverValues() {
+        long previousUpper = -1;
+        for (int index = 0; index < 272; index++) {
+            long upper = LatencyHistogram.bucketUpperBound(index);
+            // 桶连续，不重叠
+            assertEquals(index, LatencyHistogram.bucketIndex(previousUpper + 1));
+            assertEquals(index, LatencyHistogram.bucketIndex(upper));
+            previousUpper = upper;
+        }
+        assertEquals(271, LatencyHistogram.bucketIndex(Long.MAX_VALUE / 1000));
+    }
+
+    @Test
+    public void percentiles_withinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // 1 ~ 1000 毫秒各一次
+        for (int millis = 1; millis <= 1000; millis++) {
+            histogram.record(millis * 1000000L);
+        }
+        LatencyHistogram.Summary summary = histogram.summarize();
+        assertEquals(1000, summary.getCount());
+        assertEquals(1000000, summary.getMaxMicros());
+        assertEquals(500500, summary.getMeanMicros());
+        assertNear(500000, summary.getP50Micros());
+        assertNear(950000, summary.getP95Micros());
+        assertNear(990000, summary.getP99Micros());
+
+        histogram.reset();
+        assertEquals(0, histogram.summarize().getCount());
+        assertEquals(0, histogram.summarize().getP99Micros());
+    }
+
+    private static void assertNear(long expected, long actual) {
+        assertTrue(expected + " vs " + actual, actual >= expected && actual <= expected * 1.125);
+    }
+
+}
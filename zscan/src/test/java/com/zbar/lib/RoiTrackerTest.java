@@ -0,0 +1,136 @@
+package com.zbar.lib;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 自适应解码窗口的坐标换算、缩小与恢复（{@link RoiTracker}）
+ */
+public class RoiTrackerTest {
+    /**
+     * 旋转后的预览帧中 600 * 600 的扫描框
+     */
+    private static final int[] FRAMING = {100, 200, 700, 800};
+
+    @Test
+    public void window_isFramingRectUntilDecoded() {
+        RoiTracker tracker = new RoiTracker(3);
+        int[] window = new int[4];
+        assertFalse(getWindow(tracker, window));
+        assertArrayEquals(FRAMING, window);
+    }
+
+    @Test
+    public void decoded_shrinksWindowAroundSymbol() {
+        RoiTracker tracker = new RoiTracker(3);
+        int[] window = new int[4];
+        getWindow(tracker, window);
+        // 条码在扫描框中的 (200, 200) ~ (260, 260)，坐标相对于解码窗口
+        tracker.onDecoded(window[0], window[1], symbolAt(200, 200, 260, 260), true);
+
+        assertTrue(getWindow(tracker, window));
+        // 条码位于 (300, 400) ~ (361, 461)，中心 (330, 430)；
+        // 边距为扫描框较短一边的 1/6（100）与条码尺寸的一半中较大的一个
+        assertArrayEquals(new int[]{200, 300, 460, 560}, window);
+
+        // 下一帧的坐标相对于缩小后的窗口，条码没有移动时窗口不变
+        tracker.onDecoded(window[0], window[1], symbolAt(100, 100, 160, 160), true);
+        assertTrue(getWindow(tracker, window));
+        assertArrayEquals(new int[]{200, 300, 460, 560}, window);
+    }
+
+    @Test
+    public void misses_restoreFramingRect() {
+        RoiTracker tracker = new RoiTracker(3);
+        int[] window = new int[4];
+        getWindow(tracker, window);
+        tracker.onDecoded(window[0], window[1], symbolAt(200, 200, 260, 260), true);
+        for (int i = 0; i < 2; i++) {
+            assertTrue(getWindow(tracker, window));
+            tracker.onDecoded(window[0], window[1], new DecodeResult(), false);
+        }
+        assertTrue(getWindow(tracker, window));
+        tracker.onDecoded(window[0], window[1], new DecodeResult(), false);
+        assertFalse(getWindow(tracker, window));
+        assertArrayEquals(FRAMING, window);
+    }
+
+    @Test
+    public void decodedWithoutPoints_keepsWindow() {
+        RoiTracker tracker = new RoiTracker(2);
+        int[] window = new int[4];
+        getWindow(tracker, window);
+        tracker.onDecoded(window[0], window[1], symbolAt(200, 200, 260, 260), true);
+        getWindow(tracker, window);
+        int[] tracked = window.clone();
+
+        tracker.onDecoded(window[0], window[1], new DecodeResult(), false);
+        // 识别成功但没有坐标：不算未识别，窗口不变
+        DecodeResult noPoints = new DecodeResult();
+        noPoints.addSymbol().set(DecodeResult.Symbol.ZBAR_NONE, null, 0, "zscan");
+        tracker.onDecoded(window[0], window[1], noPoints, true);
+        tracker.onDecoded(window[0], window[1], new DecodeResult(), false);
+        assertTrue(getWindow(tracker, window));
+        assertArrayEquals(tracked, window);
+    }
+
+    @Test
+    public void possiblePoints_trackedButCountedAsMiss() {
+        RoiTracker tracker = new RoiTracker(2);
+        int[] window = new int[4];
+        getWindow(tracker, window);
+        DecodeResult finderOnly = new DecodeResult();
+        finderOnly.addPossiblePoint(300, 300);
+        finderOnly.addPossiblePoint(340, 340);
+        tracker.onDecoded(window[0], window[1], finderOnly, false);
+        assertTrue(getWindow(tracker, window));
+
+        tracker.onDecoded(window[0], window[1], new DecodeResult(), false);
+        assertFalse(getWindow(tracker, window));
+    }
+
+    @Test
+    public void symbolOutsideFraming_stopsTracking() {
+        RoiTracker tracker = new RoiTracker(5);
+        int[] window = new int[4];
+        getWindow(tracker, window);
+        tracker.onDecoded(window[0], window[1], symbolAt(200, 200, 260, 260), true);
+        int[] moved = new int[4];
+        // 扫描框移动到别处（例如重新计算了扫描框）
+        assertFalse(tracker.getWindow(2000, 2000, 2600, 2600, moved));
+        assertArrayEquals(new int[]{2000, 2000, 2600, 2600}, moved);
+        assertFalse(getWindow(tracker, window));
+    }
+
+    @Test
+    public void largeSymbol_decodesWholeFramingRect() {
+        RoiTracker tracker = new RoiTracker(5);
+        int[] window = new int[4];
+        getWindow(tracker, window);
+        tracker.onDecoded(window[0], window[1], symbolAt(50, 50, 550, 550), true);
+        assertFalse(getWindow(tracker, window));
+        assertArrayEquals(FRAMING, window);
+    }
+
+    private static boolean getWindow(RoiTracker tracker, int[] window) {
+        return tracker.getWindow(FRAMING[0], FRAMING[1], FRAMING[2], FRAMING[3], window);
+    }
+
+    /**
+     * 识别到一个条码，四个顶点为给定矩形的四个角（坐标相对于解码窗口）
+     */
+    private static DecodeResult symbolAt(int left, int top, int right, int bottom) {
+        DecodeResult result = new DecodeResult();
+        DecodeResult.Symbol symbol = result.addSymbol();
+        symbol.set(DecodeResult.Symbol.ZBAR_QRCODE, null, 1, "zscan");
+        symbol.addPoint(left, top);
+        symbol.addPoint(right, top);
+        symbol.addPoint(right, bottom);
+        symbol.addPoint(left, bottom);
+        return result;
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.zbar.lib;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 清晰度的计算与跳帧的判断（{@link SharpnessGate}）
+ */
+public class SharpnessGateTest {
+
+    @Test
+    public void laplacianVariance_blurLowersScore() {
+        int width = 320;
+        int height = 240;
+        byte[] sharp = modules(width, height, 3);
+        byte[] blurred = boxBlur(sharp, width, height, 3);
+        float sharpScore = SharpnessGate.laplacianVariance(sharp, width, 0, 0, width, height);
+        float blurredScore = SharpnessGate.laplacianVariance(blurred, width, 0, 0, width, height);
+        assertTrue(sharpScore > 4 * blurredScore);
+        // 没有纹理的画面清晰度为 0
+        assertEquals(0f, SharpnessGate.laplacianVariance(new byte[width * height], width,
+                0, 0, width, height), 0f);
+    }
+
+    @Test
+    public void accept_windowInsideFrame() {
+        int width = 320;
+        int height = 240;
+        SharpnessGate gate = new SharpnessGate(0.5f, 5);
+        // 旋转后的窗口贴着右下角，读取原图时不能越界
+        assertTrue(gate.accept(modules(width, height, 3), width, height,
+                height - 100, width - 100, 100, 100));
+        assertTrue(gate.getLastScore() > 0);
+    }
+
+    @Test
+    public void onScore_skipsBlurryFramesAfterWarmup() {
+        SharpnessGate gate = new SharpnessGate(0.5f, 3);
+        for (int i = 0; i < 4; i++) {
+            // 开始时总是解码，用于建立平均值
+            assertTrue(gate.onScore(i == 0 ? 1 : 1000));
+        }
+        assertTrue(gate.onScore(1000));
+        assertFalse(gate.onScore(10));
+        assertFalse(gate.onScore(10));
+        assertFalse(gate.onScore(10));
+        assertEquals(3, gate.getConsecutiveSkips());
+        // 连续跳过 maxSkips 帧后强制解码
+        assertTrue(gate.onScore(10));
+        assertEquals(0, gate.getConsecutiveSkips());
+    }
+
+    @Test
+    public void onScore_adaptsToLowTextureScene() {
+        SharpnessGate gate = new SharpnessGate(0.5f, 100);
+        for (int i = 0; i < 4; i++) {
+            gate.onScore(1000);
+        }
+        int skipped = 0;
+        for (int i = 0; i < 50; i++) {
+            if (!gate.onScore(100)) {
+                skipped++;
+            }
+        }
+        // 平均值逐渐降低，场景本身纹理少时不会一直跳过
+        assertTrue(skipped < 50);
+        assertTrue(gate.onScore(100));
+    }
+
+    /**
+     * 随机的黑白方块，类似条码的模块
+     */
+    private static byte[] modules(int width, int height, int cell) {
+        Random random = new Random(1);
+        int columns = (width + cell - 1) / cell;
+        int rows = (height + cell - 1) / cell;
+        boolean[] dark = new boolean[columns * rows];
+        for (int i = 0; i < dark.length; i++) {
+            dark[i] = random.nextBoolean();
+        }
+        byte[] data = new byte[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                data[y * width + x] = (byte) (dark[y / cell * columns + x / cell] ? 0 : 255);
+            }
+        }
+        return data;
+    }
+
+    private static byte[] boxBlur(byte[] data, int width, int height, int radius) {
+        byte[] out = new byte[data.length];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int sum = 0;
+                int count = 0;
+                for (int dy = -radius; dy <= radius; dy++) {
+                    for (int dx = -radius; dx <= radius; dx++) {
+                        int sx = x + dx;
+                        int sy = y + dy;
+                        if (sx >= 0 && sx < width && sy >= 0 && sy < height) {
+                            sum += data[sy * width + sx] & 0xff;
+                            count++;
+                        }
+                    }
+                }
+                out[y * width + x] = (byte) (sum / count);
+            }
+        }
+        return out;
+    }
+
+}
@@ -0,0 +1,156 @@
+package com.zbar.lib;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.MultiFormatWriter;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * <pre>
+ * Title: SyntheticFrames
+ * Description: 合成的预览帧：与相机输出相同的横屏 NV21 数据，顺时针旋转 90 度后
+ * 条码位于扫描框中央，并带有一定的噪声。单元测试（{@link FrameReplayTest}）与 benchmark 模块的基准测试共用。
+ * </pre>
+ *
+ * @author <a href="https://www.github.com/jeterlee"></a>
+ * @date 2026/10/18 0018
+ */
+public final class SyntheticFrames {
+    private static final int BLACK = 40;
+    private static final int WHITE = 215;
+    private static final int NOISE = 12;
+
+    /**
+     * 一帧预览数据，以及旋转后图像中的扫描框
+     */
+    public static final class Frame {
+        public final byte[] data;
+        public final int width;
+        public final int height;
+        public final int cropLeft;
+        public final int cropTop;
+        public final int cropSize;
+        public final BarcodeFormat format;
+        public final String text;
+
+        Frame(byte[] data, int width, int height, int cropLeft, int cropTop, int cropSize,
+              BarcodeFormat format, String text) {
+            this.data = data;
+            this.width = width;
+            this.height = height;
+            this.cropLeft = cropLeft;
+            this.cropTop = cropTop;
+            this.cropSize = cropSize;
+            this.format = format;
+            this.text = text;
+        }
+    }
+
+    private SyntheticFrames() {
+    }
+
+    /**
+     * 解析 "640x480" 形式的预览尺寸
+     */
+    public static int[] parseSize(String size) {
+        int index = size.indexOf('x');
+        return new int[]{Integer.parseInt(size.substring(0, index)),
+                Integer.parseInt(size.substring(index + 1))};
+    }
+
+    /**
+     * 不同码制、不同内容长度的一组预览帧
+     */
+    public static List<Frame> corpus(int width, int height) {
+        List<Frame> frames = new ArrayList<>();
+        frames.add(render(BarcodeFormat.QR_CODE, "https://github.com/jeterlee/zscan", width, height, 1));
+        frames.add(render(BarcodeFormat.QR_CODE, "zscan", width, height, 2));
+        frames.add(render(BarcodeFormat.QR_CODE, repeat("zbar+zxing ", 12), width, height, 3));
+        frames.add(render(BarcodeFormat.CODE_128, "ZSCAN-0123456789", width, height, 4));
+        frames.add(render(BarcodeFormat.EAN_13, "6901234567892", width, height, 5));
+        return frames;
+    }
+
+    /**
+     * 生成一帧预览数据
+     *
+     * @param format 码制
+     * @param text   条码内容
+     * @param width  预览帧宽度（横屏）
+     * @param height 预览帧高度（横屏）
+     * @param seed   噪声的随机种子
+     */
+    public static Frame render(BarcodeFormat format, String text, int width, int height, long seed) {
+        // 旋转后（竖屏）的图像宽高互换，扫描框为中间的正方形
+        int portraitWidth = height;
+        int portraitHeight = width;
+        int cropSize = Math.min(portraitWidth, portraitHeight) * 3 / 4;
+        int cropLeft = (portraitWidth - cropSize) / 2;
+        int cropTop = (portraitHeight - cropSize) / 2;
+
+        int codeWidth = cropSize * 4 / 5;
+        int codeHeight = format == BarcodeFormat.QR_CODE ? codeWidth : codeWidth / 2;
+        BitMatrix matrix = encode(format, text, codeWidth, codeHeight);
+        int codeLeft = (portraitWidth - matrix.getWidth()) / 2;
+        int codeTop = (portraitHeight - matrix.getHeight()) / 2;
+
+        Random random = new Random(seed);
+        byte[] data = new byte[width * height * 3 / 2];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                // 与 DecodeHandler 的旋转相反：原图 (x, y) 对应旋转后的 (height - 1 - y, x)
+                int px = height - 1 - y - codeLeft;
+                int py = x - codeTop;
+                boolean black = px >= 0 && py >= 0 && px < matrix.getWidth() && py < matrix.getHeight()
+                        && matrix.get(px, py);
+                int luma = (black ? BLACK : WHITE) + random.nextInt(2 * NOISE + 1) - NOISE;
+                data[y * width + x] = (byte) luma;
+            }
+        }
+        // UV 分量为灰色
+        for (int i = width * height; i < data.length; i++) {
+            data[i] = (byte) 128;
+        }
+        return new Frame(data, width, height, cropLeft, cropTop, cropSize, format, text);
+    }
+
+    /**
+     * 与 {@link #render} 相同的条码图像，直接以 ARGB 像素（竖屏）输出，用于 BitmapLuminanceSource
+     */
+    public static int[] renderArgb(BarcodeFormat format, String text, int size) {
+        BitMatrix matrix = encode(format, text, size, size);
+        int[] pixels = new int[size * size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                pixels[y * size + x] = matrix.get(x, y) ? 0xff000000 : 0xffffffff;
+            }
+        }
+        return pixels;
+    }
+
+    private static BitMatrix encode(BarcodeFormat format, String text, int width, int height) {
+        Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+        hints.put(EncodeHintType.CHARACTER_SET, "utf-8");
+        try {
+            return new MultiFormatWriter().encode(text, format, width, height, hints);
+        } catch (WriterException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static String repeat(String s, int count) {
+        StringBuilder sb = new StringBuilder(s.length() * count);
+        for (int i = 0; i < count; i++) {
+            sb.append(s);
+        }
+        return sb.toString();
+    }
+
+}
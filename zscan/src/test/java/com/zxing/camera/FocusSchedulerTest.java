@@ -0,0 +1,163 @@
+package com.zxing.camera;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 对焦的时机（{@link FocusScheduler}）与扫描框到对焦区域的换算（{@link AutoFocusManager}）
+ */
+public class FocusSchedulerTest {
+
+    @Test
+    public void failureStreak_triggersOnceUntilSuccessOrBlur() {
+        FocusScheduler scheduler = started();
+        long now = 10000;
+        assertFalse(failStreak(scheduler, now, FocusScheduler.FAILURE_STREAK - 1));
+        assertTrue(scheduler.onFrameFailed(now));
+        focus(scheduler, now, now + 300);
+
+        // 对焦后仍然连续失败，不再触发对焦
+        assertFalse(failStreak(scheduler, now + 400, 10 * FocusScheduler.FAILURE_STREAK));
+
+        // 识别成功后重新允许触发（推迟结束之后）
+        long decoded = now + 1000;
+        scheduler.onFrameDecoded(decoded);
+        assertFalse(failStreak(scheduler, decoded + 100, FocusScheduler.FAILURE_STREAK));
+        long later = decoded + FocusScheduler.SUCCESS_BACKOFF_MS;
+        assertTrue(failStreak(scheduler, later, FocusScheduler.FAILURE_STREAK));
+        focus(scheduler, later, later + 300);
+        assertFalse(failStreak(scheduler, later + 400, FocusScheduler.FAILURE_STREAK));
+
+        // 画面变模糊后也重新允许
+        assertFalse(scheduler.onFrameBlurry());
+        assertTrue(scheduler.onFrameBlurry());
+        focus(scheduler, later + 1000, later + 1300);
+        assertTrue(failStreak(scheduler, later + 1400, FocusScheduler.FAILURE_STREAK));
+    }
+
+    @Test
+    public void framesDuringFocus_notCounted() {
+        FocusScheduler scheduler = started();
+        assertEquals(0, scheduler.tryStartFocus(10000));
+        // 对焦过程中画面模糊、识别失败是正常的
+        assertFalse(failStreak(scheduler, 10100, 3 * FocusScheduler.FAILURE_STREAK));
+        assertFalse(scheduler.onFrameBlurry());
+        assertFalse(scheduler.onFrameBlurry());
+        scheduler.onFocusFinished(10500);
+        // 只从对焦结束后开始计数
+        assertFalse(failStreak(scheduler, 10600, FocusScheduler.FAILURE_STREAK - 1));
+        assertFalse(scheduler.onFrameBlurry());
+        assertTrue(scheduler.onFrameBlurry());
+    }
+
+    @Test
+    public void triggeredFocus_waitsMinInterval() {
+        FocusScheduler scheduler = started();
+        focus(scheduler, 10000, 10200);
+        assertFalse(scheduler.onFrameBlurry());
+        assertTrue(scheduler.onFrameBlurry());
+        assertEquals(FocusScheduler.MIN_FOCUS_INTERVAL_MS - 100, scheduler.tryStartFocus(10300));
+        assertEquals(0, scheduler.tryStartFocus(10200 + FocusScheduler.MIN_FOCUS_INTERVAL_MS));
+        // 正在对焦时不再开始
+        assertEquals(-1, scheduler.tryStartFocus(20000));
+    }
+
+    @Test
+    public void idleFocus_backsOffAndBlurRestores() {
+        FocusScheduler scheduler = started();
+        long now = 10000;
+        // 开始时的对焦不加倍间隔
+        assertEquals(FocusScheduler.AUTO_FOCUS_INTERVAL_MS, focus(scheduler, now, now + 100));
+        long expected = FocusScheduler.AUTO_FOCUS_INTERVAL_MS;
+        for (int i = 0; i < 4; i++) {
+            now += 10000;
+            expected = Math.min(FocusScheduler.MAX_AUTO_FOCUS_INTERVAL_MS, expected * 2);
+            assertEquals(expected, focus(scheduler, now, now + 100));
+        }
+        assertEquals(FocusScheduler.MAX_AUTO_FOCUS_INTERVAL_MS, expected);
+
+        scheduler.onFrameBlurry();
+        assertTrue(scheduler.onFrameBlurry());
+        assertEquals(FocusScheduler.AUTO_FOCUS_INTERVAL_MS, scheduler.getIntervalMillis());
+        now += 10000;
+        assertEquals(FocusScheduler.AUTO_FOCUS_INTERVAL_MS, focus(scheduler, now, now + 100));
+    }
+
+    @Test
+    public void stopped_ignoresEvents() {
+        FocusScheduler scheduler = started();
+        assertEquals(0, scheduler.tryStartFocus(10000));
+        scheduler.stop();
+        assertEquals(-1, scheduler.onFocusFinished(10100));
+        assertEquals(-1, scheduler.onFrameDecoded(10200));
+        assertFalse(failStreak(scheduler, 20000, 3 * FocusScheduler.FAILURE_STREAK));
+        assertFalse(scheduler.onFrameBlurry());
+        assertFalse(scheduler.onFrameBlurry());
+        assertEquals(-1, scheduler.tryStartFocus(20000));
+
+        scheduler.start();
+        assertEquals(0, scheduler.tryStartFocus(30000));
+    }
+
+    @Test
+    public void toCameraArea_mapsRotatedCropRect() {
+        int[] area = new int[4];
+        // 1280 * 720 的预览帧旋转后为 720 * 1280，扫描框为中央 400 * 400
+        assertTrue(AutoFocusManager.toCameraArea(160, 440, 560, 840, 1280, 720, area));
+        assertArrayEquals(new int[]{-313, -556, 312, 555}, area);
+
+        // 整个预览帧对应整个相机区域
+        assertTrue(AutoFocusManager.toCameraArea(0, 0, 720, 1280, 1280, 720, area));
+        assertArrayEquals(new int[]{-1000, -1000, 1000, 1000}, area);
+
+        // 超出预览帧的部分被截断
+        assertTrue(AutoFocusManager.toCameraArea(-10, -20, 100, 1300, 1280, 720, area));
+        assertArrayEquals(new int[]{-1000, 722, 1000, 1000}, area);
+    }
+
+    @Test
+    public void toCameraArea_rejectsEmpty() {
+        int[] area = new int[4];
+        assertFalse(AutoFocusManager.toCameraArea(100, 100, 100, 200, 1280, 720, area));
+        assertFalse(AutoFocusManager.toCameraArea(100, 200, 200, 100, 1280, 720, area));
+        assertFalse(AutoFocusManager.toCameraArea(0, 0, 100, 100, 0, 720, area));
+    }
+
+    /**
+     * 已经开始，还没有对焦
+     */
+    private static FocusScheduler started() {
+        FocusScheduler scheduler = new FocusScheduler();
+        scheduler.start();
+        return scheduler;
+    }
+
+    /**
+     * 完成一次对焦
+     *
+     * @return 下一次定期对焦的延迟
+     */
+    private static long focus(FocusScheduler scheduler, long start, long end) {
+        assertEquals(0, scheduler.tryStartFocus(start));
+        assertTrue(scheduler.isFocusing());
+        return scheduler.onFocusFinished(end);
+    }
+
+    /**
+     * 连续 count 帧识别失败
+     *
+     * @return 是否触发了对焦
+     */
+    private static boolean failStreak(FocusScheduler scheduler, long now, int count) {
+        boolean triggered = false;
+        for (int i = 0; i < count; i++) {
+            triggered |= scheduler.onFrameFailed(now);
+        }
+        return triggered;
+    }
+
+}
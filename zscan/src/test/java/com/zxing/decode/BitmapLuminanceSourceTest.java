@@ -0,0 +1,85 @@
+package com.zxing.decode;
+
+import com.google.zxing.LuminanceSource;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link BitmapLuminanceSource} 的亮度转换，以及不复制数据的裁剪与旋转
+ */
+public class BitmapLuminanceSourceTest {
+
+    @Test
+    public void luma_usesAllChannels() {
+        // 原来只取蓝色分量，纯红与纯黑无法区分
+        assertEquals(77, BitmapLuminanceSource.luma(0xffff0000));
+        assertEquals(149, BitmapLuminanceSource.luma(0xff00ff00));
+        assertEquals(29, BitmapLuminanceSource.luma(0xff0000ff));
+        assertEquals(0, BitmapLuminanceSource.luma(0xff000000));
+        assertEquals(255, BitmapLuminanceSource.luma(0xffffffff));
+        // 透明按白色处理
+        assertEquals(255, BitmapLuminanceSource.luma(0x00000000));
+    }
+
+    @Test
+    public void cropAndRotate_matchCopiedImage() {
+        int width = 5;
+        int height = 4;
+        int[] pixels = new int[width * height];
+        byte[] expected = new byte[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = 0xff000000 | (i * 0x0a0a0a);
+            expected[i] = (byte) BitmapLuminanceSource.luma(pixels[i]);
+        }
+        LuminanceSource source = new BitmapLuminanceSource(width, height, pixels);
+        assertArrayEquals(expected, source.getMatrix());
+
+        byte[] reference = expected;
+        int referenceWidth = width;
+        int referenceHeight = height;
+        for (int turn = 0; turn < 4; turn++) {
+            assertEquals(referenceWidth, source.getWidth());
+            assertEquals(referenceHeight, source.getHeight());
+            assertArrayEquals(reference, source.getMatrix());
+            assertArrayEquals(crop(reference, referenceWidth, 1, 1, 2, 2),
+                    source.crop(1, 1, 2, 2).getMatrix());
+            assertArrayEquals(crop(reference, referenceWidth, 1, 0, referenceWidth - 1, 3),
+                    source.crop(1, 0, referenceWidth - 1, 3).getMatrix());
+
+            reference = rotateCounterClockwise(reference, referenceWidth, referenceHeight);
+            int t = referenceWidth;
+            referenceWidth = referenceHeight;
+            referenceHeight = t;
+            source = source.rotateCounterClockwise();
+        }
+        // 裁剪之后再旋转
+        LuminanceSource cropped = new BitmapLuminanceSource(width, height, pixels).crop(1, 1, 3, 2);
+        assertArrayEquals(rotateCounterClockwise(crop(expected, width, 1, 1, 3, 2), 3, 2),
+                cropped.rotateCounterClockwise().getMatrix());
+    }
+
+    private static byte[] crop(byte[] image, int width, int left, int top, int cropWidth, int cropHeight) {
+        byte[] out = new byte[cropWidth * cropHeight];
+        for (int y = 0; y < cropHeight; y++) {
+            System.arraycopy(image, (top + y) * width + left, out, y * cropWidth, cropWidth);
+        }
+        return out;
+    }
+
+    /**
+     * 与 zxing 的 RGBLuminanceSource 相同的逆时针旋转（复制数据）
+     */
+    private static byte[] rotateCounterClockwise(byte[] image, int width, int height) {
+        byte[] out = new byte[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                out[(width - 1 - x) * height + y] = image[y * width + x];
+            }
+        }
+        return out;
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.zxing.decode;
+
+import android.media.ExifInterface;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link LuminanceImageLoader} 的缩小比例与 EXIF 方向
+ */
+public class LuminanceImageLoaderTest {
+    /**
+     * 3 * 2 的图片：
+     * 1 2 3
+     * 4 5 6
+     */
+    private static final byte[] IMAGE = {1, 2, 3, 4, 5, 6};
+
+    @Test
+    public void sampleSize_isPowerOfTwoWithinMaxDimension() {
+        assertEquals(1, LuminanceImageLoader.computeSampleSize(1600, 1200, 1600));
+        assertEquals(2, LuminanceImageLoader.computeSampleSize(1601, 1200, 1600));
+        // 4800 万像素
+        assertEquals(8, LuminanceImageLoader.computeSampleSize(8000, 6000, 1600));
+        assertEquals(8, LuminanceImageLoader.computeSampleSize(6000, 8000, 1600));
+    }
+
+    @Test
+    public void orientation_matchesExifDefinition() {
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6}, orient(ExifInterface.ORIENTATION_NORMAL));
+        assertArrayEquals(new byte[]{3, 2, 1, 6, 5, 4}, orient(ExifInterface.ORIENTATION_FLIP_HORIZONTAL));
+        assertArrayEquals(new byte[]{6, 5, 4, 3, 2, 1}, orient(ExifInterface.ORIENTATION_ROTATE_180));
+        assertArrayEquals(new byte[]{4, 5, 6, 1, 2, 3}, orient(ExifInterface.ORIENTATION_FLIP_VERTICAL));
+        // 以下结果为 2 * 3
+        assertArrayEquals(new byte[]{1, 4, 2, 5, 3, 6}, orient(ExifInterface.ORIENTATION_TRANSPOSE));
+        assertArrayEquals(new byte[]{4, 1, 5, 2, 6, 3}, orient(ExifInterface.ORIENTATION_ROTATE_90));
+        assertArrayEquals(new byte[]{6, 3, 5, 2, 4, 1}, orient(ExifInterface.ORIENTATION_TRANSVERSE));
+        assertArrayEquals(new byte[]{3, 6, 2, 5, 1, 4}, orient(ExifInterface.ORIENTATION_ROTATE_270));
+    }
+
+    private static byte[] orient(int orientation) {
+        int width = 3;
+        int height = 2;
+        boolean transposed = orientation >= ExifInterface.ORIENTATION_TRANSPOSE;
+        int dstWidth = transposed ? height : width;
+        byte[] out = new byte[IMAGE.length];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                out[LuminanceImageLoader.destIndex(orientation, x, y, width, height, dstWidth)] =
+                        IMAGE[y * width + x];
+            }
+        }
+        return out;
+    }
+
+}